@@ -0,0 +1,181 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * This class is used to write the log of a card game server to a stream
+ * without making the logging threads wait for the stream. Messages are stored
+ * in a ring buffer of fixed capacity and written by a background thread in
+ * batches. When the buffer is full, the oldest message is dropped and the
+ * number of dropped messages is written instead.
+ * 
+ */
+public class AsyncLog implements ServerLog {
+	/**
+	 * The default number of messages held by the ring buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+	// milliseconds between two flushes of the writer
+	private static final long FLUSH_INTERVAL = 200;
+
+	private final Writer writer; // the writer of the log
+	private final LogLevel threshold; // the least severe level logged
+	private final Thread flusher; // the thread writing the messages
+
+	// ring buffer of the pending messages, guarded by this
+	private final long[] times;
+	private final LogLevel[] levels;
+	private final String[] messages;
+	private int head = 0; // index of the oldest pending message
+	private int size = 0; // number of pending messages
+	private long dropped = 0; // number of messages dropped since the last write
+	private boolean closed = false;
+
+	/**
+	 * Creates and returns an instance of the AsyncLog class.
+	 * 
+	 * @param out
+	 *            the stream the log is written to
+	 * @param threshold
+	 *            the least severe level of the messages logged
+	 * @param capacity
+	 *            the number of messages held by the ring buffer
+	 */
+	public AsyncLog(OutputStream out, LogLevel threshold, int capacity) {
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		this.threshold = threshold;
+		this.times = new long[capacity];
+		this.levels = new LogLevel[capacity];
+		this.messages = new String[capacity];
+		this.flusher = new Thread(this::writeMessages, "async-log");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Creates and returns a log appended to the specified file.
+	 * 
+	 * @param fileName
+	 *            the name of the file
+	 * @param threshold
+	 *            the least severe level of the messages logged
+	 * @return the log
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public static AsyncLog toFile(String fileName, LogLevel threshold) throws IOException {
+		return new AsyncLog(new FileOutputStream(fileName, true), threshold, DEFAULT_CAPACITY);
+	}
+
+	public boolean isLoggable(LogLevel level) {
+		return level.compareTo(threshold) >= 0;
+	}
+
+	/**
+	 * Stores the specified message in the ring buffer if its level is logged.
+	 * Never waits for the message to be written.
+	 * 
+	 * @param level
+	 *            the level of the message
+	 * @param msg
+	 *            the message to be logged
+	 */
+	public void log(LogLevel level, String msg) {
+		if (!isLoggable(level)) {
+			return;
+		}
+		long time = System.currentTimeMillis();
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			if (size == messages.length) {
+				// drops the oldest message
+				messages[head] = null;
+				head = (head + 1) % messages.length;
+				size--;
+				dropped++;
+			}
+			int tail = (head + size) % messages.length;
+			times[tail] = time;
+			levels[tail] = level;
+			messages[tail] = msg;
+			size++;
+		}
+	}
+
+	/**
+	 * Writes the pending messages, closes the stream and stops the background
+	 * thread.
+	 */
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+		}
+		try {
+			flusher.join();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// writes the pending messages every FLUSH_INTERVAL milliseconds
+	private void writeMessages() {
+		int capacity = messages.length;
+		long[] batchTimes = new long[capacity];
+		LogLevel[] batchLevels = new LogLevel[capacity];
+		String[] batchMessages = new String[capacity];
+		boolean done = false;
+		while (!done) {
+			int count;
+			long batchDropped;
+			synchronized (this) {
+				if (size == 0 && !closed) {
+					try {
+						wait(FLUSH_INTERVAL);
+					} catch (InterruptedException ex) {
+						closed = true;
+					}
+				}
+				// moves the pending messages out of the ring buffer
+				count = size;
+				for (int i = 0; i < count; i++) {
+					int j = (head + i) % capacity;
+					batchTimes[i] = times[j];
+					batchLevels[i] = levels[j];
+					batchMessages[i] = messages[j];
+					messages[j] = null;
+				}
+				head = 0;
+				size = 0;
+				batchDropped = dropped;
+				dropped = 0;
+				done = closed;
+			}
+
+			try {
+				if (batchDropped > 0) {
+					writer.write(Instant.now() + " WARN " + batchDropped + " log messages dropped\n");
+				}
+				for (int i = 0; i < count; i++) {
+					writer.write(Instant.ofEpochMilli(batchTimes[i]) + " " + batchLevels[i] + " " + batchMessages[i] + "\n");
+					batchMessages[i] = null;
+				}
+				writer.flush();
+			} catch (IOException ex) {
+				// nowhere left to report the error
+			}
+		}
+		try {
+			writer.close();
+		} catch (IOException ex) {
+			// nowhere left to report the error
+		}
+	}
+}
@@ -0,0 +1,247 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * The BenchmarkRunner class is used to measure the throughput and allocation rate of small operations,
+ * in the manner of a microbenchmark harness. Each benchmark is an operation taking an invocation counter,
+ * which it uses to pick its input from a pool prepared in advance, and returning a value which is folded
+ * into a sink so that the JIT compiler cannot drop the work.
+ *
+ * Each benchmark is warmed up for a number of iterations before its measured iterations, and reports the
+ * mean number of operations per second with its standard deviation over the iterations, together with the
+ * number of bytes allocated per operation and the allocation rate, as measured on the running thread.
+ *
+ * The results can be saved as a baseline and later checked against it, so that a run fails when a
+ * benchmark has become slower or allocates more than the baseline allows.
+ */
+
+public class BenchmarkRunner {
+    private static final long MIN_BATCH_NANOS = 1000000; // the minimum duration of a batch of operations between two clock reads
+
+    private final ArrayList<String> names = new ArrayList<>(); // the names of the benchmarks
+    private final ArrayList<IntToLongFunction> operations = new ArrayList<>(); // the operations of the benchmarks
+    private int warmupIterations = 3; // the number of iterations run before measuring
+    private int measurementIterations = 5; // the number of iterations measured
+    private long iterationMillis = 1000; // the duration of an iteration
+    private Pattern filter = Pattern.compile(".*"); // the pattern selecting the benchmarks to be run
+    private String baselineToSave; // the file the results are saved to, or null
+    private String baselineToCheck; // the file the results are checked against, or null
+    private double tolerance = 0.10; // the fraction by which a result may be worse than its baseline
+    private volatile long sink; // the values returned by the operations, so that they must be computed
+
+    /**
+     * a method for creating a runner configured by command line options.
+     *
+     * @param args any of these options: "warmup N" for the number of warmup iterations (default 3);
+     *             "iterations N" for the number of measured iterations (default 5); "time MS" for the
+     *             duration of an iteration (default 1000); "filter REGEX" for running only the benchmarks
+     *             whose name contains a match; "save FILE" for saving the results as a baseline; "check
+     *             FILE" for checking the results against a baseline; "tolerance PERCENT" for how much
+     *             slower, or more allocating, than its baseline a benchmark may be (default 10)
+     * @return the runner
+     */
+    public static BenchmarkRunner fromCommandLine(String[] args){
+        BenchmarkRunner runner = new BenchmarkRunner();
+        for (int i = 0; i + 1 < args.length; i += 2){
+            switch (args[i]){
+                case "warmup": runner.warmupIterations = Integer.parseInt(args[i + 1]); break;
+                case "iterations": runner.measurementIterations = Math.max(Integer.parseInt(args[i + 1]), 1); break;
+                case "time": runner.iterationMillis = Long.parseLong(args[i + 1]); break;
+                case "filter": runner.filter = Pattern.compile(args[i + 1]); break;
+                case "save": runner.baselineToSave = args[i + 1]; break;
+                case "check": runner.baselineToCheck = args[i + 1]; break;
+                case "tolerance": runner.tolerance = Double.parseDouble(args[i + 1]) / 100; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (args.length % 2 != 0){
+            throw new IllegalArgumentException("Missing value of option: " + args[args.length - 1]);
+        }
+        return runner;
+    }
+
+    /**
+     * a method for adding a benchmark.
+     *
+     * @param name the name of the benchmark
+     * @param operation the operation to be measured, given the number of the invocation; it returns a value
+     *                  depending on its work
+     */
+    public void add(String name, IntToLongFunction operation){
+        names.add(name);
+        operations.add(operation);
+    }
+
+    /**
+     * a method for getting the names of the benchmarks selected by the filter, in the order they were
+     * added, e.g. for running them with another harness.
+     *
+     * @return the names of the selected benchmarks
+     */
+    public List<String> getNames(){
+        ArrayList<String> selected = new ArrayList<>();
+        for (String name : names){
+            if (filter.matcher(name).find()){
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * a method for getting the operation of the benchmark with the specified name.
+     *
+     * @param name the name of the benchmark
+     * @return the operation of the benchmark, or null if there is no benchmark with this name
+     */
+    public IntToLongFunction getOperation(String name){
+        int idx = names.indexOf(name);
+        return idx < 0 ? null : operations.get(idx);
+    }
+
+    /**
+     * a method for running the benchmarks selected by the filter, printing a line for each of them, then
+     * saving the results and checking them against a baseline if requested.
+     *
+     * @return false if a benchmark is worse than its baseline, true otherwise
+     * @throws IOException if a baseline cannot be read or written
+     */
+    public boolean run() throws IOException{
+        System.out.printf("%-48s %14s %12s %12s %10s%n", "Benchmark", "ops/s", "error", "B/op", "MB/s");
+        HashMap<String, double[]> results = new HashMap<>();
+        ArrayList<String> order = new ArrayList<>();
+        for (int b = 0; b < names.size(); b++){
+            if (!filter.matcher(names.get(b)).find()){
+                continue;
+            }
+            double[] result = measure(operations.get(b));
+            results.put(names.get(b), result);
+            order.add(names.get(b));
+            System.out.printf("%-48s %14.0f %12.0f %12s %10s%n", names.get(b), result[0], result[1],
+                    result[2] < 0 ? "n/a" : String.format("%.1f", result[2]),
+                    result[2] < 0 ? "n/a" : String.format("%.1f", result[2] * result[0] / 1e6));
+        }
+        if (baselineToSave != null){
+            try (PrintWriter out = new PrintWriter(new FileWriter(baselineToSave))){
+                for (String name : order){
+                    double[] result = results.get(name);
+                    out.println(name + "\t" + result[0] + "\t" + result[2]);
+                }
+            }
+            System.out.println("Baseline saved to " + baselineToSave);
+        }
+        return baselineToCheck == null || check(results, order);
+    }
+
+    // returns the mean ops/s, its standard deviation and the bytes allocated per operation (-1 if unknown)
+    private double[] measure(IntToLongFunction operation){
+        int[] counter = new int[1];
+        int[] batch = {1};
+        long warmupEnd = System.nanoTime() + warmupIterations * iterationMillis * 1000000;
+        while (System.nanoTime() < warmupEnd){
+            runBatch(operation, batch, counter);
+        }
+
+        double[] opsPerSecond = new double[measurementIterations];
+        long totalOps = 0;
+        long allocatedBefore = allocatedBytes();
+        for (int it = 0; it < measurementIterations; it++){
+            long start = System.nanoTime();
+            long end = start + iterationMillis * 1000000;
+            long ops = 0;
+            long now;
+            do {
+                ops += runBatch(operation, batch, counter);
+                now = System.nanoTime();
+            } while (now < end);
+            opsPerSecond[it] = ops * 1e9 / (now - start);
+            totalOps += ops;
+        }
+        long allocatedAfter = allocatedBytes();
+
+        double mean = 0;
+        for (double value : opsPerSecond){
+            mean += value / measurementIterations;
+        }
+        double variance = 0;
+        for (double value : opsPerSecond){
+            variance += (value - mean) * (value - mean) / Math.max(measurementIterations - 1, 1);
+        }
+        double bytesPerOp = allocatedBefore < 0 ? -1 : (double) (allocatedAfter - allocatedBefore) / totalOps;
+        return new double[] {mean, Math.sqrt(variance), bytesPerOp};
+    }
+
+    // runs a batch of operations and returns their number, doubling the batch until it lasts long enough
+    // for the clock reads around it not to matter
+    private long runBatch(IntToLongFunction operation, int[] batch, int[] counter){
+        int size = batch[0];
+        long start = System.nanoTime();
+        long result = 0;
+        int i = counter[0];
+        for (int n = 0; n < size; n++){
+            result ^= operation.applyAsLong(i++);
+        }
+        counter[0] = i;
+        sink ^= result;
+        if (System.nanoTime() - start < MIN_BATCH_NANOS && size < (1 << 30)){
+            batch[0] = size * 2;
+        }
+        return size;
+    }
+
+    // returns the number of bytes allocated so far by the current thread, or -1 if it is not supported
+    private static long allocatedBytes(){
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean){
+            com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean) bean;
+            if (hotSpotBean.isThreadAllocatedMemorySupported() && hotSpotBean.isThreadAllocatedMemoryEnabled()){
+                return hotSpotBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    // prints the benchmarks worse than their baseline and returns true if there are none
+    private boolean check(HashMap<String, double[]> results, ArrayList<String> order) throws IOException{
+        HashMap<String, double[]> baseline = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(baselineToCheck))){
+            String line;
+            while ((line = in.readLine()) != null){
+                String[] fields = line.split("\t");
+                if (fields.length == 3){
+                    baseline.put(fields[0], new double[] {Double.parseDouble(fields[1]), 0, Double.parseDouble(fields[2])});
+                }
+            }
+        }
+
+        boolean passed = true;
+        for (String name : order){
+            double[] expected = baseline.get(name);
+            if (expected == null){
+                System.out.println("No baseline: " + name);
+                continue;
+            }
+            double[] result = results.get(name);
+            if (result[0] < expected[0] * (1 - tolerance)){
+                System.out.printf("REGRESSION %s: %.0f ops/s, baseline %.0f ops/s%n", name, result[0], expected[0]);
+                passed = false;
+            }
+            // a byte per operation of slack, as a few allocations are not attributed exactly
+            if (result[2] >= 0 && expected[2] >= 0 && result[2] > expected[2] * (1 + tolerance) + 1){
+                System.out.printf("REGRESSION %s: %.1f B/op, baseline %.1f B/op%n", name, result[2], expected[2]);
+                passed = false;
+            }
+        }
+        System.out.println(passed ? "No regression against " + baselineToCheck : "FAILED against " + baselineToCheck);
+        return passed;
+    }
+}
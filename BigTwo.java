@@ -3,19 +3,14 @@ import java.util.*;
 
 /**
  * The BigTwo class implements the CardGame interface and is used to model a Big Two card
- * game. It has private instance variables for storing the number of players, a deck of cards, a
- * list of players, a list of hands played on the table, an index of the current player, and a user
- * interface.
+ * game played through a GUI and a network client. The state and rules of the game are kept in a
+ * BigTwoEngine; this class reports the outcome of each move to the user interface.
  *
  * @author ZHU Lingxiao
  */
 
 public class BigTwo implements CardGame{
-    private int numOfPlayers; // private instance variable representing the number of players in the game;
-    private Deck deck; // private instance variable representing the deck of cards used in the game;
-    private ArrayList<CardGamePlayer> playerList; // private instance variable for storing the players in the game;
-    private ArrayList<Hand> handsOnTable; // private instance variable for storing the hands played by the players;
-    private int currentPlayerIdx; // private instance variable representing the player who can play the current turn;
+    private BigTwoEngine engine; // private instance variable holding the state and rules of the game;
     private BigTwoGUI ui; // private instance variable representing the user interface;
     private BigTwoClient client; // a BigTwoClient object for the client;
 
@@ -24,28 +19,53 @@ public class BigTwo implements CardGame{
      *
      */
     public BigTwo(){
-        numOfPlayers = 0;
-        deck = new BigTwoDeck();
-        playerList = new ArrayList<>();
-        handsOnTable = new ArrayList<>();
-        currentPlayerIdx = 0;
-        for (int i = 0; i < 4; i++){
-            playerList.add(new CardGamePlayer());
-            numOfPlayers++;
-        }
+        this.engine = new BigTwoEngine();
 
         this.ui = new BigTwoGUI(this);
         this.client = new BigTwoClient(this,this.ui);
         this.ui.setClient(this.client);
     }
 
+    /**
+     * a constructor for creating a Big Two card game shown by the specified user interface, with a client which
+     * does not connect to any server, e.g. for measuring how the client handles messages.
+     *
+     * @param ui the user interface of the game
+     * @param playerName the name of the local player
+     */
+    BigTwo(BigTwoGUI ui, String playerName){
+        this.engine = new BigTwoEngine();
+
+        this.ui = ui;
+        this.client = new BigTwoClient(this, ui, playerName);
+        this.ui.setClient(this.client);
+    }
+
+    /**
+     * a method for retrieving the client of the game.
+     *
+     * @return the client of the game.
+     */
+    BigTwoClient getClient(){
+        return this.client;
+    }
+
+    /**
+     * a method for retrieving the engine holding the state and rules of the game.
+     *
+     * @return the engine of the game.
+     */
+    public BigTwoEngine getEngine(){
+        return this.engine;
+    }
+
     /**
      * a method for getting the number of players.
      *
      * @return the int number of players.
      */
     public int getNumOfPlayers(){
-        return this.numOfPlayers;
+        return engine.getNumOfPlayers();
     }
 
     /**
@@ -54,7 +74,7 @@ public class BigTwo implements CardGame{
      * @return the deck of cards being used.
      */
     public Deck getDeck(){
-        return this.deck;
+        return engine.getDeck();
     }
 
     /**
@@ -63,7 +83,7 @@ public class BigTwo implements CardGame{
      * @return the arraylist of players.
      */
     public ArrayList<CardGamePlayer> getPlayerList(){
-        return this.playerList;
+        return engine.getPlayerList();
     }
 
     /**
@@ -73,7 +93,7 @@ public class BigTwo implements CardGame{
      */
 
     public int getCurrentPlayerIdx() {
-        return currentPlayerIdx;
+        return engine.getCurrentPlayerIdx();
     }
 
     /**
@@ -82,7 +102,7 @@ public class BigTwo implements CardGame{
      * @return the arraylist of hands played on the table.
      */
     public ArrayList<Hand> getHandsOnTable(){
-        return this.handsOnTable;
+        return engine.getHandsOnTable();
     }
 
     /**
@@ -91,22 +111,8 @@ public class BigTwo implements CardGame{
      * @param deck the deck of (shuffled) cards to be used in this game
      */
     public void start(Deck deck){
-        this.deck = deck;
-        handsOnTable.clear();
-        for (int i = 0; i < numOfPlayers; i++){
-            playerList.get(i).removeAllCards();
-        }
-
-        for (int i = 0; i < 4; i++){
-            for (int j = i * 13; j < i * 13 + 13; j++){
-                playerList.get(i).addCard(deck.getCard(j));
-                if (deck.getCard(j).getRank() == 2 && deck.getCard(j).getSuit() == 0){
-                    currentPlayerIdx = i;
-                    this.ui.setActivePlayer(i);
-                }
-            }
-            playerList.get(i).sortCardsInHand();
-        }
+        engine.start(deck);
+        this.ui.setActivePlayer(engine.getCurrentPlayerIdx());
 
         this.ui.repaint();
 
@@ -119,57 +125,20 @@ public class BigTwo implements CardGame{
      *
      * @param player the card game player who is going to play a hand
      * @param cards the cards the player is going to play
-     * @return
+     * @return the hand composed from the cards, or null if the cards do not form a valid hand
      */
     public static Hand composeHand(CardGamePlayer player, CardList cards){
-        if (cards.size() > 5){
-            return null;
-        }
-        if (cards.size() == 1){
-            return new Single(player, cards);
-        }
-        if (cards.size() == 2){
-            Pair pair = new Pair(player,cards);
-            if(pair.isValid()){
-                return pair;
-            }
-            else{
-                return null;
-            }
-        }
-        if (cards.size() == 3){
-            Triple triple =  new Triple(player,cards);
-            if(triple.isValid()){
-                return triple;
-            }
-            else{
-                return null;
-            }
-        }
-
-        StraightFlush straightFlush = new StraightFlush(player, cards);
-        Quad quad = new Quad(player,cards);
-        FullHouse fullHouse = new FullHouse(player, cards);
-        Flush flush = new Flush(player,cards);
-        Straight straight = new Straight(player, cards);
-
-        if(straightFlush.isValid()){
-            return straightFlush;
-        }
-        if(quad.isValid()){
-            return quad;
-        }
-        if(fullHouse.isValid()){
-            return fullHouse;
-        }
-        if(flush.isValid()){
-            return flush;
-        }
-        if(straight.isValid()){
-            return straight;
-        }
+        return BigTwoEngine.composeHand(player, cards);
+    }
 
-        return null;
+    /**
+     * a method for enumerating the legal moves of the player with the specified index.
+     *
+     * @param playerIdx the index of the player
+     * @return the legal moves, each a set of cards (see CardSet) with CardSet.EMPTY standing for a pass
+     */
+    public MoveList getLegalMoves(int playerIdx){
+        return engine.getLegalMoves(playerIdx);
     }
 
     /**
@@ -190,82 +159,79 @@ public class BigTwo implements CardGame{
      * @param cardIdx   the list of the indices of the cards selected by the player
      */
     public void checkMove(int playerIdx, int[] cardIdx){
-        CardGamePlayer cur_player = playerList.get(playerIdx);
-        if(cardIdx == null){
-            if (handsOnTable.isEmpty()){
-                ui.printMsg("Not a legal move!!!\n");
-                ui.promptActivePlayer();
-                ui.repaint();
-                return;
-            }
-            else{
-                if (handsOnTable.get(handsOnTable.size() - 1).getPlayer().getName().equals(cur_player.getName())){
-                    ui.printMsg("Not a legal move!!!\n");
-                    ui.promptActivePlayer();
-                    ui.repaint();
-                    return;
-                }
-            }
+        MoveResult result = engine.play(playerIdx, cardIdx);
 
-            ui.printMsg("{Pass}\n");
-            ui.printMsg("\n");
-            currentPlayerIdx = (playerIdx + 1) % 4;
-            ui.setActivePlayer(currentPlayerIdx);
-            ui.repaint();
-            ui.promptActivePlayer();
+        if (!result.isLegal()){
+            rejectMove();
             return;
         }
+        showMove(result);
+    }
 
-        CardList cards = cur_player.play(cardIdx);
-        Hand handToPlay = composeHand(cur_player,cards);
+    /**
+     * a method for telling the local player that the move has been rejected, e.g. by the server.
+     */
+    public void rejectMove(){
+        ui.printMsg("Not a legal move!!!\n");
+        ui.promptActivePlayer();
+        ui.repaint();
+    }
 
-        if(handToPlay == null){
-            ui.printMsg("Not a legal move!!!\n");
-            ui.promptActivePlayer();
-            ui.repaint();
-            return;
+    /**
+     * a method for carrying out a move accepted by the server. The move is checked against the
+     * state of the game as well, so that a client out of step with the server can find it out.
+     *
+     * @param playerIdx the index of the player who made the move
+     * @param delta the effect of the move
+     * @return whether the move could be carried out or not
+     */
+    public boolean applyDelta(int playerIdx, GameDelta delta){
+        MoveResult result = engine.play(playerIdx, delta.getCards());
+        if (!result.isLegal()){
+            return false;
         }
+        showMove(result);
+        return result.getNextPlayerIdx() == delta.getNextPlayerID();
+    }
 
-        if (handsOnTable.isEmpty()){
-            handsOnTable.add(handToPlay);
-            cur_player.removeCards(cards);
-            ui.printMsg("{" + handToPlay.getType() + "} " + cards + "\n");
-
-            int next_player = (playerIdx + 1) % 4;
-            currentPlayerIdx = next_player;
-            ui.setActivePlayer(currentPlayerIdx);
+    /**
+     * a method for restoring the game from a snapshot sent by the server.
+     *
+     * @param snapshot the state of the game
+     */
+    public void restore(GameSnapshot snapshot){
+        snapshot.applyTo(engine);
+        ui.printMsg("Game state restored.\n");
+        if (engine.endOfGame()){
+            ui.setActivePlayer(-1);
+            ui.disable();
         }
         else{
-            Hand pre_hand = handsOnTable.get(handsOnTable.size() - 1);
-            if(pre_hand.getPlayer().getName().equals(cur_player.getName())){
-                handsOnTable.add(handToPlay);
-                cur_player.removeCards(cards);
-                ui.printMsg("{" + handToPlay.getType() + "} " + cards + "\n");
-                int next_player = (playerIdx + 1) % 4;
-                currentPlayerIdx = next_player;
-                ui.setActivePlayer(currentPlayerIdx);
-            }
-            else if (handToPlay.beats(pre_hand)){
-                handsOnTable.add(handToPlay);
-                cur_player.removeCards(cards);
-                ui.printMsg("{" + handToPlay.getType() + "} " + cards + "\n");
-                int next_player = (playerIdx + 1) % 4;
-                currentPlayerIdx = next_player;
-                ui.setActivePlayer(currentPlayerIdx);
-            }
-            else{
-                ui.printMsg("Not a legal move!!!\n");
-                ui.promptActivePlayer();
-                ui.repaint();
-                return;
-            }
+            ui.setActivePlayer(engine.getCurrentPlayerIdx());
         }
         ui.repaint();
+        ui.promptActivePlayer();
+    }
 
-        if (endOfGame()){
+    // reports an accepted move to the user interface
+    private void showMove(MoveResult result){
+        if (result.getStatus() == MoveResult.Status.PASS){
+            ui.printMsg("{Pass}\n");
+            ui.printMsg("\n");
+            ui.setActivePlayer(result.getNextPlayerIdx());
+            ui.repaint();
+            ui.promptActivePlayer();
+            return;
+        }
+
+        Hand handToPlay = result.getHand();
+        ui.printMsg("{" + handToPlay.getType() + "} " + handToPlay + "\n");
+        ui.setActivePlayer(result.getNextPlayerIdx());
+        ui.repaint();
+
+        if (result.isGameOver()){
             ui.printMsg("Game ends\n");
-            for (int i = 0; i < 4; i++){
-                CardGamePlayer player = playerList.get(i);
+            for (CardGamePlayer player : engine.getPlayerList()){
                 if(player.getNumOfCards() != 0){
                     ui.printMsg(player.getName() + " has " + player.getNumOfCards() + " cards in hand.\n");
                 }
@@ -290,21 +256,20 @@ public class BigTwo implements CardGame{
      * @return a boolean value representing whether the game ends or not
      */
     public boolean endOfGame(){
-        for (int i = 0; i < 4; i++){
-            if(playerList.get(i).getNumOfCards() == 0){
-                return true;
-            }
-        }
-        return false;
+        return engine.endOfGame();
     }
 
     /**
      * a method for starting a Big Two card game.
      *
-     * @param args
+     * @param args "computer" for letting a computer player (see TreeSearchStrategy) make the moves of the local
+     *             player, which are otherwise made by the user
      */
     public static void main(String[] args){
         BigTwo game = new BigTwo();
+        if (args.length > 0 && args[0].equals("computer")){
+            game.getClient().setComputerPlayer(new TreeSearchStrategy());
+        }
     }
 }
 
@@ -1,11 +1,28 @@
+import java.io.ObjectStreamException;
+
 /**
  *The BigTwoCard class is a subclass of the Card class and is used to model a card used in a
- * Big Two card game.
+ * Big Two card game. There is exactly one instance for each of the 52 cards, obtained through
+ * valueOf(), so that Big Two cards can be compared by identity.
  *
  * @author ZHU Lingxiao
  */
 
 public class BigTwoCard extends Card{
+    // the value computed for the class before the constructor became private, kept so that decks
+    // sent by older clients and servers can still be read
+    private static final long serialVersionUID = -6882428045893598171L;
+
+    // the canonical instances, indexed by getIndex()
+    private static final BigTwoCard[] CARDS = new BigTwoCard[52];
+
+    static {
+        for (int suit = 0; suit < 4; suit++){
+            for (int rank = 0; rank < 13; rank++){
+                CARDS[CardSet.indexOf(suit, rank)] = new BigTwoCard(suit, rank);
+            }
+        }
+    }
 
     /**
      * a constructor for building a card with the specified
@@ -14,10 +31,60 @@ public class BigTwoCard extends Card{
      * @param suit is an integer between 0 and 3 representing the suit of the card
      * @param rank is an integer between 0 and 12 representing the rank of the card
      */
-    public BigTwoCard(int suit, int rank){
+    private BigTwoCard(int suit, int rank){
         super(suit, rank);
     }
 
+    /**
+     * a method for retrieving the card with the specified suit and rank.
+     *
+     * @param suit is an integer between 0 and 3 representing the suit of the card
+     * @param rank is an integer between 0 and 12 representing the rank of the card
+     * @return the card with the specified suit and rank
+     */
+    public static BigTwoCard valueOf(int suit, int rank){
+        return CARDS[CardSet.indexOf(suit, rank)];
+    }
+
+    /**
+     * a method for retrieving the card with the specified index.
+     *
+     * @param index is an integer between 0 and 51 as returned by getIndex()
+     * @return the card with the specified index
+     */
+    public static BigTwoCard valueOf(int index){
+        return CARDS[index];
+    }
+
+    /**
+     * a method for checking whether the specified card is "equal to" this one. Big Two cards are
+     * interned (see valueOf()), so two of them are equal only if they are the same instance; a card of
+     * another class is compared by rank and suit, as by Card.equals().
+     *
+     * @param card the reference object with which to compare
+     * @return true if the specified card is this card, or is not a Big Two card and has the same rank
+     *         and suit as this card; false otherwise
+     */
+    public boolean equals(Object card){
+        if (card == this){
+            return true;
+        }
+        if (card instanceof BigTwoCard){
+            return false;
+        }
+        return super.equals(card);
+    }
+
+    /**
+     * a method for replacing a deserialized card with the canonical instance.
+     *
+     * @return the canonical instance of this card
+     * @throws ObjectStreamException never thrown
+     */
+    private Object readResolve() throws ObjectStreamException{
+        return valueOf(this.suit, this.rank);
+    }
+
     /**
      * a method for comparing the order of this card with the
      * specified card.
@@ -1,9 +1,13 @@
 import javax.swing.*;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The BigTwoClient class implements the NetworkGame interface. It is used to model a Big
@@ -16,14 +20,22 @@ import java.util.Random;
 public class BigTwoClient implements NetworkGame{
     private BigTwo game; //a BigTwo object for the Big Two card game
     private BigTwoGUI gui; //a BigTwoGUI object for the Big Two card game.
-    private Socket sock; //a socket connection to the game server.
-    private ObjectOutputStream oos; //an ObjectOutputStream for sending messages to the server.
+    private volatile Socket sock; //a socket connection to the game server.
+    private DataOutputStream dos; //a DataOutputStream for sending message frames to the server.
+    private MessageCodec codec = new BinaryMessageCodec(); //the codec for encoding the messages sent to and received from the server.
     private int playerID; //an integer specifying the playerID (i.e., index) of the local player.
     private String playerName; //a string specifying the name of the local player.
     private String serverIP; //a string specifying the IP address of the game server.
     private int serverPort; //an integer specifying the TCP port of the game server.
     private int activePlayerNumber = 0;// an integer specifying the number of active players in the current game;
     private boolean connectStatus = false; // a boolean value specifying the connection status of the client;
+    private int lastSeq = -1; // the sequence number of the last state delta applied, or -1 if no game is in progress.
+    private boolean resyncPending = false; // a boolean value specifying whether a snapshot has been requested from the server.
+    private volatile String sessionToken; // the token for resuming the session on a new connection, or null if the local player has not joined.
+    private static final long RECONNECT_TIMEOUT = 30000; // the number of milliseconds for which a lost session is tried to be resumed.
+    private BigTwoStrategy computerPlayer; // the computer player making the moves of the local player, or null if the user makes them.
+    private final Random random = new Random(); // the random number generator of the computer player.
+    private final HandlerExecutor receiverExecutor = new HandlerExecutor("server-handler", 2, true); // an executor running the ServerHandler, on a virtual thread if supported.
 
     /**
      * a constructor for creating a Big Two client.
@@ -59,6 +71,22 @@ public class BigTwoClient implements NetworkGame{
         this.connect();
     }
 
+    /**
+     * a constructor for creating a Big Two client which does not connect to the server until connect() is
+     * called, without asking the user anything.
+     *
+     * @param game is a reference to a BigTwo object associated with this client
+     * @param gui is a reference to a BigTwoGUI object associated the BigTwo object.
+     * @param playerName the name of the local player.
+     */
+    BigTwoClient(BigTwo game, BigTwoGUI gui, String playerName){
+        this.game = game;
+        this.gui = gui;
+        this.playerName = playerName;
+        this.setServerPort(2396);
+        this.setServerIP("127.0.0.1");
+    }
+
     /**
      * a method for getting the number of active players in the current game;
      *
@@ -160,28 +188,92 @@ public class BigTwoClient implements NetworkGame{
         this.serverPort = serverPort;
     }
 
+    /**
+     * a method for letting a computer player make the moves of the local player instead of the user. A computer
+     * player which is a BigTwoListener, such as a TreeSearchStrategy, listens to the engine of the game, so that
+     * it follows the moves sent by the server and keeps its tree from one turn to the next.
+     *
+     * @param computerPlayer the computer player, or null for letting the user make the moves again
+     */
+    public synchronized void setComputerPlayer(BigTwoStrategy computerPlayer){
+        if (this.computerPlayer instanceof BigTwoListener){
+            this.game.getEngine().removeListener((BigTwoListener) this.computerPlayer);
+        }
+        this.computerPlayer = computerPlayer;
+        if (computerPlayer instanceof BigTwoListener){
+            this.game.getEngine().addListener((BigTwoListener) computerPlayer);
+        }
+        startComputerTurn();
+    }
+
     /**
      * a method for making a socket connection with the game server.
      */
     public void connect(){
+        while (!openConnection(new CardGameMessage(CardGameMessage.JOIN,-1, this.getPlayerName()))){
+            System.out.println("Failed to connect.");
+            int choice = JOptionPane.showConfirmDialog(null, "Server is not responding, please reconnect.", "Error", JOptionPane.OK_OPTION);
+            if (choice != JOptionPane.OK_OPTION){
+                return;
+            }
+        }
+    }
+
+    // opens a socket connection with the game server, starts receiving messages from it and sends the specified first message.
+    private boolean openConnection(CardGameMessage firstMessage){
+        Socket sock = null;
         try{
-            this.sock = new Socket(serverIP,serverPort);
-            this.oos = new ObjectOutputStream(sock.getOutputStream());
+            sock = new Socket(serverIP,serverPort);
+            sock.setTcpNoDelay(true);
+            // the server may be silent for longer than this when its ping interval is long, so a silence
+            // of this length is only followed by a PING to the server (see ServerHandler)
+            sock.setSoTimeout((int) CardGameServer.DEFAULT_IDLE_TIMEOUT);
+            synchronized (this){
+                this.sock = sock;
+                this.dos = new DataOutputStream(new BufferedOutputStream(sock.getOutputStream()));
+                if (firstMessage.getType() == CardGameMessage.SESSION){
+                    // the snapshot sent by the server replaces the deltas missed
+                    this.resyncPending = this.lastSeq >= 0;
+                }
+            }
 
-            Thread serverHandler = new Thread(new ServerHandler());
-            serverHandler.start();
+            receiverExecutor.execute(new ServerHandler(sock));
 
             System.out.println("Networking established.");
 
-            sendMessage(new CardGameMessage(CardGameMessage.JOIN,-1, this.getPlayerName()));
-
+            sendMessage(firstMessage);
+            return true;
         }catch (Exception e){
-            System.out.println("Failed to connect.");
-            int choice = JOptionPane.showConfirmDialog(null, "Server is not responding, please reconnect.", "Error", JOptionPane.OK_OPTION);
-            if (choice == JOptionPane.OK_OPTION){
-                connect();
+            if (sock != null){
+                try{
+                    sock.close();
+                }catch (Exception ex){
+                    ex.printStackTrace();
+                }
+            }
+            this.gui.printMsg("Failed to connect to the server: " + e + "\n");
+            return false;
+        }
+    }
+
+    // tries to resume the session on a new connection after the connection has been lost, waiting longer between the attempts.
+    private void reconnect(){
+        this.gui.printMsg("Connection lost, reconnecting.\n");
+        long deadline = System.currentTimeMillis() + RECONNECT_TIMEOUT;
+        long delay = 50;
+        while (this.sessionToken != null && System.currentTimeMillis() < deadline){
+            if (openConnection(new CardGameMessage(CardGameMessage.SESSION,-1, this.sessionToken))){
+                return;
+            }
+            try{
+                Thread.sleep(delay);
+            }catch (InterruptedException e){
+                return;
             }
+            delay = Math.min(delay * 2, 2000);
         }
+        this.sessionToken = null;
+        this.gui.printMsg("Failed to reconnect to the server.\n");
     }
 
     /**
@@ -228,6 +320,7 @@ public class BigTwoClient implements NetworkGame{
                 break;
 
             case CardGameMessage.FULL:
+                this.sessionToken = null;
                 this.gui.printMsg("The server is full and cannot join the game.\n");
                 try {
                     sock.close();
@@ -248,6 +341,7 @@ public class BigTwoClient implements NetworkGame{
                 this.gui.printMsg(quitName + " quited the game.\n");
                 this.game.getPlayerList().get(messagePlayerID).setName("");
                 if (!this.game.endOfGame()){
+                    this.lastSeq = -1;
                     for (CardGamePlayer player : this.game.getPlayerList()){
                         player.removeAllCards();
                     }
@@ -273,15 +367,69 @@ public class BigTwoClient implements NetworkGame{
             case CardGameMessage.START:
                 BigTwoDeck deck = (BigTwoDeck) message.getData();
                 this.gui.printMsg("Starting the game.\n");
+                this.lastSeq = 0;
+                this.resyncPending = false;
                 this.game.start(deck);
                 this.gui.repaint();
+                startComputerTurn();
                 break;
 
             case CardGameMessage.MOVE:
-                this.game.checkMove(messagePlayerID,(int[]) message.getData());
+                // the server only returns the moves it has rejected
+                this.game.rejectMove();
+                startComputerTurn();
+                break;
+
+            case CardGameMessage.DELTA:
+                GameDelta delta = (GameDelta) message.getData();
+                if (this.lastSeq < 0 || this.resyncPending || delta.getSeq() <= this.lastSeq){
+                    break;
+                }
+                if (delta.getSeq() != this.lastSeq + 1 || !this.game.applyDelta(messagePlayerID, delta)){
+                    // a delta has been missed, or this client is out of step with the server
+                    requestSnapshot();
+                    break;
+                }
+                this.lastSeq = delta.getSeq();
+                startComputerTurn();
+                break;
+
+            case CardGameMessage.SNAPSHOT:
+                GameSnapshot snapshot = (GameSnapshot) message.getData();
+                if (!this.resyncPending || snapshot == null){
+                    break;
+                }
+                this.game.restore(snapshot);
+                this.lastSeq = snapshot.getSeq();
+                this.resyncPending = false;
+                startComputerTurn();
+                break;
+
+            case CardGameMessage.SESSION:
+                if (message.getData() != null){
+                    this.sessionToken = (String) message.getData();
+                    break;
+                }
+                // the seat has been given up by the server, joins the game again as a new player
+                this.sessionToken = null;
+                this.lastSeq = -1;
+                this.resyncPending = false;
+                for (CardGamePlayer player : this.game.getPlayerList()){
+                    player.removeAllCards();
+                }
+                this.gui.printMsg("Session expired, joining the game again.\n");
+                sendMessage(new CardGameMessage(CardGameMessage.JOIN,-1, this.getPlayerName()));
                 this.gui.repaint();
                 break;
 
+            case CardGameMessage.PING:
+                sendMessage(new CardGameMessage(CardGameMessage.PONG,-1,null));
+                break;
+
+            case CardGameMessage.PONG:
+                // only tells that the connection is alive
+                break;
+
             case CardGameMessage.MSG:
                 String chatMessage = (String) message.getData();
                 this.gui.printChatMsg(chatMessage);
@@ -293,6 +441,41 @@ public class BigTwoClient implements NetworkGame{
 
     }
 
+    // searches for the move of the local player on a copy of the engine if it is the turn of the local player and a
+    // computer player makes its moves, so that the messages from the server are not held up by the search.
+    private void startComputerTurn(){
+        BigTwoStrategy strategy = this.computerPlayer;
+        BigTwoEngine engine = this.game.getEngine();
+        if (strategy == null || this.lastSeq < 0 || this.resyncPending || engine.endOfGame()
+                || engine.getCurrentPlayerIdx() != this.playerID){
+            return;
+        }
+        int turn = this.lastSeq;
+        BigTwoEngine copy = new BigTwoEngine();
+        GameSnapshot.of(turn, engine).applyTo(copy);
+        ForkJoinPool.commonPool().execute(() -> {
+            long cards = strategy.chooseMove(copy, this.playerID, random);
+            computerMoved(turn, cards);
+        });
+    }
+
+    // sends the move found by the computer player if the specified turn is not over.
+    private synchronized void computerMoved(int turn, long cards){
+        if (this.lastSeq != turn || this.resyncPending){
+            return;
+        }
+        CardGamePlayer player = this.game.getPlayerList().get(this.playerID);
+        // a pass is sent without indices, as by the pass button
+        sendMessage(new CardGameMessage(CardGameMessage.MOVE,-1,CardSet.indicesIn(player.getCardsInHand(), cards)));
+    }
+
+    // asks the server for a snapshot of the game, ignoring the deltas received until it arrives
+    private void requestSnapshot(){
+        this.resyncPending = true;
+        this.gui.printMsg("Out of step with the server, resynchronizing.\n");
+        sendMessage(new CardGameMessage(CardGameMessage.SNAPSHOT, -1, null));
+    }
+
     /**
      * a method for sending the specified message to the game server.
      *
@@ -300,8 +483,7 @@ public class BigTwoClient implements NetworkGame{
      */
     public synchronized void sendMessage(GameMessage message){
         try{
-            oos.writeObject(message);
-            oos.flush();
+            MessageFrames.write(dos, codec, (CardGameMessage) message);
             System.out.println("Message Sent.");
         }catch(Exception e){
             System.out.println("Failed to send message.");
@@ -309,25 +491,73 @@ public class BigTwoClient implements NetworkGame{
         }
     }
 
-    // an inner class that implements the Runnable interface, for receiving the message from the server.
+    // an inner class that implements the Runnable interface, for receiving the message frames from the server.
     private class ServerHandler implements Runnable{
-        private ObjectInputStream ois;
+        private final Socket sock; // the socket connection to the game server.
+        private DataInputStream dis;
+
+        /**
+         * a constructor for creating a handler of the messages received through the specified socket.
+         *
+         * @param sock the socket connection to the game server.
+         */
+        public ServerHandler(Socket sock){
+            this.sock = sock;
+        }
 
         /**
-         * a method from the runnable interface to handle messages from the server.
+         * a method from the runnable interface to handle messages from the server, resuming the session
+         * if the connection is lost.
          */
         public void run(){
+            receive();
+            try{
+                sock.close();
+            }catch (Exception e){
+                e.printStackTrace();
+            }
+            if (sock == BigTwoClient.this.sock && sessionToken != null){
+                reconnect();
+            }
+        }
+
+        // receives and parses the messages from the server until the connection is closed, or until nothing
+        // has been received for a read timeout after the PING sent to the server at the end of the previous one.
+        // Only a timeout before the first byte of a frame is idle time; a timeout in the middle of a frame leaves
+        // the rest of the frame unread, so it closes the connection.
+        private void receive(){
             try {
-                this.ois = new ObjectInputStream(sock.getInputStream());
+                BufferedInputStream in = new BufferedInputStream(sock.getInputStream());
+                this.dis = new DataInputStream(in);
+                boolean pinged = false;
                 while(!sock.isClosed()){
-                    CardGameMessage msg = (CardGameMessage) ois.readObject();
-                    if(msg != null){
-                        parseMessage(msg);
+                    // waits for the first byte of the next frame, which is left in the stream for the frame
+                    in.mark(1);
+                    int first;
+                    try {
+                        first = in.read();
+                    }catch (SocketTimeoutException e){
+                        if (pinged){
+                            throw e;
+                        }
+                        pinged = true;
+                        sendMessage(new CardGameMessage(CardGameMessage.PING,-1,null));
+                        continue;
+                    }
+                    pinged = false;
+                    if (first < 0){
+                        break;
+                    }
+                    in.reset();
+                    CardGameMessage msg = MessageFrames.read(dis);
+                    if(msg == null){
+                        break;
                     }
+                    parseMessage(msg);
                 }
-                ois.close();
+                dis.close();
             }catch (Exception e){
-                ois = null;
+                dis = null;
                 e.printStackTrace();
             }
         }
@@ -6,6 +6,25 @@
  */
 
 public class BigTwoDeck extends Deck{
+    // the value computed for the class before its constructors were declared, kept so that decks
+    // sent by older clients and servers can still be read
+    private static final long serialVersionUID = 8254481884293570270L;
+
+    /**
+     * a constructor for creating a shuffled deck of the 52 Big Two cards.
+     */
+    public BigTwoDeck(){
+        super();
+    }
+
+    /**
+     * a constructor for creating a deck of Big Two cards which is left empty unless specified.
+     *
+     * @param initialize true for a shuffled deck of the 52 cards, false for an empty deck
+     */
+    BigTwoDeck(boolean initialize){
+        super(initialize);
+    }
 
     /**
      * a method for initializing a deck of Big Two cards. It should
@@ -15,8 +34,7 @@ public class BigTwoDeck extends Deck{
         this.removeAllCards();
         for (int i = 0; i < 4; i++){
             for (int j = 0; j < 13; j++){
-                BigTwoCard card = new BigTwoCard(i,j);
-                this.addCard(card);
+                this.addCard(BigTwoCard.valueOf(i,j));
             }
         }
 
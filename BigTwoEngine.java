@@ -0,0 +1,404 @@
+import java.util.ArrayList;
+
+/**
+ * The BigTwoEngine class implements the CardGame interface and holds the state and rules of a Big Two
+ * card game without any user interface or network connection. Moves are checked by play(), which
+ * returns the outcome as a MoveResult and reports it to the registered BigTwoListeners, so the engine
+ * can be driven by a GUI, a server, a bot or a batch simulation alike.
+ *
+ * An engine is not thread-safe; it should be driven by one thread at a time.
+ */
+
+public class BigTwoEngine implements CardGame {
+    private static final int NUM_OF_PLAYERS = 4; // the number of players in a Big Two card game
+
+    private Deck deck; // the deck of cards used in the game
+    private final ArrayList<CardGamePlayer> playerList; // the players in the game
+    private final ArrayList<Hand> handsOnTable; // the hands played by the players
+    private int currentPlayerIdx; // the player who can play the current turn
+    private final ArrayList<BigTwoListener> listeners; // the listeners notified of the events of the game
+
+    /**
+     * a constructor for creating a Big Two engine with four players named "Player 0" to "Player 3".
+     */
+    public BigTwoEngine(){
+        this.deck = null;
+        this.playerList = new ArrayList<>();
+        this.handsOnTable = new ArrayList<>();
+        this.currentPlayerIdx = 0;
+        this.listeners = new ArrayList<>();
+        for (int i = 0; i < NUM_OF_PLAYERS; i++){
+            playerList.add(new CardGamePlayer("Player " + i));
+        }
+    }
+
+    /**
+     * a method for registering a listener to be notified of the events of the game.
+     *
+     * @param listener the listener to be added
+     */
+    public void addListener(BigTwoListener listener){
+        if (listener != null){
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * a method for unregistering a listener.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeListener(BigTwoListener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * a method for getting the number of players.
+     *
+     * @return the int number of players.
+     */
+    public int getNumOfPlayers(){
+        return NUM_OF_PLAYERS;
+    }
+
+    /**
+     * a method for retrieving the deck of cards being used.
+     *
+     * @return the deck of cards being used, or null if no game has been started.
+     */
+    public Deck getDeck(){
+        return this.deck;
+    }
+
+    /**
+     * a method for retrieving the list of players.
+     *
+     * @return the arraylist of players.
+     */
+    public ArrayList<CardGamePlayer> getPlayerList(){
+        return this.playerList;
+    }
+
+    /**
+     * a method for retrieving the list of hands played on the table.
+     *
+     * @return the arraylist of hands played on the table.
+     */
+    public ArrayList<Hand> getHandsOnTable(){
+        return this.handsOnTable;
+    }
+
+    /**
+     * a method for retrieving the last hand played on the table.
+     *
+     * @return the last hand played on the table, or null if no hand has been played.
+     */
+    public Hand getLastHand(){
+        return handsOnTable.isEmpty() ? null : handsOnTable.get(handsOnTable.size() - 1);
+    }
+
+    /**
+     * a method for retrieving the index of the current player.
+     *
+     * @return the int index of the current player.
+     */
+    public int getCurrentPlayerIdx(){
+        return this.currentPlayerIdx;
+    }
+
+    /**
+     * a method for starting/restarting the game with a given shuffled deck of cards. Each player is
+     * dealt 13 cards and the player holding the 3 of Diamonds plays first.
+     *
+     * @param deck the deck of (shuffled) cards to be used in this game
+     */
+    public void start(Deck deck){
+        this.deck = deck;
+        handsOnTable.clear();
+        for (int i = 0; i < NUM_OF_PLAYERS; i++){
+            playerList.get(i).removeAllCards();
+        }
+
+        for (int i = 0; i < NUM_OF_PLAYERS; i++){
+            CardGamePlayer player = playerList.get(i);
+            for (int j = i * 13; j < i * 13 + 13; j++){
+                Card card = deck.getCard(j);
+                player.addCard(card);
+                if (card.getRank() == 2 && card.getSuit() == 0){
+                    currentPlayerIdx = i;
+                }
+            }
+            player.sortCardsInHand();
+        }
+
+        for (int i = 0; i < listeners.size(); i++){
+            listeners.get(i).gameStarted(this);
+        }
+    }
+
+    /**
+     * a method for restoring a game in progress from the cards of the players and the hand on the
+     * table (see CardSet), e.g. to resynchronize with a server. The hands played before the hand on
+     * the table are not restored, and the listeners are not notified.
+     *
+     * @param hands the cards of each player
+     * @param lastHand the cards of the hand on the table, or CardSet.EMPTY if the table is empty
+     * @param lastHandPlayerIdx the index of the player who played the hand on the table, or -1
+     * @param currentPlayerIdx the index of the player who plays the next turn
+     */
+    public void restore(long[] hands, long lastHand, int lastHandPlayerIdx, int currentPlayerIdx){
+        handsOnTable.clear();
+        for (int i = 0; i < NUM_OF_PLAYERS; i++){
+            CardGamePlayer player = playerList.get(i);
+            player.removeAllCards();
+            for (long set = hands[i]; set != 0; set &= set - 1){
+                player.addCard(BigTwoCard.valueOf(Long.numberOfTrailingZeros(set)));
+            }
+            player.sortCardsInHand();
+        }
+
+        if (lastHandPlayerIdx >= 0 && lastHand != CardSet.EMPTY){
+            CardList cards = new CardList();
+            for (long set = lastHand; set != 0; set &= set - 1){
+                cards.addCard(BigTwoCard.valueOf(Long.numberOfTrailingZeros(set)));
+            }
+            Hand hand = composeHand(playerList.get(lastHandPlayerIdx), cards);
+            if (hand != null){
+                hand.sort();
+                handsOnTable.add(hand);
+            }
+        }
+        this.currentPlayerIdx = currentPlayerIdx;
+    }
+
+    /**
+     * a method for making a move by a player with the specified index using the cards
+     * specified by the list of indices.
+     *
+     * @param playerIdx the index of the player who makes the move
+     * @param cardIdx   the list of the indices of the cards selected by the player, or null for a pass
+     */
+    public void makeMove(int playerIdx, int[] cardIdx){
+        play(playerIdx, cardIdx);
+    }
+
+    /**
+     * a method for checking whether a move made by a player is valid or not, and carrying it out if
+     * it is.
+     *
+     * @param playerIdx the index of the player who makes the move
+     * @param cardIdx   the list of the indices of the cards selected by the player, or null for a pass
+     */
+    public void checkMove(int playerIdx, int[] cardIdx){
+        play(playerIdx, cardIdx);
+    }
+
+    /**
+     * a method for making a move by a player with the specified index using the cards specified by
+     * the list of indices. An illegal move leaves the game unchanged.
+     *
+     * @param playerIdx the index of the player who makes the move
+     * @param cardIdx   the list of the indices of the cards selected by the player, or null for a pass
+     * @return the result of the move
+     */
+    public MoveResult play(int playerIdx, int[] cardIdx){
+        if (cardIdx == null){
+            return pass(playerIdx);
+        }
+        if (!isPlayersTurn(playerIdx)){
+            return notifyMove(illegal(playerIdx));
+        }
+        return play(playerIdx, playerList.get(playerIdx).play(cardIdx));
+    }
+
+    /**
+     * a method for making a move by a player with the specified index using the specified cards,
+     * which must be held by the player. An illegal move leaves the game unchanged.
+     *
+     * @param playerIdx the index of the player who makes the move
+     * @param cards     the cards to be played
+     * @return the result of the move
+     */
+    public MoveResult play(int playerIdx, CardList cards){
+        if (!isPlayersTurn(playerIdx) || cards == null || cards.isEmpty()){
+            return notifyMove(illegal(playerIdx));
+        }
+
+        CardGamePlayer player = playerList.get(playerIdx);
+        if (!CardSet.containsAll(player.getCardSet(), cards.getCardSet())){
+            return notifyMove(illegal(playerIdx));
+        }
+
+        Hand hand = composeHand(player, cards);
+        if (hand == null){
+            return notifyMove(illegal(playerIdx));
+        }
+
+        Hand lastHand = getLastHand();
+        if (lastHand != null && lastHand.getPlayer() != player && !hand.beats(lastHand)){
+            return notifyMove(illegal(playerIdx));
+        }
+
+        hand.sort();
+        handsOnTable.add(hand);
+        player.removeCards(cards);
+        currentPlayerIdx = (playerIdx + 1) % NUM_OF_PLAYERS;
+
+        boolean gameOver = player.getNumOfCards() == 0;
+        MoveResult result = notifyMove(new MoveResult(MoveResult.Status.PLAY, playerIdx, hand, currentPlayerIdx, gameOver));
+        if (gameOver){
+            for (int i = 0; i < listeners.size(); i++){
+                listeners.get(i).gameEnded(this, playerIdx);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * a method for making a move by a player with the specified index using the specified set of
+     * cards (see CardSet). An illegal move leaves the game unchanged.
+     *
+     * @param playerIdx the index of the player who makes the move
+     * @param cardSet   the set of cards to be played, or CardSet.EMPTY for a pass
+     * @return the result of the move
+     */
+    public MoveResult play(int playerIdx, long cardSet){
+        if (cardSet == CardSet.EMPTY){
+            return pass(playerIdx);
+        }
+        if (playerIdx < 0 || playerIdx >= NUM_OF_PLAYERS){
+            return notifyMove(illegal(playerIdx));
+        }
+
+        // picks the player's own card objects so that the hand holds the same instances
+        CardList cardsInHand = playerList.get(playerIdx).getCardsInHand();
+        CardList cards = new CardList();
+        for (int i = 0; i < cardsInHand.size(); i++){
+            Card card = cardsInHand.getCard(i);
+            if ((cardSet & CardSet.bit(card)) != 0){
+                cards.addCard(card);
+            }
+        }
+        if (cards.getCardSet() != cardSet){
+            return notifyMove(illegal(playerIdx));
+        }
+        return play(playerIdx, cards);
+    }
+
+    /**
+     * a method for enumerating the legal moves of the player with the specified index (see
+     * MoveGenerator). The list is empty if it is not the player's turn.
+     *
+     * @param playerIdx the index of the player
+     * @param moves     the list to be filled with the legal moves, each a set of cards (see CardSet)
+     *                  with CardSet.EMPTY standing for a pass
+     */
+    public void getLegalMoves(int playerIdx, MoveList moves){
+        if (!isPlayersTurn(playerIdx)){
+            moves.clear();
+            return;
+        }
+
+        CardGamePlayer player = playerList.get(playerIdx);
+        Hand lastHand = getLastHand();
+        int lastClassification = lastHand == null || lastHand.getPlayer() == player ? HandClassifier.INVALID : lastHand.getClassification();
+        MoveGenerator.generate(player.getCardSet(), lastClassification, moves);
+    }
+
+    /**
+     * a method for enumerating the legal moves of the player with the specified index.
+     *
+     * @param playerIdx the index of the player
+     * @return a new list holding the legal moves (see getLegalMoves(int, MoveList))
+     */
+    public MoveList getLegalMoves(int playerIdx){
+        MoveList moves = new MoveList();
+        getLegalMoves(playerIdx, moves);
+        return moves;
+    }
+
+    /**
+     * a method for passing the turn of the player with the specified index. A player cannot pass if
+     * the table is empty or if the last hand on the table was played by the same player.
+     *
+     * @param playerIdx the index of the player who passes
+     * @return the result of the move
+     */
+    public MoveResult pass(int playerIdx){
+        Hand lastHand = getLastHand();
+        if (!isPlayersTurn(playerIdx) || lastHand == null || lastHand.getPlayer() == playerList.get(playerIdx)){
+            return notifyMove(illegal(playerIdx));
+        }
+
+        currentPlayerIdx = (playerIdx + 1) % NUM_OF_PLAYERS;
+        return notifyMove(new MoveResult(MoveResult.Status.PASS, playerIdx, null, currentPlayerIdx, false));
+    }
+
+    /**
+     * a method for returning a valid hand from the specified list of cards of the player. Returns null if no
+     * valid hand can be composed from the specified list of cards.
+     *
+     * @param player the card game player who is going to play a hand
+     * @param cards the cards the player is going to play
+     * @return the hand composed from the cards, or null if the cards do not form a valid hand
+     */
+    public static Hand composeHand(CardGamePlayer player, CardList cards){
+        if (cards.size() > 5){
+            return null;
+        }
+
+        HandType type = HandClassifier.type(HandClassifier.classify(cards));
+        if (type == null){
+            return null;
+        }
+
+        switch (type){
+            case SINGLE:
+                return new Single(player, cards);
+            case PAIR:
+                return new Pair(player, cards);
+            case TRIPLE:
+                return new Triple(player, cards);
+            case STRAIGHT:
+                return new Straight(player, cards);
+            case FLUSH:
+                return new Flush(player, cards);
+            case FULL_HOUSE:
+                return new FullHouse(player, cards);
+            case QUAD:
+                return new Quad(player, cards);
+            default:
+                return new StraightFlush(player, cards);
+        }
+    }
+
+    /**
+     * a method for checking if the game ends.
+     *
+     * @return a boolean value representing whether the game ends or not
+     */
+    public boolean endOfGame(){
+        for (int i = 0; i < NUM_OF_PLAYERS; i++){
+            if (playerList.get(i).getNumOfCards() == 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // a move is only accepted from the current player of a game in progress
+    private boolean isPlayersTurn(int playerIdx){
+        return playerIdx == currentPlayerIdx && !endOfGame();
+    }
+
+    private MoveResult illegal(int playerIdx){
+        return new MoveResult(MoveResult.Status.ILLEGAL, playerIdx, null, currentPlayerIdx, false);
+    }
+
+    private MoveResult notifyMove(MoveResult result){
+        for (int i = 0; i < listeners.size(); i++){
+            listeners.get(i).moveMade(this, result);
+        }
+        return result;
+    }
+}
@@ -151,6 +151,13 @@ public class BigTwoGUI implements CardGameUI{
         frame.setVisible(true);
     }
 
+    /**
+     * a constructor for creating a BigTwoGUI without any window, for a subclass which shows nothing, e.g. when
+     * there is no display. Such a subclass must override every method it gets called.
+     */
+    BigTwoGUI(){
+    }
+
     /**
      * a method for setting the client of the game;
      *
@@ -434,7 +441,6 @@ public class BigTwoGUI implements CardGameUI{
                     Hand preHand = handsOnTable.get(handsOnTable.size() - 1);
                     g.drawString("Played by " + preHand.getPlayer().getName() + ": " + preHand.getType() + " " + preHand,20,620);
                     for (int i = 0; i < preHand.size(); i++){
-                        preHand.sort();
                         Image img = cardImages[preHand.getCard(i).getSuit()][preHand.getCard(i).getRank()];
                         g.drawImage(img, 10 + i * 77,647,this);
                     }
@@ -493,7 +499,6 @@ public class BigTwoGUI implements CardGameUI{
                     Hand preHand = handsOnTable.get(handsOnTable.size() - 1);
                     g.drawString("Played by " + preHand.getPlayer().getName() + ": " + preHand.getType() + " " + preHand, 20, 620);
                     for (int i = 0; i < preHand.size(); i++) {
-                        preHand.sort();
                         Image img = cardImages[preHand.getCard(i).getSuit()][preHand.getCard(i).getRank()];
                         g.drawImage(img, 10 + i * 77, 647, this);
                     }
@@ -0,0 +1,29 @@
+/**
+ * An interface for receiving the events of a BigTwoEngine. All methods are called on the thread that
+ * drives the engine.
+ */
+
+public interface BigTwoListener {
+    /**
+     * a method called after the cards have been dealt for a new game.
+     *
+     * @param engine the engine that started the game
+     */
+    public void gameStarted(BigTwoEngine engine);
+
+    /**
+     * a method called after a move has been checked, whether it was legal or not.
+     *
+     * @param engine the engine that checked the move
+     * @param result the result of the move
+     */
+    public void moveMade(BigTwoEngine engine, MoveResult result);
+
+    /**
+     * a method called after a move ended the game.
+     *
+     * @param engine the engine whose game ended
+     * @param winnerIdx the index of the player who has no cards left
+     */
+    public void gameEnded(BigTwoEngine engine, int winnerIdx);
+}
@@ -0,0 +1,654 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+/**
+ * The BigTwoLoadTest class is used to measure how many tables a Big Two server sustains. It connects a
+ * large number of headless computer players (bots) to a server, which it starts in the same JVM unless
+ * the address of a running server is given. Each bot joins a room, gets ready, plays its turns with a
+ * GreedyStrategy after a random think time, chats now and then, and gets ready again after every game,
+ * speaking the same framed binary protocol as the BigTwoClient.
+ *
+ * The bots are served by a few event loops with non-blocking sockets, so that thousands of them do not
+ * need thousands of threads. Every few seconds a line reports the number of connections, the moves and
+ * messages per second, the percentiles of the move round-trip time (from sending a MOVE to receiving the
+ * DELTA of the move) and the heap and garbage collections of a JVM. The heap and garbage collections are
+ * those of the server when it runs in the same JVM as the bots, or when a running server is tested and its
+ * JVM is reached over remote JMX; otherwise they are those of the bots only, and the report says so.
+ */
+
+public class BigTwoLoadTest {
+    private static final int READ_BUFFER_SIZE = 4096; // the initial capacity of the read buffer of a bot
+    private static final long TICK_DURATION = 10; // the number of milliseconds of a tick of the timer of the bots
+
+    private final InetSocketAddress serverAddress; // the address of the server
+    private final long thinkTime; // the mean number of milliseconds a bot waits before a move or getting ready
+    private final long chatInterval; // the mean number of milliseconds between two chat messages of a bot, or 0
+    private final BotLoop[] botLoops; // the event loops serving the bots
+    private final TimerWheel timer = new TimerWheel("bot-timer", TICK_DURATION, TimerWheel.DEFAULT_WHEEL_SIZE);
+    private final AtomicInteger numOfConnectedBots = new AtomicInteger(); // the number of bots connected
+    private final AtomicInteger numOfLostBots = new AtomicInteger(); // the number of bots refused or disconnected
+    private volatile boolean running = true;
+
+    /**
+     * a constructor for creating a load test against the server at the specified address, and starting
+     * its event loops.
+     *
+     * @param serverAddress the address of the server
+     * @param numOfThreads the number of event loops serving the bots
+     * @param thinkTime the mean number of milliseconds a bot waits before a move or getting ready
+     * @param chatInterval the mean number of milliseconds between two chat messages of a bot, or 0 for
+     *                     bots which never chat
+     * @throws IOException if a selector cannot be opened
+     */
+    public BigTwoLoadTest(InetSocketAddress serverAddress, int numOfThreads, long thinkTime, long chatInterval) throws IOException{
+        if (numOfThreads < 1){
+            throw new IllegalArgumentException("Invalid number of threads: " + numOfThreads);
+        }
+        this.serverAddress = serverAddress;
+        this.thinkTime = thinkTime;
+        this.chatInterval = chatInterval;
+        this.botLoops = new BotLoop[numOfThreads];
+        for (int i = 0; i < numOfThreads; i++){
+            botLoops[i] = new BotLoop(i);
+            botLoops[i].thread.start();
+        }
+    }
+
+    /**
+     * a method for connecting the specified number of bots at the specified rate. Blocks the calling
+     * thread until all of them have tried to connect.
+     *
+     * @param numOfBots the number of bots to be connected
+     * @param connectRate the number of bots connected per second
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void connectBots(int numOfBots, int connectRate) throws InterruptedException{
+        long startTime = System.nanoTime();
+        for (int i = 0; i < numOfBots && running; i++){
+            long delayNanos = startTime + i * 1000000000L / Math.max(connectRate, 1) - System.nanoTime();
+            if (delayNanos > 0){
+                Thread.sleep(delayNanos / 1000000, (int) (delayNanos % 1000000));
+            }
+            try {
+                SocketChannel channel = SocketChannel.open(serverAddress);
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                BotLoop botLoop = botLoops[i % botLoops.length];
+                botLoop.execute(() -> botLoop.register(channel));
+            } catch (IOException ex) {
+                numOfLostBots.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * a method for getting the number of bots connected.
+     *
+     * @return the number of bots connected
+     */
+    public int getNumOfConnectedBots(){
+        return numOfConnectedBots.get();
+    }
+
+    /**
+     * a method for getting the number of bots which could not connect or have been disconnected.
+     *
+     * @return the number of bots refused or disconnected
+     */
+    public int getNumOfLostBots(){
+        return numOfLostBots.get();
+    }
+
+    /**
+     * a method for taking the measurements made by the bots since the last call of this method.
+     *
+     * @return the merged measurements of all event loops
+     */
+    public LoadTestStats takeStats(){
+        LoadTestStats stats = new LoadTestStats();
+        for (BotLoop botLoop : botLoops){
+            // the stats of an event loop are only touched on its thread
+            CompletableFuture<LoadTestStats> taken = new CompletableFuture<>();
+            botLoop.execute(() -> {
+                taken.complete(botLoop.stats);
+                botLoop.stats = new LoadTestStats();
+            });
+            stats.merge(taken.join());
+        }
+        return stats;
+    }
+
+    /**
+     * a method for disconnecting the bots and stopping the event loops.
+     */
+    public void stop(){
+        running = false;
+        timer.stop();
+        for (BotLoop botLoop : botLoops){
+            botLoop.selector.wakeup();
+        }
+    }
+
+    /**
+     * This inner class is used to serve a group of bots with a Selector on a single thread. The bots,
+     * the strategy they share and the measurements are only touched on that thread.
+     */
+    private class BotLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final MessageCodec codec = new BinaryMessageCodec();
+        private final BigTwoStrategy strategy = new GreedyStrategy();
+        private final Random random = new Random();
+        private LoadTestStats stats = new LoadTestStats();
+
+        public BotLoop(int index) throws IOException{
+            selector = Selector.open();
+            thread = new Thread(this, "bot-loop-" + index);
+            thread.setDaemon(true);
+        }
+
+        // runs the specified task on the thread of this event loop
+        public void execute(Runnable task){
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        // runs the specified task on the thread of this event loop after the specified delay
+        public void schedule(Runnable task, long delay){
+            if (delay <= 0){
+                execute(task);
+            }
+            else{
+                timer.schedule(() -> execute(task), delay);
+            }
+        }
+
+        // starts a bot on a newly connected channel
+        public void register(SocketChannel channel){
+            Bot bot = new Bot(channel, this);
+            try {
+                bot.key = channel.register(selector, SelectionKey.OP_READ, bot);
+                numOfConnectedBots.incrementAndGet();
+                bot.send(new CardGameMessage(CardGameMessage.JOIN, -1, "Bot"));
+                if (chatInterval > 0){
+                    bot.scheduleChat();
+                }
+            } catch (IOException ex) {
+                numOfLostBots.incrementAndGet();
+                closeQuietly(channel);
+            }
+        }
+
+        // implementation of method from the Runnable interface
+        public void run(){
+            while (running){
+                try {
+                    selector.select();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                    break;
+                }
+
+                Runnable task;
+                while ((task = tasks.poll()) != null){
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()){
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Bot bot = (Bot) key.attachment();
+                    try {
+                        if (key.isValid() && key.isWritable()){
+                            bot.flush();
+                        }
+                        if (key.isValid() && key.isReadable()){
+                            bot.read();
+                        }
+                    } catch (IOException ex) {
+                        bot.close(true);
+                    }
+                }
+            }
+
+            for (SelectionKey key : selector.keys()){
+                ((Bot) key.attachment()).close(false);
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    /**
+     * This inner class is used to model a bot, i.e., a connection to the server playing as a computer
+     * player. The bot keeps its own BigTwoEngine in step with the deltas from the server.
+     */
+    private class Bot {
+        private final SocketChannel channel;
+        private final BotLoop botLoop;
+        private SelectionKey key;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE); // bytes received but not yet parsed
+        private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>(); // frames waiting to be written
+        private final BigTwoEngine engine = new BigTwoEngine();
+        private int playerID = -1; // the seat of the bot
+        private int seq = -1; // the sequence number of the last delta applied, or -1 if no game is in progress
+        private boolean resyncPending = false; // whether a snapshot has been requested
+        private boolean movePending = false; // whether a move has been sent but not answered
+        private long moveSendTime; // the time at which the pending move was sent (see System.nanoTime())
+        private boolean closed = false;
+
+        public Bot(SocketChannel channel, BotLoop botLoop){
+            this.channel = channel;
+            this.botLoop = botLoop;
+        }
+
+        // queues the specified message and writes as much as the socket accepts
+        public void send(CardGameMessage message) throws IOException{
+            if (closed){
+                return;
+            }
+            writeQueue.add(MessageFrames.encode(botLoop.codec, message));
+            botLoop.stats.recordMessageSent();
+            flush();
+        }
+
+        // writes as many queued frames as the socket accepts
+        public void flush() throws IOException{
+            while (!writeQueue.isEmpty()){
+                ByteBuffer frame = writeQueue.peek();
+                channel.write(frame);
+                if (frame.hasRemaining()){
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+
+        // reads the available bytes and handles every complete frame
+        public void read() throws IOException{
+            if (channel.read(readBuffer) < 0){
+                close(true);
+                return;
+            }
+            readBuffer.flip();
+            while (!closed && readBuffer.remaining() >= MessageFrames.HEADER_LENGTH){
+                int length = readBuffer.getInt(readBuffer.position());
+                MessageFrames.checkLength(length);
+                int frameEnd = readBuffer.position() + MessageFrames.HEADER_LENGTH + length;
+                if (frameEnd > readBuffer.limit()){
+                    if (MessageFrames.HEADER_LENGTH + length > readBuffer.capacity()){
+                        // grows the buffer to hold the whole frame
+                        ByteBuffer grown = ByteBuffer.allocate(MessageFrames.HEADER_LENGTH + length);
+                        grown.put(readBuffer);
+                        grown.flip();
+                        readBuffer = grown;
+                    }
+                    break;
+                }
+                int frameStart = readBuffer.arrayOffset() + readBuffer.position() + MessageFrames.HEADER_LENGTH;
+                CardGameMessage message = MessageFrames.decode(readBuffer.array(), frameStart, length);
+                readBuffer.position(frameEnd);
+                botLoop.stats.recordMessageReceived();
+                parseMessage(message);
+            }
+            readBuffer.compact();
+        }
+
+        // closes the connection, counting the bot as lost if the server has closed it
+        public void close(boolean lost){
+            if (closed){
+                return;
+            }
+            closed = true;
+            if (key != null){
+                key.cancel();
+            }
+            closeQuietly(channel);
+            numOfConnectedBots.decrementAndGet();
+            if (lost){
+                numOfLostBots.incrementAndGet();
+            }
+        }
+
+        // plays the part of a player on receiving the specified message
+        private void parseMessage(CardGameMessage message) throws IOException{
+            switch (message.getType()){
+                case CardGameMessage.PLAYER_LIST:
+                    playerID = message.getPlayerID();
+                    getReadyLater();
+                    break;
+                case CardGameMessage.FULL:
+                    close(true);
+                    break;
+                case CardGameMessage.QUIT:
+                    // the game in progress has ended without the player who has left
+                    if (message.getPlayerID() != playerID){
+                        seq = -1;
+                        movePending = false;
+                        getReadyLater();
+                    }
+                    break;
+                case CardGameMessage.START:
+                    engine.start((Deck) message.getData());
+                    seq = 0;
+                    resyncPending = false;
+                    movePending = false;
+                    if (playerID == 0){
+                        botLoop.stats.recordGameStarted();
+                    }
+                    playIfMyTurn();
+                    break;
+                case CardGameMessage.DELTA:
+                    applyDelta(message.getPlayerID(), (GameDelta) message.getData());
+                    break;
+                case CardGameMessage.SNAPSHOT:
+                    GameSnapshot snapshot = (GameSnapshot) message.getData();
+                    snapshot.applyTo(engine);
+                    seq = snapshot.getSeq();
+                    resyncPending = false;
+                    botLoop.stats.recordResync();
+                    if (engine.endOfGame()){
+                        seq = -1;
+                        getReadyLater();
+                    }
+                    else{
+                        playIfMyTurn();
+                    }
+                    break;
+                case CardGameMessage.MOVE:
+                    // the server has sent the move back as illegal, so the engine is out of step
+                    movePending = false;
+                    botLoop.stats.recordRejectedMove();
+                    requestSnapshot();
+                    break;
+                case CardGameMessage.PING:
+                    send(new CardGameMessage(CardGameMessage.PONG, -1, null));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // applies the specified delta of a move by the specified player, or asks for a snapshot if a delta
+        // has been missed
+        private void applyDelta(int moverID, GameDelta delta) throws IOException{
+            if (seq < 0 || resyncPending){
+                return;
+            }
+            if (moverID == playerID && movePending){
+                movePending = false;
+                botLoop.stats.recordMove(System.nanoTime() - moveSendTime);
+            }
+            if (delta.getSeq() != seq + 1){
+                requestSnapshot();
+                return;
+            }
+            MoveResult result = engine.play(moverID, delta.getCards());
+            if (!result.isLegal() || result.getNextPlayerIdx() != delta.getNextPlayerID()){
+                requestSnapshot();
+                return;
+            }
+            seq = delta.getSeq();
+            if (result.isGameOver()){
+                seq = -1;
+                if (moverID == playerID){
+                    botLoop.stats.recordGameFinished();
+                }
+                getReadyLater();
+            }
+            else{
+                playIfMyTurn();
+            }
+        }
+
+        // makes a move after the think time if it is the turn of this bot
+        private void playIfMyTurn(){
+            if (engine.getCurrentPlayerIdx() != playerID || movePending){
+                return;
+            }
+            int turn = seq;
+            botLoop.schedule(() -> {
+                if (!closed && seq == turn && !resyncPending && !movePending){
+                    long cards = botLoop.strategy.chooseMove(engine, playerID, botLoop.random);
+                    CardList cardsInHand = engine.getPlayerList().get(playerID).getCardsInHand();
+                    movePending = true;
+                    moveSendTime = System.nanoTime();
+                    sendQuietly(new CardGameMessage(CardGameMessage.MOVE, -1, CardSet.indicesIn(cardsInHand, cards)));
+                }
+            }, randomThinkTime());
+        }
+
+        // sends a READY message after the think time
+        private void getReadyLater(){
+            botLoop.schedule(() -> sendQuietly(new CardGameMessage(CardGameMessage.READY, -1, null)), randomThinkTime());
+        }
+
+        // sends a chat message after an exponentially distributed delay, and so on until the bot is closed
+        private void scheduleChat(){
+            long delay = (long) (-Math.log(1 - botLoop.random.nextDouble()) * chatInterval);
+            botLoop.schedule(() -> {
+                if (!closed){
+                    sendQuietly(new CardGameMessage(CardGameMessage.MSG, -1, "Hello from a bot"));
+                    scheduleChat();
+                }
+            }, delay);
+        }
+
+        // asks the server for a snapshot of the game, unless one has already been asked for
+        private void requestSnapshot() throws IOException{
+            if (!resyncPending){
+                resyncPending = true;
+                send(new CardGameMessage(CardGameMessage.SNAPSHOT, -1, null));
+            }
+        }
+
+        // sends the specified message, closing the connection if it cannot be written
+        private void sendQuietly(CardGameMessage message){
+            try {
+                send(message);
+            } catch (IOException ex) {
+                close(true);
+            }
+        }
+
+        // returns a think time spread uniformly around the mean think time
+        private long randomThinkTime(){
+            return thinkTime <= 0 ? 0 : thinkTime / 2 + (long) (botLoop.random.nextDouble() * thinkTime);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable){
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            // nothing more can be done
+        }
+    }
+
+    /**
+     * a method for running a load test from the command line. The process exits with status 1 if the
+     * 99th percentile of the move round-trip time over the whole test exceeds the given maximum.
+     *
+     * @param args any of these options: "clients N" for the number of bots (default 1000); "rate N" for
+     *             the number of bots connected per second (default 200); "duration S" for the number of
+     *             seconds of the test, including the connection of the bots (default 60); "think MS" for
+     *             the mean think time of a bot before a move or getting ready (default 100); "chat MS"
+     *             for the mean interval between two chat messages of a bot, 0 for none (default 10000);
+     *             "threads N" for the number of event loops of the bots (default 2); "interval S" for the
+     *             number of seconds between two reports (default 5); "port P" for the port of the server
+     *             (default 2396); "host H" for testing a server already running on host H; "nio
+     *             [threads]" for starting the server with non-blocking sockets and the specified number
+     *             of threads; "jmx H:P" for reading the heap and garbage collections of a running
+     *             server over remote JMX at port P of host H, e.g. of a server started with
+     *             -Dcom.sun.management.jmxremote.port=P; "maxp99 MS" for the maximum 99th percentile of the
+     *             move round-trip time
+     */
+    public static void main(String[] args) throws Exception{
+        int numOfBots = 1000;
+        int connectRate = 200;
+        long duration = 60;
+        long thinkTime = 100;
+        long chatInterval = 10000;
+        int numOfThreads = 2;
+        long reportInterval = 5;
+        int port = 2396;
+        String host = null;
+        String jmx = null;
+        boolean nio = false;
+        int numOfServerThreads = 2;
+        double maxP99 = Double.MAX_VALUE;
+        for (int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "clients": numOfBots = Integer.parseInt(args[++i]); break;
+                case "rate": connectRate = Integer.parseInt(args[++i]); break;
+                case "duration": duration = Long.parseLong(args[++i]); break;
+                case "think": thinkTime = Long.parseLong(args[++i]); break;
+                case "chat": chatInterval = Long.parseLong(args[++i]); break;
+                case "threads": numOfThreads = Integer.parseInt(args[++i]); break;
+                case "interval": reportInterval = Math.max(Long.parseLong(args[++i]), 1); break;
+                case "port": port = Integer.parseInt(args[++i]); break;
+                case "host": host = args[++i]; break;
+                case "jmx": jmx = args[++i]; break;
+                case "maxp99": maxP99 = Double.parseDouble(args[++i]); break;
+                case "nio":
+                    nio = true;
+                    if (i + 1 < args.length && args[i + 1].matches("\\d+")){
+                        numOfServerThreads = Integer.parseInt(args[++i]);
+                    }
+                    break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        BigTwoServer server = null;
+        if (host == null){
+            // a room for every table, and only warnings in the log
+            server = new BigTwoServer(new AsyncLog(System.err, LogLevel.WARN, AsyncLog.DEFAULT_CAPACITY),
+                    Math.max(CardGameServer.DEFAULT_MAX_NUM_OF_ROOMS, (numOfBots + 3) / 4));
+            startServer(server, port, nio, numOfServerThreads);
+            host = "127.0.0.1";
+        }
+
+        // the heap and garbage collections reported are those of this JVM unless a JMX address is given
+        JMXConnector jmxConnector = null;
+        MBeanServerConnection mbeans = ManagementFactory.getPlatformMBeanServer();
+        String statsSource = server != null ? "this JVM, running the server and the bots" : "this JVM, running the bots only";
+        if (jmx != null){
+            jmxConnector = JMXConnectorFactory.connect(new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + jmx + "/jmxrmi"));
+            mbeans = jmxConnector.getMBeanServerConnection();
+            statsSource = "the JVM at " + jmx + " over JMX";
+        }
+        MemoryMXBean memory = ManagementFactory.newPlatformMXBeanProxy(mbeans, ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+        List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getPlatformMXBeans(mbeans, GarbageCollectorMXBean.class);
+
+        BigTwoLoadTest test = new BigTwoLoadTest(new InetSocketAddress(host, port), numOfThreads, thinkTime, chatInterval);
+        int bots = numOfBots;
+        int rate = connectRate;
+        Thread connector = new Thread(() -> {
+            try {
+                test.connectBots(bots, rate);
+            } catch (InterruptedException ex) {
+                // the test is over
+            }
+        }, "bot-connector");
+        connector.setDaemon(true);
+        connector.start();
+
+        System.out.printf("%d bots against %s:%d (%s), think time %d ms, chat interval %d ms%n", numOfBots, host, port,
+                server == null ? "remote server" : nio ? "non-blocking server" : "blocking server", thinkTime, chatInterval);
+        System.out.printf("heap and gc of %s%n", statsSource);
+        System.out.printf("%6s %6s %6s %5s %8s %10s %10s %8s %8s %8s %8s %9s %9s%n", "time", "bots", "seated", "lost",
+                "moves/s", "msgs in/s", "msgs out/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "heap MB", "gc n/ms");
+        LoadTestStats total = new LoadTestStats();
+        long startTime = System.nanoTime();
+        long lastTime = startTime;
+        long[] lastGc = gcCountAndTime(gcBeans);
+        for (long elapsed = 0; elapsed < duration; ){
+            Thread.sleep(Math.min(reportInterval, duration - elapsed) * 1000);
+            LoadTestStats stats = test.takeStats();
+            total.merge(stats);
+            long now = System.nanoTime();
+            double seconds = (now - lastTime) / 1e9;
+            long[] gc = gcCountAndTime(gcBeans);
+            MemoryUsage heap = memory.getHeapMemoryUsage();
+            elapsed = Math.round((now - startTime) / 1e9);
+            System.out.printf("%6d %6d %6s %5d %8.0f %10.0f %10.0f %8.2f %8.2f %8.2f %8.2f %4d/%-4d %4d/%-4d%n", elapsed,
+                    test.getNumOfConnectedBots(), server == null ? "-" : String.valueOf(server.getNumOfConnections()),
+                    test.getNumOfLostBots(), stats.getNumOfMoves() / seconds, stats.getNumOfMessagesReceived() / seconds,
+                    stats.getNumOfMessagesSent() / seconds, stats.getLatencyPercentile(50), stats.getLatencyPercentile(99),
+                    stats.getLatencyPercentile(99.9), stats.getMaxLatency(), heap.getUsed() >> 20, heap.getCommitted() >> 20,
+                    gc[0] - lastGc[0], gc[1] - lastGc[1]);
+            lastTime = now;
+            lastGc = gc;
+        }
+        test.stop();
+        if (jmxConnector != null){
+            jmxConnector.close();
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("Moves: %d (%.0f/s), rejected: %d, resyncs: %d%n", total.getNumOfMoves(),
+                total.getNumOfMoves() / seconds, total.getNumOfRejectedMoves(), total.getNumOfResyncs());
+        System.out.printf("Games started: %d, finished: %d%n", total.getNumOfGamesStarted(), total.getNumOfGamesFinished());
+        System.out.printf("Messages received: %d (%.0f/s), sent: %d (%.0f/s)%n", total.getNumOfMessagesReceived(),
+                total.getNumOfMessagesReceived() / seconds, total.getNumOfMessagesSent(), total.getNumOfMessagesSent() / seconds);
+        System.out.printf("Move round trip: p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, max %.2f ms%n",
+                total.getLatencyPercentile(50), total.getLatencyPercentile(99), total.getLatencyPercentile(99.9), total.getMaxLatency());
+        boolean passed = total.getLatencyPercentile(99) <= maxP99;
+        if (!passed){
+            System.out.printf("FAILED: p99 above %.2f ms%n", maxP99);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    // starts the specified server on a thread of its own, and waits until it accepts connections
+    private static void startServer(BigTwoServer server, int port, boolean nio, int numOfThreads) throws InterruptedException{
+        Thread serverThread = new Thread(() -> {
+            if (nio){
+                server.startNonBlocking(port, numOfThreads);
+            }
+            else{
+                server.start(port);
+            }
+        }, "server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        if (!server.awaitListening(5000)){
+            throw new IllegalStateException("The server has not started at port " + port);
+        }
+    }
+
+    // returns the number of garbage collections so far by the specified collectors and the number of
+    // milliseconds they took
+    private static long[] gcCountAndTime(List<GarbageCollectorMXBean> gcBeans){
+        long[] gc = new long[2];
+        for (GarbageCollectorMXBean bean : gcBeans){
+            gc[0] += Math.max(bean.getCollectionCount(), 0);
+            gc[1] += Math.max(bean.getCollectionTime(), 0);
+        }
+        return gc;
+    }
+}
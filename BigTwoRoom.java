@@ -0,0 +1,201 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class is used to model a room of a Big Two card game server. The room
+ * keeps its own BigTwoEngine in step with the game of its clients, and only
+ * broadcasts the moves accepted by the engine, so that an illegal or
+ * out-of-turn move from a client never reaches the other clients.
+ * <p>
+ * An accepted move is broadcast as a numbered GameDelta rather than as the
+ * MOVE message, so that the clients do not have to replay the moves to find
+ * out their effect. A client which has missed a delta asks for a GameSnapshot
+ * of the game instead of restarting it.
+ * <p>
+ * A player who takes longer than the turn timeout of the server passes, or
+ * leads like a computer player (see GreedyStrategy) when passing is not
+ * allowed, so that a stalled or disconnected player does not stall the table.
+ * <p>
+ * The moves of the computer players seated by the server are searched for
+ * by a TreeSearchStrategy per computer player on the common fork-join pool,
+ * on a copy of the engine, so that the mailbox of the room is not held up by
+ * the search. Each strategy listens to the engine of the room, so that its
+ * tree follows the moves of the game and is kept from one turn to the next.
+ * 
+ */
+public class BigTwoRoom extends GameRoom {
+	// The maximum number of nodes of the tree of a computer player, taking
+	// 4 MB, which is more than the tree a search of a move builds (about
+	// 100,000 nodes at most), so that a room holds at most 12 MB of trees
+	private static final int MAX_NUM_OF_NODES = 1 << 17;
+	// The engine holding the state of the game in this room
+	private final BigTwoEngine engine = new BigTwoEngine();
+	// a boolean indicating if a game is in progress
+	private boolean gameInProgress = false;
+	// The sequence number of the last delta, or -1 if there is no game to
+	// be resynchronized
+	private int seq = -1;
+	// The timer making a move for the current player when the turn times out
+	private TimerWheel.Timeout turnTimer;
+	// The computer player leading on behalf of a player who has run out of time
+	private final BigTwoStrategy timeoutStrategy = new GreedyStrategy();
+	// The strategies searching for the moves of the computer players, by seat
+	private final TreeSearchStrategy[] computerStrategies = new TreeSearchStrategy[4];
+	// The random number generator of the computer players
+	private final Random random = new Random();
+
+	/**
+	 * Creates and returns an instance of the BigTwoRoom class.
+	 * 
+	 * @param server
+	 *            the server hosting this room
+	 * @param roomID
+	 *            the id of this room
+	 */
+	public BigTwoRoom(CardGameServer server, int roomID) {
+		super(server, roomID, 4);
+	}
+
+	/**
+	 * Deals the deck of the new game to the engine of this room.
+	 * 
+	 * @param deck
+	 *            the shuffled deck of the new game
+	 */
+	protected void gameStarted(Deck deck) {
+		engine.start(deck);
+		gameInProgress = true;
+		seq = 0;
+		startTurnTimer();
+		startComputerTurn();
+	}
+
+	/**
+	 * Checks the specified move with the engine of this room, and returns a
+	 * DELTA message describing its effect if it is accepted. The data of the
+	 * MOVE message is a list of the indices of the cards selected by the
+	 * player, or null for a pass. A move is rejected if no game is in
+	 * progress.
+	 * 
+	 * @param playerID
+	 *            the seat of the player who makes the move
+	 * @param message
+	 *            the MOVE message
+	 * @return the DELTA message, or null if the move is rejected
+	 */
+	protected CardGameMessage acceptMove(int playerID, CardGameMessage message) {
+		Object data = message.getData();
+		if (!gameInProgress || (data != null && !(data instanceof int[]))) {
+			return null;
+		}
+		MoveResult result = engine.play(playerID, (int[]) data);
+		if (!result.isLegal()) {
+			return null;
+		}
+		if (result.isGameOver()) {
+			gameInProgress = false;
+		}
+		seq++;
+		startTurnTimer();
+		startComputerTurn();
+		long cards = result.getHand() != null ? result.getHand().getCardSet() : CardSet.EMPTY;
+		return new CardGameMessage(CardGameMessage.DELTA, playerID,
+				new GameDelta(seq, cards, result.getNextPlayerIdx()));
+	}
+
+	/**
+	 * Returns a SNAPSHOT message holding the state of the game in this room,
+	 * including a game which has just ended.
+	 * 
+	 * @param playerID
+	 *            the seat of the player who asks for the snapshot
+	 * @return the SNAPSHOT message, or null if no game has been played since
+	 *         the last player left
+	 */
+	protected CardGameMessage getSnapshot(int playerID) {
+		if (seq < 0) {
+			return null;
+		}
+		return new CardGameMessage(CardGameMessage.SNAPSHOT, playerID,
+				GameSnapshot.of(seq, engine));
+	}
+
+	/**
+	 * Ends the game in progress, as it cannot go on without the player who
+	 * has left, and drops the tree of a computer player who has left.
+	 * 
+	 * @param playerID
+	 *            the seat of the player
+	 */
+	protected void playerLeft(int playerID) {
+		if (computerStrategies[playerID] != null) {
+			engine.removeListener(computerStrategies[playerID]);
+			computerStrategies[playerID] = null;
+		}
+		gameInProgress = false;
+		seq = -1;
+		startTurnTimer();
+	}
+
+	// restarts the turn timer for the current turn, if a game is in progress
+	private void startTurnTimer() {
+		if (turnTimer != null) {
+			turnTimer.cancel();
+			turnTimer = null;
+		}
+		long turnTimeout = getServer().getTurnTimeout();
+		if (gameInProgress && turnTimeout > 0) {
+			int turn = seq;
+			turnTimer = schedule(() -> turnTimedOut(turn), turnTimeout);
+		}
+	}
+
+	// makes a move for the current player if the specified turn is not over
+	private void turnTimedOut(int turn) {
+		if (!gameInProgress || seq != turn) {
+			return;
+		}
+		int playerID = engine.getCurrentPlayerIdx();
+		CardGamePlayer player = engine.getPlayerList().get(playerID);
+		Hand lastHand = engine.getLastHand();
+		long cards = CardSet.EMPTY;
+		if (lastHand == null || lastHand.getPlayer() == player) {
+			cards = timeoutStrategy.chooseMove(engine, playerID, null);
+		}
+		log(LogLevel.INFO, "Player " + playerID + " has run out of time and "
+				+ (cards == CardSet.EMPTY ? "passes." : "leads."));
+		forceMove(playerID, CardSet.indicesIn(player.getCardsInHand(), cards));
+	}
+
+	// searches for the move of the current player if it is a computer player
+	private void startComputerTurn() {
+		int playerID = engine.getCurrentPlayerIdx();
+		if (!gameInProgress || !isComputerPlayer(playerID)) {
+			return;
+		}
+		if (computerStrategies[playerID] == null) {
+			// the tree follows the moves of the game from now on
+			computerStrategies[playerID] = new TreeSearchStrategy(
+					TreeSearchStrategy.DEFAULT_TIME_BUDGET, MAX_NUM_OF_NODES);
+			engine.addListener(computerStrategies[playerID]);
+		}
+		TreeSearchStrategy strategy = computerStrategies[playerID];
+		int turn = seq;
+		BigTwoEngine copy = new BigTwoEngine();
+		GameSnapshot.of(seq, engine).applyTo(copy);
+		ForkJoinPool.commonPool().execute(() -> {
+			long cards = strategy.chooseMove(copy, playerID, random);
+			execute(() -> computerMoved(turn, playerID, cards));
+		});
+	}
+
+	// makes the move found for a computer player if the specified turn is not
+	// over
+	private void computerMoved(int turn, int playerID, long cards) {
+		if (!gameInProgress || seq != turn) {
+			return;
+		}
+		CardGamePlayer player = engine.getPlayerList().get(playerID);
+		forceMove(playerID, CardSet.indicesIn(player.getCardsInHand(), cards));
+	}
+}
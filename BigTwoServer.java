@@ -1,3 +1,5 @@
+import java.io.IOException;
+
 /**
  * This class is used to model a Big Two card game server.
  * @author Kenneth Wong
@@ -10,7 +12,43 @@ public class BigTwoServer extends CardGameServer {
 	public BigTwoServer() {
 		super("Big Two Server", 4);
 	}
+
+	/**
+	 * Creates and returns an instance of the BigTwoServer class writing to the
+	 * specified log instead of a console window.
+	 * 
+	 * @param log
+	 *            the log of the server
+	 */
+	public BigTwoServer(ServerLog log) {
+		this(log, DEFAULT_MAX_NUM_OF_ROOMS);
+	}
+
+	/**
+	 * Creates and returns an instance of the BigTwoServer class hosting up to
+	 * the specified number of rooms and writing to the specified log.
+	 * 
+	 * @param log
+	 *            the log of the server
+	 * @param maxNumOfRooms
+	 *            the maximum number of rooms, i.e., concurrent games
+	 */
+	public BigTwoServer(ServerLog log, int maxNumOfRooms) {
+		super("Big Two Server", 4, maxNumOfRooms, log);
+	}
 	
+	/**
+	 * Creates and returns an instance of the BigTwoRoom class, which checks
+	 * the moves of its players.
+	 * 
+	 * @param roomID
+	 *            the id of the room
+	 * @return an instance of the BigTwoRoom class
+	 */
+	public GameRoom createRoom(int roomID) {
+		return new BigTwoRoom(this, roomID);
+	}
+
 	/**
 	 * Creates and returns an instance of the BigTwoDeck class.
 	 * @return an instance of the BigTwoDeck class
@@ -23,15 +61,69 @@ public class BigTwoServer extends CardGameServer {
 	 * main() method for starting the server.
 	 * 
 	 * @param args
-	 *            the port to be used by the server. The default port 5000 will
-	 *            be used if no arguments has been supplied
+	 *            the port to be used by the server, followed by any of these
+	 *            options: "nio [threads]" to serve the clients with
+	 *            non-blocking sockets and the specified number of threads;
+	 *            "headless [logFile]" to run without a console window, logging
+	 *            to the specified file or to the standard output; "level
+	 *            LEVEL" to set the least severe level logged in headless mode
+	 *            (INFO by default); "computers [delay]" to seat computer
+	 *            players in the empty seats of a room once its players have
+	 *            been ready for the specified number of milliseconds (10000 by
+	 *            default). The default port 2396 will be used if no port has
+	 *            been supplied
 	 */
 	public static void main(String[] args) {
-		BigTwoServer server = new BigTwoServer();
-		if (args.length > 0) {
-			server.start(Integer.parseInt(args[0]));
+		int port = 2396;
+		boolean nio = false;
+		int numOfThreads = 2;
+		boolean headless = false;
+		String logFile = null;
+		LogLevel level = LogLevel.INFO;
+		long computerPlayerDelay = -1;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("nio")) {
+				nio = true;
+				if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+					numOfThreads = Integer.parseInt(args[++i]);
+				}
+			} else if (args[i].equals("headless")) {
+				headless = true;
+				if (i + 1 < args.length && !args[i + 1].matches("\\d+|nio|level|computers")) {
+					logFile = args[++i];
+				}
+			} else if (args[i].equals("level") && i + 1 < args.length) {
+				level = LogLevel.valueOf(args[++i].toUpperCase());
+			} else if (args[i].equals("computers")) {
+				computerPlayerDelay = 10000;
+				if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+					computerPlayerDelay = Long.parseLong(args[++i]);
+				}
+			} else {
+				port = Integer.parseInt(args[i]);
+			}
+		}
+
+		BigTwoServer server;
+		if (headless) {
+			AsyncLog log;
+			try {
+				log = logFile != null ? AsyncLog.toFile(logFile, level)
+						: new AsyncLog(System.out, level, AsyncLog.DEFAULT_CAPACITY);
+			} catch (IOException ex) {
+				System.err.println("Error in opening the log file " + logFile + ": " + ex.getMessage());
+				return;
+			}
+			Runtime.getRuntime().addShutdownHook(new Thread(log::close));
+			server = new BigTwoServer(log);
+		} else {
+			server = new BigTwoServer();
+		}
+		server.setComputerPlayerDelay(computerPlayerDelay);
+		if (nio) {
+			server.startNonBlocking(port, numOfThreads);
 		} else {
-			server.start(2396);
+			server.start(port);
 		}
 	} // main
 }
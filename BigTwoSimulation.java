@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * The BigTwoSimulation class is used to play a large number of complete Big Two games between computer
+ * players (see BigTwoStrategy) without any user interface. The games are spread over a fork-join pool;
+ * each task owns its engine, deck, strategies and random number generator, so the workers share no
+ * mutable state until their statistics are merged.
+ *
+ * For a given seed the results do not depend on the number of threads.
+ */
+
+public class BigTwoSimulation {
+    private static final int MAX_TURNS = 2000; // the number of turns after which a game is aborted
+    private static final int GAMES_PER_TASK = 1000; // the number of games played by one task
+
+    private final ArrayList<Supplier<? extends BigTwoStrategy>> strategyFactories; // the strategy of each seat
+
+    /**
+     * a constructor for creating a simulation in which each seat is played by a strategy created by the
+     * corresponding factory. A factory is called once per task, so a strategy instance only ever plays
+     * on one thread.
+     *
+     * @param strategyFactories the factories of the strategies of the four seats
+     */
+    public BigTwoSimulation(ArrayList<Supplier<? extends BigTwoStrategy>> strategyFactories){
+        if (strategyFactories.size() != 4){
+            throw new IllegalArgumentException("A Big Two game needs 4 strategies, got " + strategyFactories.size());
+        }
+        this.strategyFactories = new ArrayList<>(strategyFactories);
+    }
+
+    /**
+     * a method for playing the specified number of games.
+     *
+     * @param numOfGames the number of games to be played
+     * @param numOfThreads the number of worker threads
+     * @param seed the seed from which the random number generator of each task is derived
+     * @return the statistics of all the games played
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @throws ExecutionException if a strategy throws an exception
+     */
+    public SimulationStats run(int numOfGames, int numOfThreads, long seed) throws InterruptedException, ExecutionException{
+        // the split into tasks depends on the number of games only, so that results are reproducible
+        int numOfTasks = Math.max(1, (numOfGames + GAMES_PER_TASK - 1) / GAMES_PER_TASK);
+        ForkJoinPool pool = new ForkJoinPool(numOfThreads);
+        try {
+            ArrayList<Future<SimulationStats>> results = new ArrayList<>();
+            for (int t = 0; t < numOfTasks; t++){
+                int games = numOfGames / numOfTasks + (t < numOfGames % numOfTasks ? 1 : 0);
+                long taskSeed = seed * 0x9E3779B97F4A7C15L + t;
+                results.add(pool.submit(() -> playGames(games, new Random(taskSeed))));
+            }
+
+            SimulationStats stats = new SimulationStats(4);
+            for (Future<SimulationStats> result : results){
+                stats.merge(result.get());
+            }
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * a method for playing the specified number of games on the calling thread.
+     *
+     * @param numOfGames the number of games to be played
+     * @param random the random number generator used for shuffling and by the strategies
+     * @return the statistics of the games played
+     */
+    public SimulationStats playGames(int numOfGames, Random random){
+        BigTwoStrategy[] strategies = new BigTwoStrategy[4];
+        for (int i = 0; i < 4; i++){
+            strategies[i] = strategyFactories.get(i).get();
+        }
+
+        BigTwoEngine engine = new BigTwoEngine();
+        for (BigTwoStrategy strategy : strategies){
+            // lets a strategy follow the game, e.g. to keep its search tree between moves
+            if (strategy instanceof BigTwoListener){
+                engine.addListener((BigTwoListener) strategy);
+            }
+        }
+        Deck deck = new BigTwoDeck();
+        deck.sort(); // undoes the shuffle done by the constructor, so that only random is used
+        SimulationStats stats = new SimulationStats(engine.getNumOfPlayers());
+
+        for (int g = 0; g < numOfGames; g++){
+            deck.shuffle(random);
+            engine.start(deck);
+
+            int turns = 0;
+            int winnerIdx = -1;
+            while (turns < MAX_TURNS && winnerIdx < 0){
+                MoveResult result = playTurn(engine, strategies, random);
+                turns++;
+                if (result.getStatus() == MoveResult.Status.PLAY){
+                    stats.recordHand(result.getHand().getHandType());
+                    if (result.isGameOver()){
+                        winnerIdx = result.getPlayerIdx();
+                    }
+                }
+            }
+            stats.recordGame(winnerIdx, turns);
+        }
+        return stats;
+    }
+
+    // asks the current player's strategy for a move; an illegal choice is replaced by a pass, or by
+    // the lowest card when passing is not allowed either
+    private static MoveResult playTurn(BigTwoEngine engine, BigTwoStrategy[] strategies, Random random){
+        int playerIdx = engine.getCurrentPlayerIdx();
+        MoveResult result = engine.play(playerIdx, strategies[playerIdx].chooseMove(engine, playerIdx, random));
+        if (!result.isLegal()){
+            result = engine.pass(playerIdx);
+        }
+        if (!result.isLegal()){
+            long ordered = HandClassifier.toBigTwoOrder(engine.getPlayerList().get(playerIdx).getCardSet());
+            result = engine.play(playerIdx, HandClassifier.fromBigTwoOrder(Long.lowestOneBit(ordered)));
+        }
+        return result;
+    }
+
+    /**
+     * a method for running a simulation of greedy players from the command line.
+     *
+     * @param args the number of games (default 100000), the number of threads (default: the number
+     *             of processors) and the seed (default 0)
+     */
+    public static void main(String[] args){
+        int numOfGames = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int numOfThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        ArrayList<Supplier<? extends BigTwoStrategy>> strategyFactories = new ArrayList<>();
+        for (int i = 0; i < 4; i++){
+            strategyFactories.add(GreedyStrategy::new);
+        }
+
+        try {
+            long startTime = System.nanoTime();
+            SimulationStats stats = new BigTwoSimulation(strategyFactories).run(numOfGames, numOfThreads, seed);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.print(stats);
+            System.out.printf("%d games on %d threads in %.2f s (%.0f games/s)%n", numOfGames, numOfThreads, seconds, numOfGames / seconds);
+        } catch (Exception ex) {
+            System.out.println("Error in running the simulation.");
+            ex.printStackTrace();
+        }
+    }
+}
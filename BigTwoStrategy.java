@@ -0,0 +1,21 @@
+import java.util.Random;
+
+/**
+ * An interface for a computer player of a Big Two card game. A strategy is asked for a move whenever
+ * it is the turn of its player, and answers with the set of cards (see CardSet) to be played.
+ *
+ * A strategy instance is used by one game at a time, so it may keep state between moves.
+ */
+
+public interface BigTwoStrategy {
+    /**
+     * a method for choosing the move of the specified player. The engine must not be modified.
+     *
+     * @param engine the engine holding the current state of the game
+     * @param playerIdx the index of the player whose turn it is
+     * @param random the random number generator to be used by the strategy
+     * @return the set of cards to be played, which must be held by the player, or CardSet.EMPTY for
+     * a pass
+     */
+    public long chooseMove(BigTwoEngine engine, int playerIdx, Random random);
+}
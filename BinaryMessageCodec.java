@@ -0,0 +1,281 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * This class is used to encode card game messages in a compact binary format.
+ * An encoded message is laid out as follows:
+ * <p>
+ * [byte: version][byte: type][byte: playerID][byte: kind of data][data]
+ * <p>
+ * where the data depends on its kind:
+ * <ul>
+ * <li>a string (JOIN, QUIT, MSG) is written with DataOutputStream.writeUTF();</li>
+ * <li>an array of strings (PLAYER_LIST) is a count followed by the strings,
+ * each preceded by a byte telling whether it is null;</li>
+ * <li>the indices of the selected cards of a MOVE are a 16-bit mask;</li>
+ * <li>a deck (START) is its class followed by the 52 card indices (see
+ * Card.getIndex()) in deck order;</li>
+ * <li>a delta (DELTA) is its sequence number, the set of cards played (see
+ * CardSet) and the next player;</li>
+ * <li>a snapshot (SNAPSHOT) is its sequence number, the set of cards of each
+ * player, the set of cards on the table, the player who played them and the
+ * next player;</li>
+ * <li>any other object falls back to Java serialization, of which only the
+ * classes of the data of a card game are decoded (see SERIALIZED_CLASSES),
+ * so that a peer cannot have any other class deserialized.</li>
+ * </ul>
+ * A MOVE thus takes 6 bytes, a DELTA 17 bytes and a START 58 bytes.
+ * 
+ */
+public class BinaryMessageCodec implements MessageCodec {
+	/**
+	 * The id of this codec.
+	 */
+	public static final int ID = 2;
+	/**
+	 * The version of the format written by this codec.
+	 */
+	public static final int VERSION = 1;
+
+	// kinds of data
+	private static final int NULL = 0;
+	private static final int STRING = 1;
+	private static final int STRINGS = 2;
+	private static final int INDEX_MASK = 3;
+	private static final int INTS = 4;
+	private static final int DECK = 5;
+	private static final int SERIALIZED = 6;
+	private static final int DELTA = 7;
+	private static final int SNAPSHOT = 8;
+
+	// the classes decoded from Java serialization: those of the data of the
+	// messages and those they are made of, in a shallow graph of few objects.
+	// Arrays of primitives are allowed, and other arrays are matched by their
+	// element class, e.g. the Object[] read by an ArrayList.
+	private static final ObjectInputFilter SERIALIZED_CLASSES = ObjectInputFilter.Config.createFilter(
+			"maxdepth=8;maxrefs=256;maxarray=64;java.lang.String;java.lang.Object;java.util.ArrayList;"
+					+ "CardList;Deck;BigTwoDeck;Card;BigTwoCard;GameDelta;GameSnapshot;!*");
+
+	// classes of decks
+	private static final int PLAIN_DECK = 0;
+	private static final int BIG_TWO_DECK = 1;
+
+	/**
+	 * Returns the id of this codec.
+	 * 
+	 * @return the id of this codec
+	 */
+	public int getId() {
+		return ID;
+	}
+
+	/**
+	 * Encodes the specified message in binary.
+	 * 
+	 * @param message
+	 *            the message to be encoded
+	 * @return the encoded message
+	 * @throws IOException
+	 *             if the message cannot be encoded
+	 */
+	public byte[] encode(CardGameMessage message) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(VERSION);
+		out.writeByte(message.getType());
+		out.writeByte(message.getPlayerID());
+		writeData(out, message.getData());
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes a message encoded by encode().
+	 * 
+	 * @param data
+	 *            the array holding the encoded message
+	 * @param offset
+	 *            the position of the first byte of the encoded message
+	 * @param length
+	 *            the number of bytes of the encoded message
+	 * @return the decoded message
+	 * @throws IOException
+	 *             if the bytes do not hold a valid message of a known version
+	 */
+	public CardGameMessage decode(byte[] data, int offset, int length) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version of the binary codec: " + version);
+		}
+		int type = in.readByte();
+		int playerID = in.readByte();
+		return new CardGameMessage(type, playerID, readData(in));
+	}
+
+	// writes the kind of the data followed by the data
+	private static void writeData(DataOutputStream out, Object data) throws IOException {
+		if (data == null) {
+			out.writeByte(NULL);
+		} else if (data instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) data);
+		} else if (data instanceof String[]) {
+			String[] strings = (String[]) data;
+			out.writeByte(STRINGS);
+			out.writeShort(strings.length);
+			for (String string : strings) {
+				out.writeBoolean(string != null);
+				if (string != null) {
+					out.writeUTF(string);
+				}
+			}
+		} else if (data instanceof int[]) {
+			int[] ints = (int[]) data;
+			int mask = toIndexMask(ints);
+			if (mask >= 0) {
+				out.writeByte(INDEX_MASK);
+				out.writeShort(mask);
+			} else {
+				out.writeByte(INTS);
+				out.writeShort(ints.length);
+				for (int i : ints) {
+					out.writeInt(i);
+				}
+			}
+		} else if (data.getClass() == Deck.class || data.getClass() == BigTwoDeck.class) {
+			Deck deck = (Deck) data;
+			out.writeByte(DECK);
+			out.writeByte(data.getClass() == BigTwoDeck.class ? BIG_TWO_DECK : PLAIN_DECK);
+			out.writeByte(deck.size());
+			for (int i = 0; i < deck.size(); i++) {
+				out.writeByte(deck.getCard(i).getIndex());
+			}
+		} else if (data instanceof GameDelta) {
+			GameDelta delta = (GameDelta) data;
+			out.writeByte(DELTA);
+			out.writeInt(delta.getSeq());
+			out.writeLong(delta.getCards());
+			out.writeByte(delta.getNextPlayerID());
+		} else if (data instanceof GameSnapshot) {
+			GameSnapshot snapshot = (GameSnapshot) data;
+			out.writeByte(SNAPSHOT);
+			out.writeInt(snapshot.getSeq());
+			out.writeByte(snapshot.getNumOfPlayers());
+			for (int i = 0; i < snapshot.getNumOfPlayers(); i++) {
+				out.writeLong(snapshot.getHand(i));
+			}
+			out.writeLong(snapshot.getLastHand());
+			out.writeByte(snapshot.getLastHandPlayerID());
+			out.writeByte(snapshot.getCurrentPlayerID());
+		} else {
+			out.writeByte(SERIALIZED);
+			ObjectOutputStream oostream = new ObjectOutputStream(out);
+			oostream.writeObject(data);
+			oostream.flush();
+		}
+	}
+
+	// reads data written by writeData()
+	private static Object readData(DataInputStream in) throws IOException {
+		int kind = in.readUnsignedByte();
+		switch (kind) {
+		case NULL:
+			return null;
+		case STRING:
+			return in.readUTF();
+		case STRINGS:
+			String[] strings = new String[in.readUnsignedShort()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = in.readBoolean() ? in.readUTF() : null;
+			}
+			return strings;
+		case INDEX_MASK:
+			return fromIndexMask(in.readUnsignedShort());
+		case INTS:
+			int[] ints = new int[in.readUnsignedShort()];
+			for (int i = 0; i < ints.length; i++) {
+				ints[i] = in.readInt();
+			}
+			return ints;
+		case DECK:
+			return readDeck(in);
+		case DELTA:
+			return new GameDelta(in.readInt(), readCardSet(in), in.readByte());
+		case SNAPSHOT:
+			int seq = in.readInt();
+			long[] hands = new long[in.readUnsignedByte()];
+			for (int i = 0; i < hands.length; i++) {
+				hands[i] = readCardSet(in);
+			}
+			long lastHand = readCardSet(in);
+			int lastHandPlayerID = in.readByte();
+			return new GameSnapshot(seq, hands, lastHand, lastHandPlayerID, in.readByte());
+		case SERIALIZED:
+			try {
+				ObjectInputStream oistream = new ObjectInputStream(in);
+				oistream.setObjectInputFilter(SERIALIZED_CLASSES);
+				return oistream.readObject();
+			} catch (ClassNotFoundException ex) {
+				throw new IOException(ex);
+			}
+		default:
+			throw new IOException("Unknown kind of data: " + kind);
+		}
+	}
+
+	// reads a deck written by writeData()
+	private static Deck readDeck(DataInputStream in) throws IOException {
+		boolean bigTwo = in.readUnsignedByte() == BIG_TWO_DECK;
+		int size = in.readUnsignedByte();
+		Deck deck = bigTwo ? new BigTwoDeck(false) : new Deck(false);
+		for (int i = 0; i < size; i++) {
+			int index = in.readUnsignedByte();
+			if (index >= 52) {
+				throw new IOException("Invalid card index: " + index);
+			}
+			deck.addCard(bigTwo ? BigTwoCard.valueOf(index) : new Card(index % 4, index / 4));
+		}
+		return deck;
+	}
+
+	// reads a set of cards (see CardSet)
+	private static long readCardSet(DataInputStream in) throws IOException {
+		long set = in.readLong();
+		if ((set & ~CardSet.ALL) != 0) {
+			throw new IOException("Invalid set of cards: " + Long.toHexString(set));
+		}
+		return set;
+	}
+
+	// returns the 16-bit mask of the specified strictly increasing indices, or
+	// -1 if they cannot be written as such a mask
+	private static int toIndexMask(int[] indices) {
+		int mask = 0;
+		int previous = -1;
+		for (int index : indices) {
+			if (index <= previous || index >= 16) {
+				return -1;
+			}
+			mask |= 1 << index;
+			previous = index;
+		}
+		return indices.length == 0 ? -1 : mask;
+	}
+
+	// returns the increasing indices of the bits set in the specified mask
+	private static int[] fromIndexMask(int mask) {
+		int[] indices = new int[Integer.bitCount(mask)];
+		for (int i = 0; mask != 0; i++) {
+			indices[i] = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+		}
+		return indices;
+	}
+}
@@ -53,6 +53,15 @@ public class Card implements Comparable<Card>, Serializable {
 		return rank;
 	}
 
+	/**
+	 * Returns the index of the card, which is unique among the 52 cards.
+	 * 
+	 * @return an int value between 0 and 51, equal to rank * 4 + suit (see CardSet)
+	 */
+	public int getIndex() {
+		return rank * 4 + suit;
+	}
+
 	/**
 	 * Returns a string representation of the card.
 	 * 
@@ -104,6 +113,6 @@ public class Card implements Comparable<Card>, Serializable {
 	 * @return a hash code value for the card
 	 */
 	public int hashCode() {
-		return rank;
+		return getIndex();
 	}
 }
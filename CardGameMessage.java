@@ -57,6 +57,46 @@ public class CardGameMessage extends GameMessage {
 	 * sent this chat message, and data is a reference to a string containing a formated chat message.
 	 */
 	public static final int MSG = 7;
+	/**
+	 * Broadcast by the server when it has accepted a move, instead of the MOVE
+	 * message itself. In this message, playerID specifies the player who made
+	 * the move, and data is a reference to a GameDelta object holding the
+	 * sequence number of the change and its effect on the game.
+	 */
+	public static final int DELTA = 8;
+	/**
+	 * Sent by a client to the server when it has missed a DELTA message. The
+	 * server replies to this client only with the same type of message. In
+	 * this message, playerID specifies the player who asks for the snapshot,
+	 * and data is simply null (for the message sent by a client) or a
+	 * reference to a GameSnapshot object holding the state of the game (for
+	 * the message sent by the server).
+	 */
+	public static final int SNAPSHOT = 9;
+	/**
+	 * Sent by the server to a client when its player has joined the game. In
+	 * this message, playerID specifies the playerID of the local player, and
+	 * data is a string holding the session token of the player. A client which
+	 * has lost its connection sends this message with the token as its first
+	 * message on a new connection, to take back its seat. The server replies
+	 * with this message with data being null if the session has expired, and
+	 * then handles the client as a new one.
+	 */
+	public static final int SESSION = 10;
+	/**
+	 * Sent by the server to a client from which nothing has been received for
+	 * a while, or by a client to the server from which nothing has been
+	 * received for a while, to find out whether the connection is still alive.
+	 * The other side replies with a PONG message. In this message, playerID is
+	 * -1 (not being used) and data is simply null (not being used).
+	 */
+	public static final int PING = 11;
+	/**
+	 * Sent in reply to a PING message, by a client or the server. In this
+	 * message, playerID is -1 (not being used) and data is simply null (not
+	 * being used).
+	 */
+	public static final int PONG = 12;
 
 	/**
 	 * Creates and returns an instance of CardGameMessage.
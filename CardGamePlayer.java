@@ -60,9 +60,7 @@ public class CardGamePlayer {
 	 * @param cards the list of cards to be removed from this player
 	 */
 	public void removeCards(CardList cards) {
-		for (int i = 0; i < cards.size(); i++) {
-			cardsInHand.removeCard(cards.getCard(i));
-		}
+		cardsInHand.removeCards(cards.getCardSet());
 	}
 
 	/**
@@ -97,6 +95,15 @@ public class CardGamePlayer {
 		return cardsInHand;
 	}
 
+	/**
+	 * Returns the set of cards held by this player (see CardSet).
+	 * 
+	 * @return the set of cards held by this player
+	 */
+	public long getCardSet() {
+		return cardsInHand.getCardSet();
+	}
+
 	/**
 	 * Returns the list of cards played by this player.
 	 * 
@@ -1,17 +1,15 @@
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
-
-import javax.swing.JFrame;
-import javax.swing.JMenu;
-import javax.swing.JMenuBar;
-import javax.swing.JMenuItem;
-import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
-import javax.swing.ScrollPaneConstants;
+import java.net.SocketTimeoutException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is used to model a card game server.
@@ -24,27 +22,81 @@ public class CardGameServer {
 	boolean silentMode = true;
 	// The name of this card game server
 	private String serverName;
+	/**
+	 * The default maximum number of rooms hosted by a server.
+	 */
+	public static final int DEFAULT_MAX_NUM_OF_ROOMS = 1000;
+	/**
+	 * The default maximum number of threads running blocking client tasks.
+	 */
+	public static final int DEFAULT_MAX_NUM_OF_HANDLERS = 10000;
+	/**
+	 * The default number of milliseconds for which the seat of a player who
+	 * has lost the connection is held.
+	 */
+	public static final long DEFAULT_RECONNECT_GRACE_PERIOD = 30000;
+	/**
+	 * The default number of milliseconds of silence from a client after which
+	 * the client is sent a PING message.
+	 */
+	public static final long DEFAULT_PING_INTERVAL = 10000;
+	/**
+	 * The default number of milliseconds of silence from a client after which
+	 * its connection is closed as lost.
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+	/**
+	 * The default number of milliseconds a player may take for a turn.
+	 */
+	public static final long DEFAULT_TURN_TIMEOUT = 60000;
 	// The maximum number of players in a card game
 	private final int maxNumOfPlayers;
-	// Array for holding sockets of the clients
-	private Socket[] clientSockets;
-	// Array for holding ObjectOutputStreams of the clients
-	private ObjectOutputStream[] clientOutputStreams;
-	// Array for holding player names of the clients
-	private String[] clientNames;
-	// Array for holding ready states of the clients
-	private boolean[] clientReadyStates;
-	// number of current players
-	private int numOfPlayers = 0;
-	// the main frame of the server
-	private JFrame frame = null;
-	// text area for displaying server states
-	private JTextArea textArea = null;
+	// The maximum number of rooms hosted by this server
+	private final int maxNumOfRooms;
+	// List of rooms, indexed by room id
+	private final CopyOnWriteArrayList<GameRoom> rooms = new CopyOnWriteArrayList<GameRoom>();
+	// Executor running the mailboxes of the rooms
+	private final ForkJoinPool roomExecutor = new ForkJoinPool(
+			Runtime.getRuntime().availableProcessors(),
+			ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+	// Map from the connections to the rooms they are in
+	private final ConcurrentHashMap<Connection, GameRoom> connectionRooms = new ConcurrentHashMap<Connection, GameRoom>();
+	// Set of the connections which have not sent their first message yet
+	private final Set<Connection> pendingConnections = ConcurrentHashMap.newKeySet();
+	// Map from the session tokens to the rooms of their players
+	private final ConcurrentHashMap<String, GameRoom> sessions = new ConcurrentHashMap<String, GameRoom>();
+	// Generator of the session tokens
+	private final SecureRandom random = new SecureRandom();
+	// Timer running the delayed tasks of the server
+	private final TimerWheel timer = new TimerWheel("server-timer",
+			TimerWheel.DEFAULT_TICK_DURATION, TimerWheel.DEFAULT_WHEEL_SIZE);
+	// number of milliseconds for which the seat of a disconnected player is held
+	private volatile long reconnectGracePeriod = DEFAULT_RECONNECT_GRACE_PERIOD;
+	// number of milliseconds of silence after which a client is pinged
+	private volatile long pingInterval = DEFAULT_PING_INTERVAL;
+	// number of milliseconds of silence after which a connection is closed
+	private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+	// number of milliseconds a player may take for a turn
+	private volatile long turnTimeout = DEFAULT_TURN_TIMEOUT;
+	// number of milliseconds after which the empty seats of a room whose
+	// players are all ready are taken by computer players, or -1 for never
+	private volatile long computerPlayerDelay = -1;
+	// the log of the server, shown in a console or written to a file
+	private final ServerLog log;
 	// a boolean indicating if the server is up
 	private boolean serverUp = false;
+	// latch released once the server accepts connections at its port
+	private final CountDownLatch listening = new CountDownLatch(1);
+	// executor running the client handlers and FULL responders
+	private HandlerExecutor handlerExecutor = new HandlerExecutor(
+			"client-handler", DEFAULT_MAX_NUM_OF_HANDLERS, true);
+	// executor running the tasks writing the queued messages of the clients
+	private HandlerExecutor writerExecutor = new HandlerExecutor(
+			"client-writer", DEFAULT_MAX_NUM_OF_HANDLERS, true);
 
 	/**
-	 * Creates and returns an instance of the BigTwoServer class.
+	 * Creates and returns an instance of the CardGameServer class, showing its
+	 * log in a console window.
 	 * 
 	 * @param serverName
 	 *            the name of this card game server
@@ -52,50 +104,134 @@ public class CardGameServer {
 	 *            the maximum number of players in a card game
 	 */
 	public CardGameServer(String serverName, int maxNumOfPlayers) {
+		this(serverName, maxNumOfPlayers, DEFAULT_MAX_NUM_OF_ROOMS,
+				new ServerConsole(serverName));
+	}
+
+	/**
+	 * Creates and returns an instance of the CardGameServer class hosting up
+	 * to the specified number of rooms. The server does not use any GUI
+	 * unless the log is a ServerConsole.
+	 * 
+	 * @param serverName
+	 *            the name of this card game server
+	 * @param maxNumOfPlayers
+	 *            the maximum number of players in a card game
+	 * @param maxNumOfRooms
+	 *            the maximum number of rooms, i.e., concurrent card games
+	 * @param log
+	 *            the log of this server
+	 */
+	public CardGameServer(String serverName, int maxNumOfPlayers, int maxNumOfRooms, ServerLog log) {
 		this.serverName = serverName;
 		this.maxNumOfPlayers = maxNumOfPlayers;
+		this.maxNumOfRooms = maxNumOfRooms;
+		this.log = log;
+	}
 
-		// creates arrays for holding client sockets, output streams, player
-		// names, and ready states
-		clientSockets = new Socket[maxNumOfPlayers];
-		clientOutputStreams = new ObjectOutputStream[maxNumOfPlayers];
-		clientNames = new String[maxNumOfPlayers];
-		clientReadyStates = new boolean[maxNumOfPlayers];
+	/**
+	 * Sets the executor running the blocking tasks of this server, i.e., the
+	 * threads receiving messages from the clients of start() and the threads
+	 * sending FULL messages. By default, up to DEFAULT_MAX_NUM_OF_HANDLERS
+	 * tasks run on virtual threads if the runtime supports them.
+	 * 
+	 * @param handlerExecutor
+	 *            the executor running the blocking tasks of this server
+	 */
+	public void setHandlerExecutor(HandlerExecutor handlerExecutor) {
+		this.handlerExecutor = handlerExecutor;
+	}
 
-		buildGUI();
+	/**
+	 * Sets the number of milliseconds for which the seat of a player who has
+	 * lost the connection is held, so that the player can resume the game on a
+	 * new connection. The player leaves the game at once if it is 0.
+	 * 
+	 * @param reconnectGracePeriod
+	 *            the number of milliseconds for which a seat is held
+	 */
+	public void setReconnectGracePeriod(long reconnectGracePeriod) {
+		this.reconnectGracePeriod = reconnectGracePeriod;
+	}
+
+	/**
+	 * Returns the number of milliseconds for which the seat of a player who
+	 * has lost the connection is held.
+	 * 
+	 * @return the number of milliseconds for which a seat is held
+	 */
+	public long getReconnectGracePeriod() {
+		return reconnectGracePeriod;
 	}
 
 	/**
-	 * Builds the GUI for the server
-	 */
-	private void buildGUI() {
-		// build a GUI
-		frame = new JFrame(serverName);
-		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		textArea = new JTextArea(20, 40);
-		textArea.setEditable(false);
-		textArea.setLineWrap(true);
-		textArea.setWrapStyleWord(true);
-		JScrollPane scroller = new JScrollPane(textArea);
-		scroller.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
-		scroller.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
-		frame.add(scroller);
-
-		// build the menu bar
-		JMenuItem clearMenuItem = new JMenuItem("Clear console");
-		clearMenuItem.addActionListener(new ClearMenuItemListener());
-		JMenuItem quitMenuItem = new JMenuItem("Quit");
-		quitMenuItem.addActionListener(new QuitMenuItemListener());
-		JMenu menu = new JMenu("Option");
-		menu.add(clearMenuItem);
-		menu.add(quitMenuItem);
-		JMenuBar menuBar = new JMenuBar();
-		menuBar.add(menu);
-		frame.setJMenuBar(menuBar);
-
-		frame.pack();
-		frame.setVisible(true);
-	} // buildGUI
+	 * Sets how connections to silent clients are checked. A client which has
+	 * sent nothing for the specified ping interval is sent a PING message, and
+	 * its connection is closed as lost once it has sent nothing for the
+	 * specified idle timeout, so that a half-open connection does not hold a
+	 * seat until the operating system gives up on it. Legacy clients, which do
+	 * not answer PING messages, are not checked. A client which has not sent
+	 * its first message within the idle timeout is disconnected whatever its
+	 * wire format.
+	 * 
+	 * @param pingInterval
+	 *            the number of milliseconds of silence after which a client is
+	 *            pinged
+	 * @param idleTimeout
+	 *            the number of milliseconds of silence after which a
+	 *            connection is closed, or 0 to never close it
+	 */
+	public void setHeartbeat(long pingInterval, long idleTimeout) {
+		this.pingInterval = pingInterval;
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Sets the number of milliseconds a player may take for a turn, after
+	 * which the room makes a move on behalf of the player (see
+	 * GameRoom.forceMove()).
+	 * 
+	 * @param turnTimeout
+	 *            the number of milliseconds for a turn, or 0 for no limit
+	 */
+	public void setTurnTimeout(long turnTimeout) {
+		this.turnTimeout = turnTimeout;
+	}
+
+	/**
+	 * Returns the number of milliseconds a player may take for a turn.
+	 * 
+	 * @return the number of milliseconds for a turn, or 0 for no limit
+	 */
+	public long getTurnTimeout() {
+		return turnTimeout;
+	}
+
+	/**
+	 * Sets the number of milliseconds after which the empty seats of a room
+	 * are taken by computer players, counted from the moment all the players
+	 * in the room are ready, so that a game starts without waiting for the
+	 * room to fill up. The computer players leave once the last player has
+	 * left. No computer players are seated by default.
+	 * 
+	 * @param computerPlayerDelay
+	 *            the number of milliseconds to wait for more players, or -1
+	 *            to never seat computer players
+	 */
+	public void setComputerPlayerDelay(long computerPlayerDelay) {
+		this.computerPlayerDelay = computerPlayerDelay;
+	}
+
+	/**
+	 * Returns the number of milliseconds after which the empty seats of a
+	 * room whose players are all ready are taken by computer players.
+	 * 
+	 * @return the number of milliseconds to wait for more players, or -1 if
+	 *         computer players are never seated
+	 */
+	public long getComputerPlayerDelay() {
+		return computerPlayerDelay;
+	}
 
 	/**
 	 * Starts the server at the specified port
@@ -109,249 +245,354 @@ public class CardGameServer {
 			// creates a ServerScoket
 			ServerSocket serverSocket = new ServerSocket(port);
 			println("Starts up the server at localhost:"
-					+ serverSocket.getLocalPort());
+					+ serverSocket.getLocalPort()
+					+ (handlerExecutor.isVirtual() ? " with virtual threads" : ""));
 			serverUp = true;
+			scheduleHeartbeat();
+			listening();
 			while (serverUp) {
-				// waits for clients to connect
+				// waits for clients to connect, and runs a task for receiving
+				// messages from each of them
 				Socket clientSocket = serverSocket.accept();
-				addConnection(clientSocket);
+				try {
+					handlerExecutor.execute(new ClientHandler(clientSocket));
+				} catch (RejectedExecutionException ex) {
+					log(LogLevel.WARN, "Too many connections: cannot serve the client at "
+							+ clientSocket.getRemoteSocketAddress());
+					clientSocket.close();
+				}
 			} // while
 			serverSocket.close();
 		} catch (Exception ex) {
-			println("Error in starting up the server at localhost:" + port);
+			log(LogLevel.ERROR, "Error in starting up the server at localhost:" + port);
 			if (!silentMode) ex.printStackTrace();
 		}
 	} // start
 
 	/**
-	 * Parses the incoming message from the specified client.
+	 * Waits until the server accepts connections at its port, e.g. for
+	 * connecting clients to a server started on another thread without
+	 * probing its port.
+	 * 
+	 * @param timeout
+	 *            the maximum number of milliseconds to wait
+	 * @return true if the server accepts connections, or false if the
+	 *         timeout has elapsed first, e.g. because the port is in use
+	 * @throws InterruptedException
+	 *             if the calling thread is interrupted while waiting
+	 */
+	public boolean awaitListening(long timeout) throws InterruptedException {
+		return listening.await(timeout, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Tells the threads waiting in awaitListening() that the server accepts
+	 * connections at its port.
+	 */
+	void listening() {
+		listening.countDown();
+	}
+
+	/**
+	 * Starts the server at the specified port with non-blocking sockets (see
+	 * NioServerTransport), serving all clients with the specified number of
+	 * threads.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the specified client
+	 * @param port
+	 *            the specified port at which the server starts
+	 * @param numOfThreads
+	 *            the number of threads serving the clients
+	 */
+	public void startNonBlocking(int port, int numOfThreads) {
+		try {
+			serverUp = true;
+			scheduleHeartbeat();
+			new NioServerTransport(this, numOfThreads).start(port);
+		} catch (Exception ex) {
+			log(LogLevel.ERROR, "Error in starting up the server at localhost:" + port);
+			if (!silentMode) ex.printStackTrace();
+		}
+	} // startNonBlocking
+
+	/**
+	 * Parses the incoming message from the specified client, in the room of
+	 * the client.
+	 * 
+	 * @param connection
+	 *            the connection to the specified client
 	 * @param message
 	 *            the message received from the specified client
 	 */
-	private synchronized void parseMessage(Socket clientSocket,
-			CardGameMessage message) {
-		// updates the playerID
-		for (int i = 0; i < maxNumOfPlayers; i++) {
-			if (clientSockets[i] == clientSocket) {
-				message.setPlayerID(i);
-				break;
+	void parseMessage(Connection connection, CardGameMessage message) {
+		if (message.getType() == CardGameMessage.PONG) {
+			// only tells that the client is alive
+			connection.messageHandled();
+			return;
+		}
+		if (message.getType() == CardGameMessage.PING) {
+			// a client which has heard nothing for a while checks the connection
+			connection.messageHandled();
+			try {
+				connection.send(new CardGameMessage(CardGameMessage.PONG, -1, null));
+			} catch (Exception ex) {
+				if (!silentMode) ex.printStackTrace();
 			}
+			return;
 		}
-
-		// parses the message based on it type
-		switch (message.getType()) {
-		case CardGameMessage.JOIN:
-			// adds a player to the game
-			addPlayer(clientSocket, (String) message.getData());
-			break;
-		case CardGameMessage.READY:
-			// marks the specified player as ready for a new game
-			setReadyState(clientSocket);
-			break;
-		case CardGameMessage.MOVE:
-			println("Broadcasts a \"MOVE\" message from "
-					+ clientSocket.getRemoteSocketAddress());
-			// broadcast the MOVE message to all clients
-			broadcastMessage(message);
-			break;
-		case CardGameMessage.MSG:
-			println("Broadcasts a user message from "
-					+ clientSocket.getRemoteSocketAddress());
-			// broadcast the user message to all clients
-			broadcastUserMessage(clientSocket, (String) message.getData());
-			break;
-		default:
-			println("Wrong message type: " + message.getType());
-			// invalid message
-			break;
+		GameRoom room = connectionRooms.get(connection);
+		if (room != null) {
+			room.parseMessage(connection, message);
+		} else {
+			connection.messageHandled();
 		}
 	} // parseMessage
 
 	/**
-	 * Broadcasts the specified message to all clients.
+	 * Adds a new connection to the server once the first message of the
+	 * client has been received. A SESSION message takes the client back to
+	 * the seat it has held since losing its previous connection; any other
+	 * message seats the client as a new player and is then parsed.
 	 * 
+	 * @param connection
+	 *            the connection to be added to the server
 	 * @param message
-	 *            the specified message to be broadcast to all clients
-	 */
-	private synchronized void broadcastMessage(CardGameMessage message) {
-		if (numOfPlayers > 0) {
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] != null && clientOutputStreams[i] != null) {
-					try {
-						clientOutputStreams[i].writeObject(message);
-					} catch (Exception ex) {
-						println("Error in broadcasting a message to the client at "
-								+ clientSockets[i].getRemoteSocketAddress());
-						if (!silentMode) ex.printStackTrace();
-					}
-				}
+	 *            the first message received from the client
+	 * @return true if the connection has been added, false if the server is
+	 *         full
+	 */
+	boolean addConnection(Connection connection, CardGameMessage message) {
+		pendingConnections.remove(connection);
+		if (message.getType() == CardGameMessage.SESSION) {
+			connection.messageHandled();
+			Object token = message.getData();
+			GameRoom room = token instanceof String ? sessions.get(token) : null;
+			if (room != null) {
+				connectionRooms.put(connection, room);
+				room.resumeSession(connection, (String) token);
+				return true;
 			}
+			return rejectSession(connection);
 		}
-	} // broadcastMessage
+		if (!addConnection(connection)) {
+			connection.messageHandled();
+			return false;
+		}
+		parseMessage(connection, message);
+		return true;
+	} // addConnection
 
 	/**
-	 * Adds a new socket connection to the server
+	 * Tells the server about a connection accepted by a transport, so that the
+	 * connection is closed if the client sends nothing within the idle
+	 * timeout (see setHeartbeat()).
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to be added to the server
-	 */
-	private synchronized void addConnection(Socket clientSocket) {
-		// adds this connection to the server if the server is not full
-		if (numOfPlayers < maxNumOfPlayers) {
-			// locates the first empty slot for the new connection
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == null) {
-					try {
-						// creates an ObjectOutputStream for this client socket
-						ObjectOutputStream oostream = new ObjectOutputStream(
-								clientSocket.getOutputStream());
-
-						clientSockets[i] = clientSocket;
-						clientOutputStreams[i] = oostream;
-						clientNames[i] = null;
-						clientReadyStates[i] = false;
-						numOfPlayers++;
-						println("Establishes a connection with a client at "
-								+ clientSocket.getRemoteSocketAddress());
-
-						// creates a thread for receiving messages from this
-						// client
-						Thread t = new Thread(new ClientHandler(clientSocket));
-						t.start();
-
-						// sends the player list to the new player
-						oostream.writeObject(new CardGameMessage(
-								CardGameMessage.PLAYER_LIST, i, clientNames));
-					} catch (Exception ex) {
-						println("Error in establishing a connection with a client at "
-								+ clientSocket.getRemoteSocketAddress());
-						if (!silentMode) ex.printStackTrace();
-					}
-					break;
-				}
-			} // for
-		} else {
-			// Max. no. of players reached
-			println("Server is full: cannot establish a connection with a client at "
-					+ clientSocket.getRemoteSocketAddress());
-
-			// creates a thread for sending a FULL message to this client, waits
-			// for 1000 milliseconds and closes the socket
-			Thread t = new Thread(new ClientHandler2(clientSocket));
-			t.start();
-		}
-
-	} // addConnection
+	 * @param connection
+	 *            the connection which has not sent its first message yet
+	 */
+	void connectionAccepted(Connection connection) {
+		pendingConnections.add(connection);
+	}
 
 	/**
-	 * Removes a connection from the server (possibly due to connection loss).
+	 * Tells the client of the specified connection that its session has
+	 * expired, and adds the connection to the server as a new one.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection being removed from the server
-	 */
-	private synchronized void removeConnection(Socket clientSocket) {
-		if (numOfPlayers > 0) {
-			// locates the client socket in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					String name = clientNames[i];
-
-					clientSockets[i] = null;
-					clientOutputStreams[i] = null;
-					clientNames[i] = null;
-					clientReadyStates[i] = false;
-					numOfPlayers--;
-
-					println(name + " (" + clientSocket.getRemoteSocketAddress()
-							+ ") leaves the game.");
-
-					String remoteAddress = clientSocket
-							.getRemoteSocketAddress().toString();
-
-					// broadcasts a message about the leaving of this player
-					broadcastMessage(new CardGameMessage(CardGameMessage.QUIT,
-							i, remoteAddress));
-					break;
-				}
-			}
+	 * @param connection
+	 *            the connection to the client
+	 * @return true if the connection has been added, false if the server is
+	 *         full
+	 */
+	boolean rejectSession(Connection connection) {
+		connectionRooms.remove(connection);
+		try {
+			connection.send(new CardGameMessage(CardGameMessage.SESSION, -1, null));
+		} catch (Exception ex) {
+			log(LogLevel.WARN, "Error in sending a SESSION message to the client at "
+					+ connection.getRemoteAddress());
+			if (!silentMode) ex.printStackTrace();
 		}
-	} // removeConnection
+		return addConnection(connection);
+	}
 
 	/**
-	 * adds a player to the game.
+	 * Adds a new connection to the server, seating the client in the first
+	 * room with an empty seat. A new room is opened if all rooms are full.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the player who is joining the game
-	 * @param name
-	 *            the name of the player who is joining the game
-	 */
-	private synchronized void addPlayer(Socket clientSocket, String name) {
-		if (numOfPlayers > 0) {
-			// locates the client socket in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					// updates the name of the new player
-					clientNames[i] = name;
-
-					println(name + " (" + clientSocket.getRemoteSocketAddress()
-							+ ") joins the game.");
-
-					// broadcasts a message about this player joining the game
-					broadcastMessage(new CardGameMessage(CardGameMessage.JOIN,
-							i, name));
-					break;
-				}
+	 * @param connection
+	 *            the connection to be added to the server
+	 * @return true if the connection has been added, false if the server is
+	 *         full
+	 */
+	boolean addConnection(Connection connection) {
+		if (addToOpenRoom(connection)) {
+			return true;
+		}
+		synchronized (rooms) {
+			// another thread may have opened a room in the meantime
+			if (addToOpenRoom(connection)) {
+				return true;
+			}
+			if (rooms.size() < maxNumOfRooms) {
+				// seats the client before other threads can see the room
+				GameRoom room = createRoom(rooms.size());
+				room.addConnection(connection);
+				connectionRooms.put(connection, room);
+				rooms.add(room);
+				println("Opens room " + room.getRoomID());
+				return true;
+			}
+		}
+
+		// Max. no. of rooms reached
+		log(LogLevel.WARN, "Server is full: cannot establish a connection with a client at "
+				+ connection.getRemoteAddress());
+
+		// runs a task for sending a FULL message to this client, waiting for
+		// 1000 milliseconds and closing the connection
+		try {
+			handlerExecutor.execute(new ClientHandler2(connection));
+		} catch (RejectedExecutionException ex) {
+			connection.close();
+		}
+		return false;
+	} // addConnection
+
+	// seats the client of the specified connection in the first room with an
+	// empty seat, without locking
+	private boolean addToOpenRoom(Connection connection) {
+		for (GameRoom room : rooms) {
+			if (!room.isFull() && room.addConnection(connection)) {
+				connectionRooms.put(connection, room);
+				return true;
 			}
 		}
-	} // addPlayer
+		return false;
+	}
 
 	/**
-	 * Marks the specified player as ready for a new game.
+	 * Opens a session for a player in the specified room.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the player who becomes ready for a
-	 *            new game
-	 */
-	private synchronized void setReadyState(Socket clientSocket) {
-		if (numOfPlayers > 0) {
-			// locates the client socket in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					clientReadyStates[i] = true;
-					println(clientNames[i] + " ("
-							+ clientSocket.getRemoteSocketAddress()
-							+ " ) is ready for the next game.");
-					broadcastMessage(new CardGameMessage(CardGameMessage.READY,
-							i, null));
-					break;
-				}
+	 * @param room
+	 *            the room of the player
+	 * @return the session token of the player
+	 */
+	String openSession(GameRoom room) {
+		byte[] bytes = new byte[16];
+		random.nextBytes(bytes);
+		String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+		sessions.put(token, room);
+		return token;
+	}
+
+	/**
+	 * Closes the session with the specified token, once its player has left.
+	 * 
+	 * @param token
+	 *            the session token of the player
+	 */
+	void closeSession(String token) {
+		sessions.remove(token);
+	}
+
+	/**
+	 * Runs the specified task after the specified delay, on the timer wheel
+	 * of the server. The task must be short (see TimerWheel).
+	 * 
+	 * @param task
+	 *            the task to be run
+	 * @param delay
+	 *            the number of milliseconds to wait before running the task
+	 * @return the timeout of the task, for cancelling it
+	 */
+	TimerWheel.Timeout schedule(Runnable task, long delay) {
+		return timer.schedule(task, delay);
+	}
+
+	// checks the connections to the clients every ping interval
+	private void scheduleHeartbeat() {
+		timer.schedule(() -> {
+			if (serverUp) {
+				checkConnections();
+				scheduleHeartbeat();
 			}
-		}
+		}, Math.max(pingInterval, TimerWheel.DEFAULT_TICK_DURATION));
+	}
 
-		// checks if all players are ready
-		if (numOfPlayers == maxNumOfPlayers) {
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientReadyStates[i] == false) {
-					// returns if any of the players is not ready
-					return;
+	// pings the silent clients and closes the connections to the clients
+	// which have been silent for too long
+	private void checkConnections() {
+		long now = System.nanoTime();
+		for (Connection connection : pendingConnections) {
+			long silence = (now - connection.getLastReceiveTime()) / 1000000;
+			if (idleTimeout > 0 && silence >= idleTimeout) {
+				log(LogLevel.WARN, "No first message from the client at " + connection.getRemoteAddress()
+						+ " for " + silence + " ms: closes the connection");
+				pendingConnections.remove(connection);
+				connection.close();
+			}
+		}
+		for (Connection connection : connectionRooms.keySet()) {
+			if (!connection.isFramed()) {
+				continue;
+			}
+			long silence = (now - connection.getLastReceiveTime()) / 1000000;
+			if (idleTimeout > 0 && silence >= idleTimeout) {
+				log(LogLevel.WARN, "No message from the client at " + connection.getRemoteAddress()
+						+ " for " + silence + " ms: closes the connection");
+				connection.close();
+			} else if (silence >= pingInterval) {
+				try {
+					connection.send(new CardGameMessage(CardGameMessage.PING, -1, null));
+				} catch (Exception ex) {
+					if (!silentMode) ex.printStackTrace();
 				}
 			}
+		}
+	}
 
-			// resets the ready states of all the players for the next game
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				clientReadyStates[i] = false;
-			}
+	/**
+	 * Returns the number of clients seated in the rooms of this server,
+	 * excluding the connections which have not sent their first message yet.
+	 * 
+	 * @return the number of connections in the rooms of this server
+	 */
+	public int getNumOfConnections() {
+		return connectionRooms.size();
+	}
 
-			// creates a new deck, shuffles the deck, and starts a new game
-			Deck deck = createDeck();
-			deck.shuffle();
-			println("All players are ready. Game starts.");
-			broadcastMessage(new CardGameMessage(CardGameMessage.START, -1,
-					deck));
+	/**
+	 * Returns the executor running the mailboxes of the rooms.
+	 * 
+	 * @return the executor running the mailboxes of the rooms
+	 */
+	ForkJoinPool getRoomExecutor() {
+		return roomExecutor;
+	}
+
+	/**
+	 * Removes a connection from the server (possibly due to connection loss).
+	 * 
+	 * @param connection
+	 *            the connection being removed from the server
+	 */
+	void removeConnection(Connection connection) {
+		pendingConnections.remove(connection);
+		GameRoom room = connectionRooms.remove(connection);
+		if (room != null) {
+			room.removeConnection(connection);
 		}
+	} // removeConnection
+
+	/**
+	 * Creates and returns a room of this server. Overrides this method if a
+	 * different type of room is needed.
+	 * 
+	 * @param roomID
+	 *            the id of the room
+	 * @return an instance of the GameRoom class
+	 */
+	public GameRoom createRoom(int roomID) {
+		return new GameRoom(this, roomID, maxNumOfPlayers);
 	}
 
 	/**
@@ -364,31 +605,36 @@ public class CardGameServer {
 		return new Deck();
 	}
 
-	private synchronized void broadcastUserMessage(Socket clientSocket,
-			String msg) {
-		if (numOfPlayers > 0) {
-			// locates the client in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					String longMsg = clientNames[i] + " ("
-							+ clientSocket.getRemoteSocketAddress() + "): "
-							+ msg;
-					broadcastMessage(new CardGameMessage(CardGameMessage.MSG,
-							i, longMsg));
-					break;
-				}
-			}
-		}
+	/**
+	 * Prints the specified message to the log.
+	 * 
+	 * @param msg
+	 */
+	void println(String msg) {
+		log.log(LogLevel.INFO, msg);
 	}
 
 	/**
-	 * Prints the specified message to the text area.
+	 * Prints the specified message to the log with the specified level.
 	 * 
+	 * @param level
+	 *            the level of the message
 	 * @param msg
+	 *            the message
+	 */
+	void log(LogLevel level, String msg) {
+		log.log(level, msg);
+	}
+
+	/**
+	 * Returns whether messages of the specified level are logged.
+	 * 
+	 * @param level
+	 *            the level of a message
+	 * @return true if messages of the level are logged, false otherwise
 	 */
-	private void println(String msg) {
-		textArea.append(msg + "\n");
-		textArea.setCaretPosition(textArea.getDocument().getLength());
+	boolean isLoggable(LogLevel level) {
+		return log.isLoggable(level);
 	}
 
 	/**
@@ -399,7 +645,6 @@ public class CardGameServer {
 	 */
 	private class ClientHandler implements Runnable {
 		private Socket clientSocket; // socket connection to the client
-		private ObjectInputStream oistream; // ObjectInputStream of the client
 
 		/**
 		 * Creates and returns an instance of the ClientHandler class.
@@ -409,65 +654,97 @@ public class CardGameServer {
 		 */
 		public ClientHandler(Socket clientSocket) {
 			this.clientSocket = clientSocket;
+		} // constructor
+
+		// implementation of method from the Runnable interface
+		public void run() {
+			SocketConnection connection;
+			long firstMessageTimeout = idleTimeout;
 			try {
-				// creates an ObjectInputStream and chains it to the InputStream
-				// of the client socket
-				oistream = new ObjectInputStream(clientSocket.getInputStream());
+				// the heartbeat only checks the clients which have sent their
+				// first message, so the wait for it is bounded by the socket
+				if (firstMessageTimeout > 0) {
+					clientSocket.setSoTimeout((int) Math.min(firstMessageTimeout, Integer.MAX_VALUE));
+				}
+				// waits for the client to reveal its wire format
+				connection = new SocketConnection(clientSocket, writerExecutor);
+			} catch (SocketTimeoutException ex) {
+				log(LogLevel.WARN, "No first message from the client at " + clientSocket.getRemoteSocketAddress()
+						+ " for " + firstMessageTimeout + " ms: closes the connection");
+				try {
+					clientSocket.close();
+				} catch (Exception ex2) {
+					if (!silentMode) ex2.printStackTrace();
+				}
+				return;
 			} catch (Exception ex) {
-				println("Error in creating an ObjectInputStream for the client at "
+				log(LogLevel.WARN, "Error in creating a connection with the client at "
 						+ clientSocket.getRemoteSocketAddress());
 				if (!silentMode) ex.printStackTrace();
+				try {
+					clientSocket.close();
+				} catch (Exception ex2) {
+					if (!silentMode) ex2.printStackTrace();
+				}
+				return;
 			}
-		} // constructor
-
-		// implementation of method from the Runnable interface
-		public void run() {
 			CardGameMessage message;
 			try {
+				// waits for the first message from the client, telling a new
+				// player from one resuming a session
+				if ((message = connection.receive()) == null) {
+					connection.close();
+					return;
+				}
+				clientSocket.setSoTimeout(0);
+				if (!addConnection(connection, message)) {
+					return;
+				}
+
 				// waits for messages from the client
-				while ((message = (CardGameMessage) oistream.readObject()) != null) {
-					println("Message received from "
-							+ clientSocket.getRemoteSocketAddress());
-					parseMessage(clientSocket, message);
+				while ((message = connection.receive()) != null) {
+					if (isLoggable(LogLevel.DEBUG)) {
+						log(LogLevel.DEBUG, "Message received from "
+								+ connection.getRemoteAddress());
+					}
+					parseMessage(connection, message);
 				} // close while
+			} catch (SocketTimeoutException ex) {
+				log(LogLevel.WARN, "No first message from the client at " + connection.getRemoteAddress()
+						+ " for " + firstMessageTimeout + " ms: closes the connection");
 			} catch (Exception ex) {
-				println("Error in receiving messages from the client at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(LogLevel.WARN, "Error in receiving messages from the client at "
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
-				// possible connection loss, removes the connection
-				removeConnection(clientSocket);
 			}
+			// possible connection loss, removes the connection
+			removeConnection(connection);
+			connection.close();
 		} // run
 	} // ClientHandler
 
 	private class ClientHandler2 implements Runnable {
-		private Socket clientSocket; // socket connection to the client
+		private Connection connection; // connection to the client
 
 		/**
 		 * Creates and returns an instance of the ClientHandler2 class.
 		 * 
-		 * @param clientSocket
-		 *            the socket connection to the client
+		 * @param connection
+		 *            the connection to the client
 		 */
-		public ClientHandler2(Socket clientSocket) {
-			this.clientSocket = clientSocket;
+		public ClientHandler2(Connection connection) {
+			this.connection = connection;
 		} // constructor
 
 		// implementation of method from the Runnable interface
 		public void run() {
 			try {
-				// creates an ObjectOutputStream and chains it to the
-				// OutputStream
-				// of the client socket
-				ObjectOutputStream oostream = new ObjectOutputStream(
-						clientSocket.getOutputStream());
 				// sends a FULL message to the client
-				oostream.writeObject(new CardGameMessage(CardGameMessage.FULL,
+				connection.send(new CardGameMessage(CardGameMessage.FULL,
 						-1, null));
-				oostream.flush();
 			} catch (Exception ex) {
-				println("Error in sending a FULL message to the client at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(LogLevel.WARN, "Error in sending a FULL message to the client at "
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 			}
 
@@ -475,44 +752,13 @@ public class CardGameServer {
 			try {
 				Thread.sleep(1000);
 			} catch (Exception ex) {
-				println("Error in sleeping before closing the client socket at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(LogLevel.WARN, "Error in sleeping before closing the connection to "
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 			}
 
-			// closes the socket
-			try {
-				clientSocket.close();
-			} catch (Exception ex) {
-				println("Error in closing the client socket at "
-						+ clientSocket.getRemoteSocketAddress());
-				if (!silentMode) ex.printStackTrace();
-			}
+			// closes the connection
+			connection.close();
 		} // run
 	} // ClientHandler2
-
-	/**
-	 * This inner class is used for handling the Clear menu
-	 * 
-	 * @author Kenneth Wong
-	 *
-	 */
-	private class ClearMenuItemListener implements ActionListener {
-		public void actionPerformed(ActionEvent e) {
-			textArea.setText("");
-		}
-	} // ClearMenuItemListener
-
-	/**
-	 * This inner class is used for handling the Quit menu
-	 * 
-	 * @author Kenneth Wong
-	 *
-	 */
-	private class QuitMenuItemListener implements ActionListener {
-		public void actionPerformed(ActionEvent e) {
-			frame.dispose();
-			System.exit(0);
-		}
-	} // QuitMenuItemListener
 }
@@ -9,6 +9,10 @@ import java.util.ArrayList;
 public class CardList implements Serializable {
 	private static final long serialVersionUID = -3711761437629470849L;
 	private ArrayList<Card> cards = new ArrayList<Card>();
+	// the cards in this list as a CardSet bit mask, kept in step with the list
+	// while cardSetValid is true and recomputed on demand otherwise
+	private transient long cardSet = CardSet.EMPTY;
+	private transient boolean cardSetValid = true;
 
 	/**
 	 * Appends the specified card to the end of this list.
@@ -18,6 +22,7 @@ public class CardList implements Serializable {
 	public void addCard(Card card) {
 		if (card != null) {
 			cards.add(card);
+			cardSet |= CardSet.bit(card);
 		}
 	}
 
@@ -46,6 +51,7 @@ public class CardList implements Serializable {
 	 */
 	public Card removeCard(int i) {
 		if (i >= 0 && i < cards.size()) {
+			cardSetValid = false;
 			return cards.remove(i);
 		} else {
 			return null;
@@ -62,14 +68,39 @@ public class CardList implements Serializable {
 	 * @return true if this list contained the specified card; otherwise false
 	 */
 	public boolean removeCard(Card card) {
+		if ((getCardSet() & CardSet.bit(card)) == 0) {
+			return false;
+		}
+		cardSetValid = false;
 		return cards.remove(card);
 	}
 
+	/**
+	 * Removes from this list every card contained in the specified set of cards.
+	 * 
+	 * @param set the set of cards (see CardSet) to be removed from this list
+	 * @return true if this list changed as a result of the call; otherwise false
+	 */
+	public boolean removeCards(long set) {
+		if ((getCardSet() & set) == 0) {
+			return false;
+		}
+		for (int i = cards.size() - 1; i >= 0; i--) {
+			if ((set & CardSet.bit(cards.get(i))) != 0) {
+				cards.remove(i);
+			}
+		}
+		cardSet &= ~set;
+		return true;
+	}
+
 	/**
 	 * Removes all cards from this list.
 	 */
 	public void removeAllCards() {
 		cards = new ArrayList<Card>();
+		cardSet = CardSet.EMPTY;
+		cardSetValid = true;
 	}
 
 	/**
@@ -83,6 +114,7 @@ public class CardList implements Serializable {
 	 */
 	public Card setCard(int i, Card card) {
 		if (i >= 0 && i < cards.size()) {
+			cardSetValid = false;
 			return cards.set(i, card);
 		} else {
 			return null;
@@ -96,7 +128,25 @@ public class CardList implements Serializable {
 	 * @return true if this list contains the specified card; otherwise false
 	 */
 	public boolean contains(Card card) {
-		return cards.contains(card);
+		return (getCardSet() & CardSet.bit(card)) != 0;
+	}
+
+	/**
+	 * Returns the cards in this list as a set of cards packed into a long value.
+	 * See CardSet for the bit layout.
+	 * 
+	 * @return the set of cards in this list
+	 */
+	public long getCardSet() {
+		if (!cardSetValid) {
+			long set = CardSet.EMPTY;
+			for (int i = 0; i < cards.size(); i++) {
+				set |= CardSet.bit(cards.get(i));
+			}
+			cardSet = set;
+			cardSetValid = true;
+		}
+		return cardSet;
 	}
 
 	/**
@@ -0,0 +1,210 @@
+/**
+ * This class provides operations on a set of cards packed into the lower 52
+ * bits of a long value. The card with the specified suit and rank occupies the
+ * bit at position (rank * 4 + suit), so that the four cards of a rank form one
+ * nibble and the bit order follows the order defined by Card.compareTo().
+ * <p>
+ * All methods are static and work on primitive values, so set membership,
+ * removal and rank/suit histograms can be computed without creating objects.
+ */
+public final class CardSet {
+	/**
+	 * The empty set of cards.
+	 */
+	public static final long EMPTY = 0L;
+	/**
+	 * The set containing all 52 cards.
+	 */
+	public static final long ALL = (1L << 52) - 1;
+
+	// bit masks selecting all cards of a suit (one bit in every nibble)
+	private static final long[] SUIT_MASKS = new long[4];
+
+	static {
+		for (int suit = 0; suit < 4; suit++) {
+			for (int rank = 0; rank < 13; rank++) {
+				SUIT_MASKS[suit] |= bit(suit, rank);
+			}
+		}
+	}
+
+	private CardSet() {
+	}
+
+	/**
+	 * Returns the bit position of the card with the specified suit and rank.
+	 *
+	 * @param suit an int value between 0 and 3 representing the suit of a card
+	 * @param rank an int value between 0 and 12 representing the rank of a card
+	 * @return an int value between 0 and 51
+	 */
+	public static int indexOf(int suit, int rank) {
+		return rank * 4 + suit;
+	}
+
+	/**
+	 * Returns the bit position of the specified card.
+	 *
+	 * @param card the card
+	 * @return an int value between 0 and 51
+	 */
+	public static int indexOf(Card card) {
+		return card.getIndex();
+	}
+
+	/**
+	 * Returns the set containing only the card with the specified suit and rank.
+	 *
+	 * @param suit an int value between 0 and 3 representing the suit of a card
+	 * @param rank an int value between 0 and 12 representing the rank of a card
+	 * @return the set containing only the specified card
+	 */
+	public static long bit(int suit, int rank) {
+		return 1L << indexOf(suit, rank);
+	}
+
+	/**
+	 * Returns the set containing only the specified card.
+	 *
+	 * @param card the card
+	 * @return the set containing only the specified card, or the empty set if the
+	 *         card is null
+	 */
+	public static long bit(Card card) {
+		return card == null ? EMPTY : 1L << indexOf(card);
+	}
+
+	/**
+	 * Returns the set of cards in the specified list.
+	 *
+	 * @param cards the list of cards
+	 * @return the set of cards in the list, or the empty set if the list is null
+	 */
+	public static long of(CardList cards) {
+		return cards == null ? EMPTY : cards.getCardSet();
+	}
+
+	/**
+	 * Returns the positions in the specified list of the cards in the set, in
+	 * the form taken by the MOVE message of a card game.
+	 *
+	 * @param cards the list of cards, e.g., the cards in the hand of a player
+	 * @param set   the set of cards to be located in the list
+	 * @return the increasing indices of the cards of the set in the list, or
+	 *         null if the set is empty
+	 */
+	public static int[] indicesIn(CardList cards, long set) {
+		if (set == EMPTY) {
+			return null;
+		}
+		int[] cardIdx = new int[size(set & cards.getCardSet())];
+		for (int i = 0, j = 0; j < cardIdx.length; i++) {
+			if (contains(set, cards.getCard(i))) {
+				cardIdx[j++] = i;
+			}
+		}
+		return cardIdx;
+	}
+
+	/**
+	 * Returns true if the set contains the specified card.
+	 *
+	 * @param set  the set of cards
+	 * @param card the card whose presence is to be tested
+	 * @return true if the set contains the card; otherwise false
+	 */
+	public static boolean contains(long set, Card card) {
+		return (set & bit(card)) != 0;
+	}
+
+	/**
+	 * Returns true if the set contains all the cards in the other set.
+	 *
+	 * @param set   the set of cards
+	 * @param other the cards whose presence is to be tested
+	 * @return true if every card in other is also in set; otherwise false
+	 */
+	public static boolean containsAll(long set, long other) {
+		return (set & other) == other;
+	}
+
+	/**
+	 * Returns the number of cards in the set.
+	 *
+	 * @param set the set of cards
+	 * @return the number of cards in the set
+	 */
+	public static int size(long set) {
+		return Long.bitCount(set);
+	}
+
+	/**
+	 * Returns the number of cards of the specified rank in the set.
+	 *
+	 * @param set  the set of cards
+	 * @param rank an int value between 0 and 12 representing the rank
+	 * @return an int value between 0 and 4
+	 */
+	public static int rankCount(long set, int rank) {
+		return Long.bitCount((set >>> (rank * 4)) & 0xFL);
+	}
+
+	/**
+	 * Returns the number of cards of the specified suit in the set.
+	 *
+	 * @param set  the set of cards
+	 * @param suit an int value between 0 and 3 representing the suit
+	 * @return an int value between 0 and 13
+	 */
+	public static int suitCount(long set, int suit) {
+		return Long.bitCount(set & SUIT_MASKS[suit]);
+	}
+
+	/**
+	 * Returns the cards of the specified suit in the set.
+	 *
+	 * @param set  the set of cards
+	 * @param suit an int value between 0 and 3 representing the suit
+	 * @return the subset of cards having the specified suit
+	 */
+	public static long suit(long set, int suit) {
+		return set & SUIT_MASKS[suit];
+	}
+
+	/**
+	 * Returns the ranks present in the set as a 13-bit mask, in which bit r is
+	 * set if the set contains at least one card of rank r.
+	 *
+	 * @param set the set of cards
+	 * @return the mask of ranks present in the set
+	 */
+	public static int rankMask(long set) {
+		// folds each nibble onto its lowest bit
+		long folded = set | (set >>> 1);
+		folded = (folded | (folded >>> 2)) & SUIT_MASKS[0];
+		int mask = 0;
+		while (folded != 0) {
+			int index = Long.numberOfTrailingZeros(folded);
+			mask |= 1 << (index >>> 2);
+			folded &= folded - 1;
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the suits present in the set as a 4-bit mask, in which bit s is set
+	 * if the set contains at least one card of suit s.
+	 *
+	 * @param set the set of cards
+	 * @return the mask of suits present in the set
+	 */
+	public static int suitMask(long set) {
+		int mask = 0;
+		for (int suit = 0; suit < 4; suit++) {
+			if ((set & SUIT_MASKS[suit]) != 0) {
+				mask |= 1 << suit;
+			}
+		}
+		return mask;
+	}
+}
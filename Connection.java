@@ -0,0 +1,71 @@
+/**
+ * An interface for a connection between a card game server and one client,
+ * independent of how the messages are transported.
+ * <p>
+ * Sending never waits for the client: messages are queued and written by the
+ * connection in the background. A client whose queue holds more than
+ * MAX_QUEUED_MESSAGES messages is too slow to keep up with its table and is
+ * disconnected.
+ * <p>
+ * Receiving is flow-controlled: a connection stops reading from its client
+ * while MAX_UNHANDLED_MESSAGES messages received from it have not been
+ * handled by the server, so a client cannot flood its table.
+ * 
+ */
+public interface Connection {
+	/**
+	 * The maximum number of messages queued for a client.
+	 */
+	public static final int MAX_QUEUED_MESSAGES = 512;
+	/**
+	 * The maximum number of messages received from a client but not yet
+	 * handled by the server.
+	 */
+	public static final int MAX_UNHANDLED_MESSAGES = 16;
+
+	/**
+	 * Queues the specified message for sending to the client.
+	 * 
+	 * @param message
+	 *            the message to be sent
+	 * @throws Exception
+	 *             if the connection is closed, or if the queue of the client
+	 *             is full, in which case the connection is closed
+	 */
+	public void send(CardGameMessage message) throws Exception;
+
+	/**
+	 * Tells the connection that the server has handled a message received
+	 * from the client, so that it may read another one.
+	 */
+	public void messageHandled();
+
+	/**
+	 * Closes the connection. Messages already sent may still be delivered.
+	 */
+	public void close();
+
+	/**
+	 * Returns a string representation of the address of the client.
+	 * 
+	 * @return the IP address and TCP port of the client
+	 */
+	public String getRemoteAddress();
+
+	/**
+	 * Returns whether the client sends length-prefixed frames (see
+	 * MessageFrames). Other clients are legacy clients sending a Java object
+	 * stream, which only understand the message types they were built with.
+	 * 
+	 * @return true if the client sends frames, false otherwise
+	 */
+	public boolean isFramed();
+
+	/**
+	 * Returns the time at which the last message was received from the
+	 * client, or at which the connection was opened if none has been.
+	 * 
+	 * @return the time in nanoseconds, as returned by System.nanoTime()
+	 */
+	public long getLastReceiveTime();
+}
@@ -0,0 +1,133 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * The ConnectionHeapTest class is used to check that a long-lived SocketConnection does not keep the
+ * messages it has sent reachable. It connects a client to a SocketConnection over the loopback interface,
+ * in the wire format of a legacy client (a Java object stream) or of a framed one, and streams hundreds of
+ * thousands of MOVE messages through it, each with its own array of card indices as a server sends them.
+ * The client discards the bytes it receives without decoding them, so only the server side holds memory.
+ *
+ * The heap in use after a full garbage collection is sampled once the connection has warmed up and then
+ * at regular intervals. The process exits with status 1 if the heap has grown by more than the limit
+ * since the first sample, e.g. because the object stream is no longer reset and its handle table keeps
+ * every message sent, and with status 0 otherwise.
+ */
+
+public class ConnectionHeapTest {
+    private static final int NUM_OF_SAMPLES = 10; // the number of samples of the heap after the warm-up
+
+    // a method for writing the first bytes of a client in the specified format, so that the connection
+    // detects it
+    private static void greet(Socket client, boolean framed) throws IOException{
+        if (framed){
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+            MessageFrames.write(out, new BinaryMessageCodec(), new CardGameMessage(CardGameMessage.JOIN, -1, "heap"));
+            out.flush();
+        }
+        else{
+            new ObjectOutputStream(client.getOutputStream()).flush();
+        }
+    }
+
+    // a method for getting the number of bytes of heap in use after a full garbage collection
+    private static long usedHeap(MemoryMXBean memory){
+        for (int i = 0; i < 3; i++){
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * a method for running the check from the command line.
+     *
+     * @param args any of these options: "messages N" for the number of MOVE messages sent (default
+     *             500000); "format object|framed" for the wire format of the client (default object);
+     *             "limit MB" for the growth of the heap beyond which the check fails (default 8)
+     */
+    public static void main(String[] args) throws Exception{
+        int numOfMessages = 500000;
+        boolean framed = false;
+        long limit = 8;
+        for (int i = 0; i < args.length; i++){
+            switch (args[i]){
+                case "messages": numOfMessages = Integer.parseInt(args[++i]); break;
+                case "format": framed = "framed".equals(args[++i]); break;
+                case "limit": limit = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Socket client = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        greet(client, framed);
+        Socket socket = serverSocket.accept();
+        serverSocket.close();
+
+        // the writer task runs on the sending thread, so the queue never overflows and a full socket
+        // buffer slows the sender down to the client
+        Executor writerExecutor = Runnable::run;
+        SocketConnection connection = new SocketConnection(socket, writerExecutor);
+        if (framed){
+            // the JOIN chooses the codec of the replies
+            connection.receive();
+        }
+
+        Thread drain = new Thread(() -> {
+            byte[] buffer = new byte[1 << 16];
+            try {
+                InputStream in = client.getInputStream();
+                while (in.read(buffer) >= 0){
+                    // discards the bytes
+                }
+            } catch (IOException ex) {
+                // the connection has been closed
+            }
+        }, "heap-test-client");
+        drain.setDaemon(true);
+        drain.start();
+
+        System.out.printf("%d MOVE messages to %s client, limit %d MB%n", numOfMessages, framed ? "a framed" : "an object stream", limit);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Random random = new Random(0);
+        int warmUp = numOfMessages / (NUM_OF_SAMPLES + 1);
+        int sampleInterval = Math.max((numOfMessages - warmUp) / NUM_OF_SAMPLES, 1);
+        long baseline = -1;
+        long maxGrowth = 0;
+        long startTime = System.nanoTime();
+        for (int n = 1; n <= numOfMessages; n++){
+            int[] cardIdx = new int[1 + random.nextInt(5)];
+            for (int i = 0; i < cardIdx.length; i++){
+                cardIdx[i] = random.nextInt(13);
+            }
+            connection.send(new CardGameMessage(CardGameMessage.MOVE, n % 4, cardIdx));
+
+            if (n == warmUp || (n > warmUp && (n - warmUp) % sampleInterval == 0) || n == numOfMessages){
+                long used = usedHeap(memory);
+                if (baseline < 0){
+                    baseline = used;
+                }
+                maxGrowth = Math.max(maxGrowth, used - baseline);
+                System.out.printf("%9d messages: heap %7.2f MB, growth %7.2f MB%n", n, used / 1048576.0, (used - baseline) / 1048576.0);
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        connection.close();
+        client.close();
+
+        boolean passed = maxGrowth <= limit << 20;
+        System.out.printf("max growth %.2f MB at %.0f messages/s: %s%n", maxGrowth / 1048576.0, numOfMessages / seconds,
+                passed ? "bounded" : "exceeds the limit of " + limit + " MB");
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Random;
+
 /**
  * This class is used to represent a deck of cards in general card games.
  * 
@@ -10,7 +12,22 @@ public class Deck extends CardList {
 	 * Creates and returns an instance of the Deck class.
 	 */
 	public Deck() {
-		initialize();
+		this(true);
+	}
+
+	/**
+	 * Creates and returns an instance of the Deck class, which is left empty
+	 * unless specified, so that a deck whose cards are read one by one is not
+	 * filled and emptied first.
+	 * 
+	 * @param initialize
+	 *            true to initialize the deck (see initialize()), false for an
+	 *            empty deck
+	 */
+	Deck(boolean initialize) {
+		if (initialize) {
+			initialize();
+		}
 	}
 
 	/**
@@ -38,4 +55,20 @@ public class Deck extends CardList {
 			}
 		}
 	}
+
+	/**
+	 * Shuffles the deck of cards using the specified random number generator, so
+	 * that every ordering of the cards is equally likely (Fisher-Yates shuffle).
+	 * 
+	 * @param random the random number generator to be used
+	 */
+	public void shuffle(Random random) {
+		for (int i = this.size() - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			if (i != j) {
+				Card card = setCard(i, getCard(j));
+				setCard(j, card);
+			}
+		}
+	}
 }
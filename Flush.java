@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-
 /**
  * The Flush class is a subclass of the Hand class and is used to model a hand of flush.
  *
@@ -19,12 +17,12 @@ public class Flush extends Hand{
     }
 
     /**
-     * a method for checking if this is a valid hand.
+     * a method for retrieving the type of this hand.
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public String getType(){
-        return "Flush";
+    public HandType getHandType(){
+        return HandType.FLUSH;
     }
 
     /**
@@ -37,49 +35,6 @@ public class Flush extends Hand{
             return false;
         }
 
-        int firstSuit = this.getCard(0).getSuit();
-        for (int i = 1; i < this.size(); i++){
-            if(this.getCard(i).getSuit() != firstSuit){
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * a method for checking if this hand beats a specified hand.
-     *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
-     */
-    public boolean beats(Hand hand){
-        if(hand == null){
-            return false;
-        }
-        if(hand.size() < 5){
-            return false;
-        }
-        if(hand.getType().equals("Straight") && hand.isValid()){
-            return true;
-        }
-        if (!hand.getType().equals(this.getType())){
-            return false;
-        }
-
-        if(this.getCard(0).getSuit() > hand.getCard(0).getSuit()){
-            return true;
-        }
-        else if (this.getCard(0).getSuit() < hand.getCard(0).getSuit()){
-            return false;
-        }
-        else{
-            if(this.getTopCard().compareTo(hand.getTopCard()) > 0){
-                return true;
-            }
-            else{
-                return false;
-            }
-        }
+        return isFlush(this.getCardSet());
     }
 }
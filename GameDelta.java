@@ -0,0 +1,65 @@
+import java.io.Serializable;
+
+/**
+ * This class is used to model a change of the state of a card game caused by
+ * one accepted move, as broadcast by the server in a DELTA message. The
+ * player who made the move is the playerID of the message. The cards are
+ * removed from the hand of that player and form the new hand on the table; an
+ * empty set of cards stands for a pass.
+ * <p>
+ * Deltas are numbered from 1 in each game, the START message counting as 0,
+ * so that a client can tell when it has missed one.
+ * 
+ */
+public class GameDelta implements Serializable {
+	private static final long serialVersionUID = 3470135254112052641L;
+	// The sequence number of this delta in its game
+	private final int seq;
+	// The cards played (see CardSet), or CardSet.EMPTY for a pass
+	private final long cards;
+	// The player who plays the next turn
+	private final int nextPlayerID;
+
+	/**
+	 * Creates and returns an instance of the GameDelta class.
+	 * 
+	 * @param seq
+	 *            the sequence number of this delta in its game
+	 * @param cards
+	 *            the cards played (see CardSet), or CardSet.EMPTY for a pass
+	 * @param nextPlayerID
+	 *            the player who plays the next turn
+	 */
+	public GameDelta(int seq, long cards, int nextPlayerID) {
+		this.seq = seq;
+		this.cards = cards;
+		this.nextPlayerID = nextPlayerID;
+	}
+
+	/**
+	 * Returns the sequence number of this delta in its game.
+	 * 
+	 * @return the sequence number of this delta
+	 */
+	public int getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Returns the cards played.
+	 * 
+	 * @return the cards played (see CardSet), or CardSet.EMPTY for a pass
+	 */
+	public long getCards() {
+		return cards;
+	}
+
+	/**
+	 * Returns the player who plays the next turn.
+	 * 
+	 * @return the playerID of the player who plays the next turn
+	 */
+	public int getNextPlayerID() {
+		return nextPlayerID;
+	}
+}
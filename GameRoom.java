@@ -0,0 +1,837 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This class is used to model a room of a card game server, i.e., a table at
+ * which one card game is played. Each room has its own seats, player names,
+ * ready states and deck, and messages are only broadcast to the clients in the
+ * same room. The playerID of a client is its seat in its room.
+ * <p>
+ * The state of a room is only changed by the tasks of its mailbox, which run
+ * one at a time, so it needs no locks. Seats are reserved with atomic
+ * operations, so the occupancy of a room can be read from any thread without
+ * going through the mailbox.
+ * <p>
+ * A player who has joined the game gets a session token. When the player
+ * loses the connection, the seat is held for the reconnect grace period of the
+ * server, so that the player can take it back with the token on a new
+ * connection and carry on with the game.
+ * <p>
+ * If the server seats computer players, the empty seats are taken by computer
+ * players once the players in the room have been ready for a while. A
+ * computer player has a connection which discards the messages sent to it,
+ * is always ready, and has its moves made by the room (see
+ * isComputerPlayer()). The computer players leave with the last player.
+ * 
+ */
+public class GameRoom {
+	// The server hosting this room
+	private final CardGameServer server;
+	// The id of this room
+	private final int roomID;
+	// The maximum number of players in a card game
+	private final int maxNumOfPlayers;
+	// The mailbox running the tasks changing the state of this room
+	private final Mailbox mailbox;
+	// Array for holding the connections which have reserved the seats
+	private final AtomicReferenceArray<Connection> seats;
+	// number of reserved seats
+	private final AtomicInteger numOfReservedSeats = new AtomicInteger();
+	// Array for holding connections to the clients, once seated by the mailbox
+	private final Connection[] clientConnections;
+	// Array for holding player names of the clients
+	private final String[] clientNames;
+	// Array for holding ready states of the clients
+	private final boolean[] clientReadyStates;
+	// Array for holding the session tokens of the players who have joined
+	private final String[] sessionTokens;
+	// Array for holding the timers releasing the seats held for the players
+	// who have lost their connections
+	private final TimerWheel.Timeout[] seatTimers;
+	// Array for holding whether the seats are taken by computer players
+	private final boolean[] computerPlayers;
+	// number of current players
+	private int numOfPlayers = 0;
+	// number of computer players among the current players
+	private int numOfComputerPlayers = 0;
+	// The timer seating computer players in the empty seats
+	private TimerWheel.Timeout computerPlayerTimer;
+
+	/**
+	 * Creates and returns an instance of the GameRoom class.
+	 * 
+	 * @param server
+	 *            the server hosting this room
+	 * @param roomID
+	 *            the id of this room
+	 * @param maxNumOfPlayers
+	 *            the maximum number of players in a card game
+	 */
+	public GameRoom(CardGameServer server, int roomID, int maxNumOfPlayers) {
+		this.server = server;
+		this.roomID = roomID;
+		this.maxNumOfPlayers = maxNumOfPlayers;
+		mailbox = new Mailbox(server.getRoomExecutor());
+		seats = new AtomicReferenceArray<Connection>(maxNumOfPlayers);
+		clientConnections = new Connection[maxNumOfPlayers];
+		clientNames = new String[maxNumOfPlayers];
+		clientReadyStates = new boolean[maxNumOfPlayers];
+		sessionTokens = new String[maxNumOfPlayers];
+		seatTimers = new TimerWheel.Timeout[maxNumOfPlayers];
+		computerPlayers = new boolean[maxNumOfPlayers];
+	}
+
+	/**
+	 * Returns the id of this room.
+	 * 
+	 * @return the id of this room
+	 */
+	public int getRoomID() {
+		return roomID;
+	}
+
+	/**
+	 * Returns the number of players in this room, including the players being
+	 * seated. Can be called from any thread.
+	 * 
+	 * @return the number of players in this room
+	 */
+	public int getNumOfPlayers() {
+		return numOfReservedSeats.get();
+	}
+
+	/**
+	 * Returns whether all seats of this room are taken. Can be called from any
+	 * thread.
+	 * 
+	 * @return true if all seats are taken, false otherwise
+	 */
+	public boolean isFull() {
+		return numOfReservedSeats.get() == maxNumOfPlayers;
+	}
+
+	/**
+	 * Returns the connection to the player at the specified seat. Can be
+	 * called from any thread.
+	 * 
+	 * @param playerID
+	 *            the seat of the player
+	 * @return the connection to the player, or null if the seat is empty
+	 */
+	public Connection getConnection(int playerID) {
+		return seats.get(playerID);
+	}
+
+	/**
+	 * Runs the specified task in the mailbox of this room, after the tasks
+	 * already queued. The state of this room may only be changed by such
+	 * tasks.
+	 * 
+	 * @param task
+	 *            the task to be run
+	 */
+	public void execute(Runnable task) {
+		mailbox.execute(task);
+	}
+
+	/**
+	 * Queues the incoming message from the specified client for parsing in
+	 * the mailbox of this room.
+	 * 
+	 * @param connection
+	 *            the connection to the specified client
+	 * @param message
+	 *            the message received from the specified client
+	 */
+	void parseMessage(Connection connection, CardGameMessage message) {
+		mailbox.execute(() -> {
+			try {
+				handleMessage(connection, message);
+			} finally {
+				connection.messageHandled();
+			}
+		});
+	}
+
+	/**
+	 * Parses the incoming message from the specified client. Runs in the
+	 * mailbox of this room.
+	 * 
+	 * @param connection
+	 *            the connection to the specified client
+	 * @param message
+	 *            the message received from the specified client
+	 */
+	private void handleMessage(Connection connection,
+			CardGameMessage message) {
+		// updates the playerID
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (clientConnections[i] == connection) {
+				message.setPlayerID(i);
+				break;
+			}
+		}
+
+		// parses the message based on it type
+		switch (message.getType()) {
+		case CardGameMessage.JOIN:
+			// adds a player to the game
+			addPlayer(connection, (String) message.getData());
+			break;
+		case CardGameMessage.READY:
+			// marks the specified player as ready for a new game
+			setReadyState(connection);
+			break;
+		case CardGameMessage.MOVE:
+			if (!isSeated(connection, message.getPlayerID())
+					|| !playMove(message.getPlayerID(), message)) {
+				if (server.isLoggable(LogLevel.DEBUG)) {
+					log(LogLevel.DEBUG, "Rejects a \"MOVE\" message from "
+							+ connection.getRemoteAddress());
+				}
+				// returns the rejected move to its sender only, whose client
+				// finds it illegal as well
+				sendMessage(connection, message);
+				break;
+			}
+			if (server.isLoggable(LogLevel.DEBUG)) {
+				log(LogLevel.DEBUG, "Broadcasts a \"MOVE\" message from "
+						+ connection.getRemoteAddress());
+			}
+			break;
+		case CardGameMessage.SNAPSHOT:
+			CardGameMessage snapshot = isSeated(connection, message.getPlayerID())
+					? getSnapshot(message.getPlayerID()) : null;
+			if (snapshot != null) {
+				sendMessage(connection, snapshot);
+			}
+			break;
+		case CardGameMessage.MSG:
+			if (server.isLoggable(LogLevel.DEBUG)) {
+				log(LogLevel.DEBUG, "Broadcasts a user message from "
+						+ connection.getRemoteAddress());
+			}
+			// broadcast the user message to all clients
+			broadcastUserMessage(connection, (String) message.getData());
+			break;
+		default:
+			log(LogLevel.WARN, "Wrong message type: " + message.getType());
+			// invalid message
+			break;
+		}
+	} // parseMessage
+
+	/**
+	 * Checks the specified move and broadcasts it to all clients in this room
+	 * if it is accepted. Legacy clients get the MOVE message, as they only
+	 * understand it. Runs in the mailbox of this room.
+	 * 
+	 * @param playerID
+	 *            the seat of the player who makes the move
+	 * @param message
+	 *            the MOVE message
+	 * @return true if the move has been accepted, false otherwise
+	 */
+	private boolean playMove(int playerID, CardGameMessage message) {
+		CardGameMessage accepted = acceptMove(playerID, message);
+		if (accepted == null) {
+			return false;
+		}
+		broadcastMessage(accepted, message);
+		return true;
+	}
+
+	/**
+	 * Makes the specified move on behalf of the player at the specified seat,
+	 * e.g. when the player has run out of time, as if the player had sent it.
+	 * Runs in the mailbox of this room.
+	 * 
+	 * @param playerID
+	 *            the seat of the player
+	 * @param data
+	 *            the data of the MOVE message
+	 * @return true if the move has been accepted, false otherwise
+	 */
+	protected boolean forceMove(int playerID, Object data) {
+		return playMove(playerID, new CardGameMessage(CardGameMessage.MOVE,
+				playerID, data));
+	}
+
+	/**
+	 * Runs the specified task in the mailbox of this room after the specified
+	 * delay, on the timer wheel of the server.
+	 * 
+	 * @param task
+	 *            the task to be run
+	 * @param delay
+	 *            the number of milliseconds to wait before running the task
+	 * @return the timeout of the task, for cancelling it
+	 */
+	protected TimerWheel.Timeout schedule(Runnable task, long delay) {
+		return server.schedule(() -> mailbox.execute(task), delay);
+	}
+
+	/**
+	 * Returns the server hosting this room.
+	 * 
+	 * @return the server hosting this room
+	 */
+	protected CardGameServer getServer() {
+		return server;
+	}
+
+	/**
+	 * Returns whether the seat of the specified player is taken by a computer
+	 * player, whose moves are to be made by this room with forceMove(). Runs
+	 * in the mailbox of this room.
+	 * 
+	 * @param playerID
+	 *            the seat of the player
+	 * @return true if the player is a computer player, false otherwise
+	 */
+	protected boolean isComputerPlayer(int playerID) {
+		return playerID >= 0 && playerID < maxNumOfPlayers
+				&& computerPlayers[playerID];
+	}
+
+	// returns whether the specified connection is seated at the specified seat
+	private boolean isSeated(Connection connection, int playerID) {
+		return playerID >= 0 && playerID < maxNumOfPlayers
+				&& clientConnections[playerID] == connection;
+	}
+
+	/**
+	 * Checks the specified move and returns the message to be broadcast to
+	 * all clients in this room if it is accepted. Every move is accepted and
+	 * broadcast as it is by default; overrides this method to validate the
+	 * moves of a card game. Runs in the mailbox of this room.
+	 * 
+	 * @param playerID
+	 *            the seat of the player who makes the move
+	 * @param message
+	 *            the MOVE message
+	 * @return the message to be broadcast, or null if the move is rejected
+	 */
+	protected CardGameMessage acceptMove(int playerID, CardGameMessage message) {
+		return message;
+	}
+
+	/**
+	 * Returns a SNAPSHOT message holding the state of the game in this room,
+	 * to be sent to the specified player. There is no snapshot by default.
+	 * Runs in the mailbox of this room.
+	 * 
+	 * @param playerID
+	 *            the seat of the player who asks for the snapshot
+	 * @return the SNAPSHOT message, or null if there is no game to be sent
+	 */
+	protected CardGameMessage getSnapshot(int playerID) {
+		return null;
+	}
+
+	/**
+	 * Called when a new game starts with the specified deck, before the START
+	 * message is broadcast. Runs in the mailbox of this room.
+	 * 
+	 * @param deck
+	 *            the shuffled deck of the new game
+	 */
+	protected void gameStarted(Deck deck) {
+	}
+
+	/**
+	 * Called when the player at the specified seat leaves this room, after the
+	 * seat is freed. Runs in the mailbox of this room.
+	 * 
+	 * @param playerID
+	 *            the seat of the player
+	 */
+	protected void playerLeft(int playerID) {
+	}
+
+	/**
+	 * Sends the specified message to the specified client only.
+	 * 
+	 * @param connection
+	 *            the connection to the client
+	 * @param message
+	 *            the message to be sent
+	 */
+	private void sendMessage(Connection connection, CardGameMessage message) {
+		try {
+			connection.send(message);
+		} catch (Exception ex) {
+			log(LogLevel.WARN, "Error in sending a message to the client at "
+					+ connection.getRemoteAddress() + ": " + ex.getMessage());
+			if (!server.silentMode) ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Broadcasts the specified message to all clients in this room.
+	 * 
+	 * @param message
+	 *            the specified message to be broadcast to all clients in this
+	 *            room
+	 */
+	private void broadcastMessage(CardGameMessage message) {
+		broadcastMessage(message, message);
+	}
+
+	/**
+	 * Broadcasts the specified message to all clients in this room, except
+	 * that legacy clients get the specified legacy message instead.
+	 * 
+	 * @param message
+	 *            the message to be broadcast to the clients sending frames
+	 * @param legacyMessage
+	 *            the message to be broadcast to the legacy clients
+	 */
+	private void broadcastMessage(CardGameMessage message,
+			CardGameMessage legacyMessage) {
+		if (numOfPlayers > 0) {
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientConnections[i] != null) {
+					try {
+						clientConnections[i].send(clientConnections[i].isFramed()
+								? message : legacyMessage);
+					} catch (Exception ex) {
+						log(LogLevel.WARN, "Error in broadcasting a message to the client at "
+								+ clientConnections[i].getRemoteAddress() + ": "
+								+ ex.getMessage());
+						if (!server.silentMode) ex.printStackTrace();
+					}
+				}
+			}
+		}
+	} // broadcastMessage
+
+	/**
+	 * Adds a new connection to this room. The seat is reserved at once; the
+	 * player is seated by the mailbox of this room.
+	 * 
+	 * @param connection
+	 *            the connection to be added to this room
+	 * @return true if the connection has been added, false if this room is
+	 *         full
+	 */
+	boolean addConnection(Connection connection) {
+		// reserves the first empty seat for the new connection
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (seats.get(i) == null && seats.compareAndSet(i, null, connection)) {
+				numOfReservedSeats.incrementAndGet();
+				int seat = i;
+				mailbox.execute(() -> seatPlayer(seat, connection));
+				return true;
+			}
+		} // for
+
+		// Max. no. of players reached
+		return false;
+	} // addConnection
+
+	/**
+	 * Seats the player of a new connection at its reserved seat. Runs in the
+	 * mailbox of this room.
+	 * 
+	 * @param i
+	 *            the seat reserved for the connection
+	 * @param connection
+	 *            the connection to the new player
+	 */
+	private void seatPlayer(int i, Connection connection) {
+		try {
+			clientConnections[i] = connection;
+			clientNames[i] = null;
+			clientReadyStates[i] = false;
+			numOfPlayers++;
+			println("Establishes a connection with a client at "
+					+ connection.getRemoteAddress());
+
+			// sends the player list to the new player; the list is copied
+			// because the message may be encoded after the names change
+			connection.send(new CardGameMessage(
+					CardGameMessage.PLAYER_LIST, i, clientNames.clone()));
+		} catch (Exception ex) {
+			log(LogLevel.WARN, "Error in establishing a connection with a client at "
+					+ connection.getRemoteAddress());
+			if (!server.silentMode) ex.printStackTrace();
+		}
+	} // seatPlayer
+
+	/**
+	 * Removes a connection from this room (possibly due to connection loss),
+	 * once the tasks already queued in the mailbox have run.
+	 * 
+	 * @param connection
+	 *            the connection being removed from this room
+	 */
+	void removeConnection(Connection connection) {
+		mailbox.execute(() -> unseatPlayer(connection));
+	}
+
+	/**
+	 * Removes a connection from this room. The seat of a player with a
+	 * session is held for the reconnect grace period of the server; other
+	 * seats are freed at once. Runs in the mailbox of this room.
+	 * 
+	 * @param connection
+	 *            the connection being removed from this room
+	 */
+	private void unseatPlayer(Connection connection) {
+		if (numOfPlayers > 0) {
+			// locates the client connection in the array
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientConnections[i] == connection) {
+					long gracePeriod = server.getReconnectGracePeriod();
+					if (sessionTokens[i] != null && gracePeriod > 0) {
+						holdSeat(i, connection, gracePeriod);
+					} else {
+						freeSeat(i, connection);
+					}
+					break;
+				}
+			}
+		}
+	} // unseatPlayer
+
+	/**
+	 * Holds the seat of a player who has lost the connection, until the
+	 * player resumes the session or the specified grace period is over. Runs
+	 * in the mailbox of this room.
+	 * 
+	 * @param i
+	 *            the seat of the player
+	 * @param connection
+	 *            the lost connection to the player
+	 * @param gracePeriod
+	 *            the number of milliseconds for which the seat is held
+	 */
+	private void holdSeat(int i, Connection connection, long gracePeriod) {
+		// the seat stays reserved by the lost connection until it is freed
+		clientConnections[i] = null;
+		println(clientNames[i] + " (" + connection.getRemoteAddress()
+				+ ") loses the connection. The seat is held for "
+				+ gracePeriod + " ms.");
+		seatTimers[i] = schedule(() -> {
+			// frees the seat unless the player has resumed the session
+			if (clientConnections[i] == null && seats.get(i) == connection) {
+				seatTimers[i] = null;
+				freeSeat(i, connection);
+			}
+		}, gracePeriod);
+	} // holdSeat
+
+	/**
+	 * Frees the seat of a player who leaves the game. Runs in the mailbox of
+	 * this room.
+	 * 
+	 * @param i
+	 *            the seat of the player
+	 * @param connection
+	 *            the last connection to the player
+	 */
+	private void freeSeat(int i, Connection connection) {
+		String name = clientNames[i];
+		boolean computerPlayer = computerPlayers[i];
+		if (computerPlayer) {
+			computerPlayers[i] = false;
+			numOfComputerPlayers--;
+		}
+
+		clientConnections[i] = null;
+		clientNames[i] = null;
+		clientReadyStates[i] = false;
+		if (sessionTokens[i] != null) {
+			server.closeSession(sessionTokens[i]);
+			sessionTokens[i] = null;
+		}
+		numOfPlayers--;
+		// frees the seat only now, so that a new player is seated
+		// after this one has left
+		seats.set(i, null);
+		numOfReservedSeats.decrementAndGet();
+
+		println(name + " (" + connection.getRemoteAddress()
+				+ ") leaves the game.");
+		playerLeft(i);
+
+		String remoteAddress = connection.getRemoteAddress();
+
+		// broadcasts a message about the leaving of this player
+		broadcastMessage(new CardGameMessage(CardGameMessage.QUIT,
+				i, remoteAddress));
+
+		// the computer players do not stay among themselves
+		if (!computerPlayer && numOfPlayers > 0
+				&& numOfPlayers == numOfComputerPlayers) {
+			for (int j = 0; j < maxNumOfPlayers; j++) {
+				if (computerPlayers[j]) {
+					freeSeat(j, clientConnections[j]);
+				}
+			}
+		}
+	} // freeSeat
+
+	/**
+	 * Gives the seat of the player with the specified session token to the
+	 * specified new connection, once the tasks already queued in the mailbox
+	 * have run.
+	 * 
+	 * @param connection
+	 *            the new connection to the player
+	 * @param token
+	 *            the session token of the player
+	 */
+	void resumeSession(Connection connection, String token) {
+		mailbox.execute(() -> reseatPlayer(connection, token));
+	}
+
+	/**
+	 * Gives the seat of the player with the specified session token to the
+	 * specified new connection, and sends the player list and a snapshot of
+	 * the game in progress to the player. The previous connection is closed
+	 * if the server has not found out yet that it is lost. Runs in the mailbox
+	 * of this room.
+	 * 
+	 * @param connection
+	 *            the new connection to the player
+	 * @param token
+	 *            the session token of the player
+	 */
+	private void reseatPlayer(Connection connection, String token) {
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (token.equals(sessionTokens[i])) {
+				if (clientConnections[i] != null) {
+					clientConnections[i].close();
+				}
+				if (seatTimers[i] != null) {
+					seatTimers[i].cancel();
+					seatTimers[i] = null;
+				}
+				seats.set(i, connection);
+				clientConnections[i] = connection;
+				println(clientNames[i] + " (" + connection.getRemoteAddress()
+						+ ") resumes the game.");
+
+				sendMessage(connection, new CardGameMessage(
+						CardGameMessage.PLAYER_LIST, i, clientNames.clone()));
+				CardGameMessage snapshot = getSnapshot(i);
+				if (snapshot != null) {
+					sendMessage(connection, snapshot);
+				}
+				return;
+			}
+		}
+
+		// the seat has been freed in the meantime
+		server.rejectSession(connection);
+	} // reseatPlayer
+
+	/**
+	 * adds a player to the game.
+	 * 
+	 * @param connection
+	 *            the connection to the player who is joining the game
+	 * @param name
+	 *            the name of the player who is joining the game
+	 */
+	private void addPlayer(Connection connection, String name) {
+		if (numOfPlayers > 0) {
+			// locates the client connection in the array
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientConnections[i] == connection) {
+					// updates the name of the new player
+					clientNames[i] = name;
+
+					println(name + " (" + connection.getRemoteAddress()
+							+ ") joins the game.");
+
+					// broadcasts a message about this player joining the game
+					broadcastMessage(new CardGameMessage(CardGameMessage.JOIN,
+							i, name));
+
+					// opens a session for the player, unless it is a legacy
+					// client which does not know about sessions
+					if (sessionTokens[i] == null && connection.isFramed()) {
+						sessionTokens[i] = server.openSession(this);
+						sendMessage(connection, new CardGameMessage(
+								CardGameMessage.SESSION, i, sessionTokens[i]));
+					}
+					break;
+				}
+			}
+		}
+	} // addPlayer
+
+	/**
+	 * Marks the specified player as ready for a new game.
+	 * 
+	 * @param connection
+	 *            the connection to the player who becomes ready for a new
+	 *            game
+	 */
+	private void setReadyState(Connection connection) {
+		if (numOfPlayers > 0) {
+			// locates the client connection in the array
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientConnections[i] == connection) {
+					clientReadyStates[i] = true;
+					println(clientNames[i] + " ("
+							+ connection.getRemoteAddress()
+							+ " ) is ready for the next game.");
+					broadcastMessage(new CardGameMessage(CardGameMessage.READY,
+							i, null));
+					break;
+				}
+			}
+		}
+
+		startGameIfReady();
+	}
+
+	/**
+	 * Starts a new game if all seats are taken by players who are ready, or
+	 * schedules the seating of computer players in the empty seats if the
+	 * players seated are all ready. Runs in the mailbox of this room.
+	 */
+	private void startGameIfReady() {
+		// checks if all players are ready
+		if (numOfPlayers < maxNumOfPlayers) {
+			long delay = server.getComputerPlayerDelay();
+			if (delay >= 0 && computerPlayerTimer == null
+					&& numOfPlayers > numOfComputerPlayers
+					&& areSeatedPlayersReady()) {
+				computerPlayerTimer = schedule(this::seatComputerPlayers, delay);
+			}
+		} else if (numOfPlayers == maxNumOfPlayers) {
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientReadyStates[i] == false) {
+					// returns if any of the players is not ready
+					return;
+				}
+			}
+
+			// resets the ready states of all the players for the next game,
+			// except those of the computer players, which are always ready
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				clientReadyStates[i] = computerPlayers[i];
+			}
+
+			// creates a new deck, shuffles the deck, and starts a new game
+			Deck deck = server.createDeck();
+			deck.shuffle();
+			println("All players are ready. Game starts.");
+			gameStarted(deck);
+			broadcastMessage(new CardGameMessage(CardGameMessage.START, -1,
+					deck));
+		}
+	} // startGameIfReady
+
+	// returns whether the players seated in this room are all ready
+	private boolean areSeatedPlayersReady() {
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (seats.get(i) != null && !clientReadyStates[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Seats computer players in the empty seats of this room, if the players
+	 * seated are still all ready, and starts a new game. Runs in the mailbox
+	 * of this room.
+	 */
+	private void seatComputerPlayers() {
+		computerPlayerTimer = null;
+		if (numOfPlayers == numOfComputerPlayers || !areSeatedPlayersReady()) {
+			return;
+		}
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (seats.get(i) != null) {
+				continue;
+			}
+			Connection connection = new ComputerConnection();
+			// a new player may take the seat first
+			if (seats.compareAndSet(i, null, connection)) {
+				numOfReservedSeats.incrementAndGet();
+				seatPlayer(i, connection);
+				computerPlayers[i] = true;
+				numOfComputerPlayers++;
+				addPlayer(connection, "Computer " + i);
+				clientReadyStates[i] = true;
+				broadcastMessage(new CardGameMessage(CardGameMessage.READY,
+						i, null));
+			}
+		}
+		startGameIfReady();
+	} // seatComputerPlayers
+
+	private void broadcastUserMessage(Connection connection,
+			String msg) {
+		if (numOfPlayers > 0) {
+			// locates the client in the array
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientConnections[i] == connection) {
+					String longMsg = clientNames[i] + " ("
+							+ connection.getRemoteAddress() + "): "
+							+ msg;
+					broadcastMessage(new CardGameMessage(CardGameMessage.MSG,
+							i, longMsg));
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prints the specified message to the console of the server, tagged with
+	 * the id of this room.
+	 * 
+	 * @param msg
+	 */
+	private void println(String msg) {
+		log(LogLevel.INFO, msg);
+	}
+
+	/**
+	 * Prints the specified message to the log of the server with the
+	 * specified level, tagged with the id of this room.
+	 * 
+	 * @param level
+	 *            the level of the message
+	 * @param msg
+	 *            the message
+	 */
+	protected void log(LogLevel level, String msg) {
+		server.log(level, "[Room " + roomID + "] " + msg);
+	}
+
+	/**
+	 * This class is used to model the connection of a computer player, which
+	 * discards the messages sent to it, as the room makes its moves.
+	 */
+	private static class ComputerConnection implements Connection {
+		public void send(CardGameMessage message) {
+		}
+
+		public void messageHandled() {
+		}
+
+		public void close() {
+		}
+
+		public String getRemoteAddress() {
+			return "computer";
+		}
+
+		public boolean isFramed() {
+			return false;
+		}
+
+		public long getLastReceiveTime() {
+			return System.nanoTime();
+		}
+	}
+}
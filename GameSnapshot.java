@@ -0,0 +1,135 @@
+import java.io.Serializable;
+
+/**
+ * This class is used to model the state of a card game in progress, as sent
+ * by the server in a SNAPSHOT message to a client which has missed a DELTA
+ * message. A snapshot holds the cards of every player, the hand on the table
+ * and the player who plays the next turn, but not the hands played earlier.
+ * 
+ */
+public class GameSnapshot implements Serializable {
+	private static final long serialVersionUID = -2127431868385043090L;
+	// The sequence number of the last delta included in this snapshot
+	private final int seq;
+	// The cards of each player (see CardSet)
+	private final long[] hands;
+	// The cards of the hand on the table (see CardSet)
+	private final long lastHand;
+	// The player who played the hand on the table, or -1 if the table is empty
+	private final int lastHandPlayerID;
+	// The player who plays the next turn
+	private final int currentPlayerID;
+
+	/**
+	 * Creates and returns an instance of the GameSnapshot class.
+	 * 
+	 * @param seq
+	 *            the sequence number of the last delta included in this
+	 *            snapshot
+	 * @param hands
+	 *            the cards of each player (see CardSet)
+	 * @param lastHand
+	 *            the cards of the hand on the table (see CardSet)
+	 * @param lastHandPlayerID
+	 *            the player who played the hand on the table, or -1 if the
+	 *            table is empty
+	 * @param currentPlayerID
+	 *            the player who plays the next turn
+	 */
+	public GameSnapshot(int seq, long[] hands, long lastHand,
+			int lastHandPlayerID, int currentPlayerID) {
+		this.seq = seq;
+		this.hands = hands;
+		this.lastHand = lastHand;
+		this.lastHandPlayerID = lastHandPlayerID;
+		this.currentPlayerID = currentPlayerID;
+	}
+
+	/**
+	 * Creates and returns a snapshot of the game held by the specified engine.
+	 * 
+	 * @param seq
+	 *            the sequence number of the last delta applied to the engine
+	 * @param engine
+	 *            the engine holding the state of the game
+	 * @return a snapshot of the game
+	 */
+	public static GameSnapshot of(int seq, BigTwoEngine engine) {
+		long[] hands = new long[engine.getNumOfPlayers()];
+		for (int i = 0; i < hands.length; i++) {
+			hands[i] = engine.getPlayerList().get(i).getCardSet();
+		}
+		Hand lastHand = engine.getLastHand();
+		return new GameSnapshot(seq, hands,
+				lastHand != null ? lastHand.getCardSet() : CardSet.EMPTY,
+				lastHand != null ? engine.getPlayerList().indexOf(lastHand.getPlayer()) : -1,
+				engine.getCurrentPlayerIdx());
+	}
+
+	/**
+	 * Restores the game held by the specified engine from this snapshot.
+	 * 
+	 * @param engine
+	 *            the engine holding the state of the game
+	 */
+	public void applyTo(BigTwoEngine engine) {
+		engine.restore(hands, lastHand, lastHandPlayerID, currentPlayerID);
+	}
+
+	/**
+	 * Returns the sequence number of the last delta included in this
+	 * snapshot.
+	 * 
+	 * @return the sequence number of the last delta
+	 */
+	public int getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Returns the cards of the specified player.
+	 * 
+	 * @param playerID
+	 *            the playerID of the player
+	 * @return the cards of the player (see CardSet)
+	 */
+	public long getHand(int playerID) {
+		return hands[playerID];
+	}
+
+	/**
+	 * Returns the number of players in the game.
+	 * 
+	 * @return the number of players
+	 */
+	public int getNumOfPlayers() {
+		return hands.length;
+	}
+
+	/**
+	 * Returns the cards of the hand on the table.
+	 * 
+	 * @return the cards of the hand on the table (see CardSet)
+	 */
+	public long getLastHand() {
+		return lastHand;
+	}
+
+	/**
+	 * Returns the player who played the hand on the table.
+	 * 
+	 * @return the playerID of the player, or -1 if the table is empty
+	 */
+	public int getLastHandPlayerID() {
+		return lastHandPlayerID;
+	}
+
+	/**
+	 * Returns the player who plays the next turn.
+	 * 
+	 * @return the playerID of the player who plays the next turn
+	 */
+	public int getCurrentPlayerID() {
+		return currentPlayerID;
+	}
+}
@@ -0,0 +1,57 @@
+import java.util.Random;
+
+/**
+ * The GreedyStrategy class implements the BigTwoStrategy interface with a simple computer player. When
+ * leading, it plays the largest hand containing its lowest card; otherwise it plays the weakest legal
+ * hand that beats the hand on the table, passing when it has none.
+ */
+
+public class GreedyStrategy implements BigTwoStrategy {
+    private final MoveList moves = new MoveList(); // reused for every move
+
+    /**
+     * a method for choosing the move of the specified player.
+     *
+     * @param engine the engine holding the current state of the game
+     * @param playerIdx the index of the player whose turn it is
+     * @param random not used by this strategy
+     * @return the set of cards to be played, or CardSet.EMPTY for a pass
+     */
+    public long chooseMove(BigTwoEngine engine, int playerIdx, Random random){
+        CardGamePlayer player = engine.getPlayerList().get(playerIdx);
+        Hand lastHand = engine.getLastHand();
+        boolean leading = lastHand == null || lastHand.getPlayer() == player;
+        engine.getLegalMoves(playerIdx, moves);
+        return choose(player.getCardSet(), leading, moves);
+    }
+
+    /**
+     * a method for choosing the move of a player among its legal moves, without an engine, e.g. for the
+     * players of a simulated game.
+     *
+     * @param cards the set of cards held by the player
+     * @param leading whether the player is leading, i.e. the table is empty or holds its own hand
+     * @param moves the legal moves of the player
+     * @return the set of cards to be played, or CardSet.EMPTY for a pass
+     */
+    static long choose(long cards, boolean leading, MoveList moves){
+        long lowestCard = HandClassifier.fromBigTwoOrder(Long.lowestOneBit(HandClassifier.toBigTwoOrder(cards)));
+        long best = CardSet.EMPTY;
+        int bestSize = 0;
+        int bestClassification = Integer.MAX_VALUE;
+        for (int i = 0; i < moves.size(); i++){
+            long move = moves.get(i);
+            if (move == CardSet.EMPTY || (leading && (move & lowestCard) == 0)){
+                continue;
+            }
+            int size = leading ? CardSet.size(move) : 0;
+            int classification = HandClassifier.classify(move);
+            if (size > bestSize || (size == bestSize && classification < bestClassification)){
+                best = move;
+                bestSize = size;
+                bestClassification = classification;
+            }
+        }
+        return best;
+    }
+}
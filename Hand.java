@@ -9,6 +9,9 @@
 
 public abstract class Hand extends CardList{
     private CardGamePlayer player; // a private instance variable for storing the player who plays this hand
+    private long cachedCardSet = CardSet.EMPTY; // the set of cards the cached values below were computed for
+    private int classification = HandClassifier.INVALID; // the cached classification, INVALID if not a valid hand
+    private Card topCard = null; // the cached top card
 
     /**
      * a constructor for building a hand with the specified player and list of cards
@@ -41,33 +44,116 @@ public abstract class Hand extends CardList{
      * @return the top card of this hand.
      */
     public Card getTopCard(){
-        Card topCard = this.getCard(0);
-        for (int i = 1; i < this.size(); i++){
-            if (this.getCard(i).compareTo(topCard) > 0){
-                topCard = this.getCard(i);
-            }
+        this.refresh();
+        return this.topCard;
+    }
+
+    /**
+     * a method for retrieving the ranks present in a set of cards as a 13-bit mask in Big Two order, i.e. bit 0
+     * stands for '3' and bit 12 stands for '2'.
+     *
+     * @param cardSet the set of cards (see CardSet)
+     * @return the mask of ranks present in the set of cards in Big Two order
+     */
+    protected static int bigTwoRankMask(long cardSet){
+        int rankMask = CardSet.rankMask(cardSet);
+        return (rankMask >>> 2) | ((rankMask & 3) << 11);
+    }
+
+    /**
+     * a method for checking if a set of cards holds five cards of consecutive ranks in Big Two order.
+     *
+     * @param cardSet the set of cards (see CardSet)
+     * @return whether the set of cards forms a straight or not
+     */
+    protected static boolean isStraight(long cardSet){
+        if (CardSet.size(cardSet) != 5){
+            return false;
         }
-        //single, pair, triple, quad, straight, flush, straight flush
-        //fullhouse, flush to be over
-        return topCard;
+        int rankMask = bigTwoRankMask(cardSet);
+        return (rankMask >>> Integer.numberOfTrailingZeros(rankMask)) == 0x1F;
+    }
+
+    /**
+     * a method for checking if a set of cards holds five cards of the same suit.
+     *
+     * @param cardSet the set of cards (see CardSet)
+     * @return whether the set of cards forms a flush or not
+     */
+    protected static boolean isFlush(long cardSet){
+        return CardSet.size(cardSet) == 5 && Integer.bitCount(CardSet.suitMask(cardSet)) == 1;
+    }
+
+    /**
+     * a method for retrieving the strength key of this hand. A hand beats another hand of the same type
+     * if and only if its strength key is larger (see HandClassifier).
+     *
+     * @return the strength key of this hand
+     */
+    public int getStrengthKey(){
+        return HandClassifier.strengthKey(this.getClassification());
+    }
+
+    /**
+     * a method for retrieving the type and strength key of this hand packed as by HandClassifier.classify().
+     * It is computed once and cached until the cards of this hand change.
+     *
+     * @return the classification of this hand, or HandClassifier.INVALID if this is not a valid hand
+     */
+    public int getClassification(){
+        this.refresh();
+        return this.classification;
     }
 
     /**
-     * a method for checking if this hand beats a specified hand. Would be overridden by each subclass case-by-case
+     * a method for checking if this hand beats a specified hand. Hands of different types are ordered
+     * by the HandType ordinal, which is only meaningful between five-card hands, and hands of the same
+     * type by their strength keys.
      *
      * @param hand the hand the player is going to play
      * @return whether this hand beats a specified hand or not
      */
     public boolean beats(Hand hand){
-        return false;
+        if (hand == null){
+            return false;
+        }
+        return HandClassifier.beats(this.getClassification(), hand.getClassification());
+    }
+
+    // recomputes the cached classification and top card if the cards of this hand have changed
+    private void refresh(){
+        long cardSet = this.getCardSet();
+        if (cardSet == this.cachedCardSet){
+            return;
+        }
+
+        this.classification = this.isValid() ? HandClassifier.classify(this.getHandType(), cardSet) : HandClassifier.INVALID;
+        this.topCard = null;
+        int topCardIndex = HandClassifier.topCardIndex(cardSet);
+        for (int i = 0; i < this.size(); i++){
+            if (CardSet.indexOf(this.getCard(i)) == topCardIndex){
+                this.topCard = this.getCard(i);
+                break;
+            }
+        }
+        this.cachedCardSet = cardSet;
+    }
+
+    /**
+     * a method for returning a string specifying the type of this hand.
+     *
+     * @return the name of the type of this hand
+     */
+    public String getType(){
+        return this.getHandType().getName();
     }
 
     /**
-     * a method for checking if this is a valid hand. Would be implemented by each subclass
+     * a method for retrieving the type of this hand. Would be implemented by each subclass
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public abstract String getType();
+    public abstract HandType getHandType();
 
     /**
      * a method for returning a string specifying the type of this hand. would be implemented by each subclass
@@ -0,0 +1,263 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * The HandBenchmarks class is a suite of benchmarks (see BenchmarkRunner) for the hot path of hand
+ * evaluation: composing a hand, checking and comparing hands of every type, and the card, list, deck and
+ * player operations a game is made of. The inputs are drawn from random 13-card hands dealt from a
+ * shuffled deck with a fixed seed, so that two runs measure the same work.
+ */
+
+public class HandBenchmarks {
+    private static final int POOL_SIZE = 1024; // the number of inputs of a benchmark, a power of two
+    private static final int MASK = POOL_SIZE - 1;
+
+    private final Random random; // the random number generator preparing the inputs
+    private final CardGamePlayer player = new CardGamePlayer(); // the player of every hand
+    private final CardList[] deals = new CardList[POOL_SIZE]; // random 13-card hands, as dealt
+    // the legal hands found in the deals, indexed by the ordinal of their type
+    private final ArrayList<ArrayList<CardList>> handsByType = new ArrayList<>();
+
+    /**
+     * a constructor for preparing the inputs of the benchmarks.
+     *
+     * @param seed the seed of the random number generator dealing the hands
+     */
+    public HandBenchmarks(long seed){
+        this.random = new Random(seed);
+        for (int i = 0; i < HandType.values().length; i++){
+            handsByType.add(new ArrayList<>());
+        }
+
+        // deals until every type of hand has been found often enough, as straight flushes are rare
+        Deck deck = new BigTwoDeck();
+        MoveList moves = new MoveList();
+        for (int d = 0; d * 4 < POOL_SIZE || !allTypesFound(); d++){
+            deck.shuffle(random);
+            for (int p = 0; p < 4; p++){
+                CardList deal = new CardList();
+                for (int c = 0; c < 13; c++){
+                    deal.addCard(deck.getCard(p * 13 + c));
+                }
+                if (d * 4 + p < POOL_SIZE){
+                    deals[d * 4 + p] = deal;
+                }
+                MoveGenerator.generate(deal.getCardSet(), HandClassifier.INVALID, moves);
+                for (int m = 0; m < moves.size(); m++){
+                    HandType type = HandClassifier.type(HandClassifier.classify(moves.get(m)));
+                    ArrayList<CardList> hands = handsByType.get(type.ordinal());
+                    if (hands.size() < POOL_SIZE && random.nextInt(8) == 0){
+                        hands.add(cardsOf(deal, moves.get(m)));
+                    }
+                }
+            }
+        }
+        for (ArrayList<CardList> hands : handsByType){
+            Collections.shuffle(hands, random);
+        }
+    }
+
+    /**
+     * a method for adding the benchmarks of this suite to a runner.
+     *
+     * @param runner the runner to which the benchmarks are added
+     */
+    public void addTo(BenchmarkRunner runner){
+        // composing hands from the selections of a player, most of which are not valid hands
+        for (int size = 1; size <= 5; size++){
+            CardList[] selections = new CardList[POOL_SIZE];
+            for (int i = 0; i < POOL_SIZE; i++){
+                selections[i] = randomSelection(deals[i], size);
+            }
+            runner.add("BigTwo.composeHand " + size + " cards", i -> classificationOf(BigTwo.composeHand(player, selections[i & MASK])));
+        }
+        CardList[] fiveCardHands = fiveCardHands();
+        runner.add("BigTwo.composeHand valid 5 cards", i -> classificationOf(BigTwo.composeHand(player, fiveCardHands[i & MASK])));
+
+        // checking the legal hands of the size of each type, whatever their type
+        for (HandType type : HandType.values()){
+            Hand[] hands = new Hand[POOL_SIZE];
+            CardList[] candidates = type.isFiveCard() ? fiveCardHands : toArray(handsByType.get(type.ordinal()));
+            for (int i = 0; i < POOL_SIZE; i++){
+                hands[i] = newHand(type, candidates[i % candidates.length]);
+            }
+            runner.add(hands[0].getClass().getName() + ".isValid", i -> hands[i & MASK].isValid() ? 1 : 0);
+        }
+
+        // comparing valid hands of each type with one another; the classifications are cached by the hands
+        for (HandType type : HandType.values()){
+            CardList[] cards = toArray(handsByType.get(type.ordinal()));
+            Hand[] hands = new Hand[POOL_SIZE];
+            Hand[] others = new Hand[POOL_SIZE];
+            for (int i = 0; i < POOL_SIZE; i++){
+                hands[i] = newHand(type, cards[i % cards.length]);
+                others[i] = newHand(type, cards[random.nextInt(cards.length)]);
+            }
+            runner.add(hands[0].getClass().getName() + ".beats", i -> hands[i & MASK].beats(others[i & MASK]) ? 1 : 0);
+        }
+
+        Hand[] topCardHands = new Hand[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++){
+            topCardHands[i] = BigTwo.composeHand(player, fiveCardHands[i]);
+        }
+        runner.add("Hand.getTopCard", i -> topCardHands[i & MASK].getTopCard().getIndex());
+        runner.add("Hand.getTopCard new hand", i -> BigTwo.composeHand(player, fiveCardHands[i & MASK]).getTopCard().getIndex());
+
+        Card[] cards = new Card[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++){
+            cards[i] = BigTwoCard.valueOf(random.nextInt(52));
+        }
+        runner.add("BigTwoCard.compareTo", i -> cards[i & MASK].compareTo(cards[(i + 1) & MASK]));
+
+        // sorting needs an unsorted list every time, so the copy is measured on its own as well
+        runner.add("CardList copy 13 cards", i -> copyOf(deals[i & MASK]).size());
+        runner.add("CardList.sort 13 cards", i -> {
+            CardList list = copyOf(deals[i & MASK]);
+            list.sort();
+            return list.getCard(0).getIndex();
+        });
+
+        Deck deck = new BigTwoDeck();
+        Random shuffleRandom = new Random(random.nextLong());
+        runner.add("Deck.shuffle", i -> {
+            deck.shuffle();
+            return deck.getCard(0).getIndex();
+        });
+        runner.add("Deck.shuffle(Random)", i -> {
+            deck.shuffle(shuffleRandom);
+            return deck.getCard(0).getIndex();
+        });
+
+        // removing a legal hand from a 13-card hand, then giving the cards back for the next invocation
+        CardGamePlayer[] players = new CardGamePlayer[POOL_SIZE];
+        CardList[] played = new CardList[POOL_SIZE];
+        MoveList moves = new MoveList();
+        for (int i = 0; i < POOL_SIZE; i++){
+            players[i] = new CardGamePlayer();
+            for (int c = 0; c < deals[i].size(); c++){
+                players[i].addCard(deals[i].getCard(c));
+            }
+            players[i].sortCardsInHand();
+            MoveGenerator.generate(deals[i].getCardSet(), HandClassifier.INVALID, moves);
+            played[i] = cardsOf(deals[i], moves.get(random.nextInt(moves.size())));
+        }
+        runner.add("CardGamePlayer.removeCards", i -> {
+            CardGamePlayer p = players[i & MASK];
+            p.removeCards(played[i & MASK]);
+            return addCards(p, played[i & MASK]);
+        });
+    }
+
+    // returns true if enough hands of every type have been found
+    private boolean allTypesFound(){
+        for (ArrayList<CardList> hands : handsByType){
+            if (hands.size() < POOL_SIZE / 8){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // returns the legal five-card hands of all types, in proportion to how often they occur
+    private CardList[] fiveCardHands(){
+        ArrayList<CardList> hands = new ArrayList<>();
+        for (HandType type : HandType.values()){
+            if (type.isFiveCard()){
+                hands.addAll(handsByType.get(type.ordinal()));
+            }
+        }
+        Collections.shuffle(hands, random);
+        return toArray(hands);
+    }
+
+    // returns the specified number of cards picked at random from the specified deal
+    private CardList randomSelection(CardList deal, int size){
+        ArrayList<Card> cards = new ArrayList<>();
+        for (int i = 0; i < deal.size(); i++){
+            cards.add(deal.getCard(i));
+        }
+        Collections.shuffle(cards, random);
+        CardList selection = new CardList();
+        for (int i = 0; i < size; i++){
+            selection.addCard(cards.get(i));
+        }
+        selection.sort();
+        return selection;
+    }
+
+    // returns the cards of the specified set in the order they have in the specified deal
+    private static CardList cardsOf(CardList deal, long cardSet){
+        CardList cards = new CardList();
+        for (int i = 0; i < deal.size(); i++){
+            if (CardSet.contains(cardSet, deal.getCard(i))){
+                cards.addCard(deal.getCard(i));
+            }
+        }
+        return cards;
+    }
+
+    private static CardList copyOf(CardList cards){
+        CardList copy = new CardList();
+        for (int i = 0; i < cards.size(); i++){
+            copy.addCard(cards.getCard(i));
+        }
+        return copy;
+    }
+
+    private static long addCards(CardGamePlayer player, CardList cards){
+        for (int i = 0; i < cards.size(); i++){
+            player.addCard(cards.getCard(i));
+        }
+        return player.getNumOfCards();
+    }
+
+    private static CardList[] toArray(ArrayList<CardList> hands){
+        return hands.toArray(new CardList[0]);
+    }
+
+    private static long classificationOf(Hand hand){
+        return hand == null ? HandClassifier.INVALID : hand.getClassification();
+    }
+
+    // creates a hand of the class of the specified type, whether or not the cards form such a hand
+    private Hand newHand(HandType type, CardList cards){
+        BiFunction<CardGamePlayer, CardList, Hand> constructor;
+        switch (type){
+            case SINGLE: constructor = Single::new; break;
+            case PAIR: constructor = Pair::new; break;
+            case TRIPLE: constructor = Triple::new; break;
+            case STRAIGHT: constructor = Straight::new; break;
+            case FLUSH: constructor = Flush::new; break;
+            case FULL_HOUSE: constructor = FullHouse::new; break;
+            case QUAD: constructor = Quad::new; break;
+            default: constructor = StraightFlush::new;
+        }
+        return constructor.apply(player, cards);
+    }
+
+    /**
+     * a method for running the benchmarks from the command line. The process exits with status 1 if a
+     * benchmark is worse than its baseline.
+     *
+     * @param args the options of the runner (see BenchmarkRunner.fromCommandLine()), and "seed N" for the
+     *             seed of the inputs (default 0)
+     */
+    public static void main(String[] args) throws Exception{
+        long seed = 0;
+        ArrayList<String> options = new ArrayList<>();
+        for (int i = 0; i < args.length; i++){
+            if (args[i].equals("seed") && i + 1 < args.length){
+                seed = Long.parseLong(args[++i]);
+            }
+            else{
+                options.add(args[i]);
+            }
+        }
+
+        BenchmarkRunner runner = BenchmarkRunner.fromCommandLine(options.toArray(new String[0]));
+        new HandBenchmarks(seed).addTo(runner);
+        System.exit(runner.run() ? 0 : 1);
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * The HandClassifier class is used to classify a set of cards (see CardSet) into a Big Two hand in a
+ * single pass. It returns the type of the hand together with a strength key, packed into one int
+ * value, so that hands can be classified and compared without building any Hand objects.
+ *
+ * Within a type a larger strength key means a stronger hand. For five-card hands the packed value
+ * itself is ordered, i.e. a five-card hand beats another five-card hand if and only if its packed value
+ * is larger.
+ */
+
+public final class HandClassifier {
+    /** the value returned by classify() for a set of cards that does not form a valid hand */
+    public static final int INVALID = 0;
+
+    private static final int KEY_BITS = 16; // the number of low bits holding the strength key
+    private static final int KEY_MASK = (1 << KEY_BITS) - 1;
+    private static final int FIVE_CARD_CATEGORY = HandType.STRAIGHT.ordinal() + 1; // the lowest five-card category
+    private static final HandType[] TYPES = HandType.values();
+
+    // STRAIGHTS[m] is true if the 13-bit rank mask m (in Big Two order) holds five consecutive ranks
+    private static final boolean[] STRAIGHTS = new boolean[1 << 13];
+
+    static {
+        for (int low = 0; low + 5 <= 13; low++){
+            STRAIGHTS[0x1F << low] = true;
+        }
+    }
+
+    private HandClassifier(){
+    }
+
+    /**
+     * a method for rearranging a set of cards into Big Two order, i.e. the card at bit position
+     * (bigTwoRank * 4 + suit) where bigTwoRank is 0 for '3' and 12 for '2'. In this order the top
+     * card of a set of cards is simply its highest bit.
+     *
+     * @param cardSet the set of cards (see CardSet)
+     * @return the same cards in Big Two order
+     */
+    public static long toBigTwoOrder(long cardSet){
+        // 'A' and '2' occupy the two lowest nibbles and move above 'K'
+        return (cardSet >>> 8) | ((cardSet & 0xFFL) << 44);
+    }
+
+    /**
+     * a method for rearranging a set of cards in Big Two order (see toBigTwoOrder()) back into the
+     * order used by CardSet.
+     *
+     * @param ordered the set of cards in Big Two order
+     * @return the same cards in CardSet order
+     */
+    public static long fromBigTwoOrder(long ordered){
+        return ((ordered << 8) | (ordered >>> 44)) & CardSet.ALL;
+    }
+
+    /**
+     * a method for classifying a set of cards.
+     *
+     * @param cardSet the set of cards (see CardSet)
+     * @return the type and strength key packed into an int value, or INVALID if the cards do not
+     * form a valid hand
+     */
+    public static int classify(long cardSet){
+        long ordered = toBigTwoOrder(cardSet);
+        int topCard = 63 - Long.numberOfLeadingZeros(ordered);
+
+        switch (Long.bitCount(ordered)){
+            case 1:
+                return pack(HandType.SINGLE, topCard);
+            case 2:
+                return CardSet.rankCount(ordered, topCard >>> 2) == 2 ? pack(HandType.PAIR, topCard) : INVALID;
+            case 3:
+                return CardSet.rankCount(ordered, topCard >>> 2) == 3 ? pack(HandType.TRIPLE, topCard) : INVALID;
+            case 5:
+                return classifyFive(ordered, topCard);
+            default:
+                return INVALID;
+        }
+    }
+
+    /**
+     * a method for classifying a list of cards. The list must not hold the same card twice.
+     *
+     * @param cards the list of cards
+     * @return the type and strength key packed into an int value, or INVALID if the cards do not
+     * form a valid hand
+     */
+    public static int classify(CardList cards){
+        long cardSet = cards.getCardSet();
+        if (Long.bitCount(cardSet) != cards.size()){
+            return INVALID;
+        }
+        return classify(cardSet);
+    }
+
+    /**
+     * a method for classifying a set of cards played as a hand of the specified type. The cards are
+     * assumed to form a valid hand of that type.
+     *
+     * @param type the type of the hand
+     * @param cardSet the set of cards (see CardSet)
+     * @return the type and strength key packed into an int value
+     */
+    public static int classify(HandType type, long cardSet){
+        return pack(type, strengthKey(type, cardSet));
+    }
+
+    /**
+     * a method for finding the top card of a set of cards in Big Two order.
+     *
+     * @param cardSet the set of cards (see CardSet)
+     * @return the bit position (see CardSet) of the top card, or -1 if the set is empty
+     */
+    public static int topCardIndex(long cardSet){
+        if (cardSet == CardSet.EMPTY){
+            return -1;
+        }
+        int topCard = 63 - Long.numberOfLeadingZeros(toBigTwoOrder(cardSet));
+        // undoes the rotation done by toBigTwoOrder()
+        return topCard >= 44 ? topCard - 44 : topCard + 8;
+    }
+
+    /**
+     * a method for retrieving the type from a value returned by classify().
+     *
+     * @param classification a value returned by classify()
+     * @return the type of the hand, or null if the value is INVALID
+     */
+    public static HandType type(int classification){
+        int category = classification >>> KEY_BITS;
+        return category == 0 ? null : TYPES[category - 1];
+    }
+
+    /**
+     * a method for retrieving the strength key from a value returned by classify().
+     *
+     * @param classification a value returned by classify()
+     * @return the strength key of the hand
+     */
+    public static int strengthKey(int classification){
+        return classification & KEY_MASK;
+    }
+
+    /**
+     * a method for computing the strength key of a set of cards played as a hand of the specified
+     * type. The cards are assumed to form a valid hand of that type.
+     *
+     * @param type the type of the hand
+     * @param cardSet the set of cards (see CardSet)
+     * @return the strength key of the hand
+     */
+    public static int strengthKey(HandType type, long cardSet){
+        long ordered = toBigTwoOrder(cardSet);
+        int topCard = 63 - Long.numberOfLeadingZeros(ordered);
+
+        switch (type){
+            case FLUSH:
+                // a flush is compared by its suit first and then by its top card
+                return ((topCard & 3) << 6) | topCard;
+            case FULL_HOUSE:
+                return rankOfCount(ordered, 3);
+            case QUAD:
+                return rankOfCount(ordered, 4);
+            default:
+                return topCard;
+        }
+    }
+
+    /**
+     * a method for checking if the hand classified as a beats the hand classified as b under the Big
+     * Two rules.
+     *
+     * @param a a value returned by classify()
+     * @param b a value returned by classify()
+     * @return whether a beats b or not
+     */
+    public static boolean beats(int a, int b){
+        int categoryA = a >>> KEY_BITS;
+        int categoryB = b >>> KEY_BITS;
+        if (categoryA == 0 || categoryB == 0){
+            return false;
+        }
+        // hands of different types are only comparable if both are five-card hands
+        return (categoryA == categoryB || (categoryA >= FIVE_CARD_CATEGORY && categoryB >= FIVE_CARD_CATEGORY)) && a > b;
+    }
+
+    // classifies five distinct cards given in Big Two order
+    private static int classifyFive(long ordered, int topCard){
+        int rankMask = CardSet.rankMask(ordered);
+        int distinctRanks = Integer.bitCount(rankMask);
+
+        if (distinctRanks == 5){
+            boolean straight = STRAIGHTS[rankMask];
+            if (Integer.bitCount(CardSet.suitMask(ordered)) == 1){
+                if (straight){
+                    return pack(HandType.STRAIGHT_FLUSH, topCard);
+                }
+                return pack(HandType.FLUSH, ((topCard & 3) << 6) | topCard);
+            }
+            return straight ? pack(HandType.STRAIGHT, topCard) : INVALID;
+        }
+
+        if (distinctRanks == 2){
+            int topRank = topCard >>> 2;
+            int lowRank = Integer.numberOfTrailingZeros(rankMask);
+            switch (CardSet.rankCount(ordered, topRank)){
+                case 4:
+                    return pack(HandType.QUAD, topRank);
+                case 1:
+                    return pack(HandType.QUAD, lowRank);
+                case 3:
+                    return pack(HandType.FULL_HOUSE, topRank);
+                default:
+                    return pack(HandType.FULL_HOUSE, lowRank);
+            }
+        }
+
+        return INVALID;
+    }
+
+    // returns the Big Two rank holding at least the specified number of cards, or 0 if there is none
+    private static int rankOfCount(long ordered, int count){
+        for (int rankMask = CardSet.rankMask(ordered); rankMask != 0; rankMask &= rankMask - 1){
+            int rank = Integer.numberOfTrailingZeros(rankMask);
+            if (CardSet.rankCount(ordered, rank) >= count){
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * a method for packing a type and a strength key into a value as returned by classify().
+     *
+     * @param type the type of the hand
+     * @param strengthKey the strength key of the hand
+     * @return the type and strength key packed into an int value
+     */
+    public static int pack(HandType type, int strengthKey){
+        return ((type.ordinal() + 1) << KEY_BITS) | strengthKey;
+    }
+}
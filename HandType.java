@@ -0,0 +1,72 @@
+/**
+ * The HandType enum lists the types of hands in a Big Two card game. The five-card types are declared
+ * from the weakest to the strongest, so that a five-card hand of a type with a larger ordinal always
+ * beats a five-card hand of a type with a smaller ordinal. Hands of one, two or three cards can only be
+ * compared with hands of the same type.
+ */
+
+public enum HandType {
+    SINGLE("Single", 1),
+    PAIR("Pair", 2),
+    TRIPLE("Triple", 3),
+    STRAIGHT("Straight", 5),
+    FLUSH("Flush", 5),
+    FULL_HOUSE("FullHouse", 5),
+    QUAD("Quad", 5),
+    STRAIGHT_FLUSH("StraightFlush", 5);
+
+    private final String name; // the name of this type as returned by Hand.getType()
+    private final int size; // the number of cards in a hand of this type
+
+    HandType(String name, int size){
+        this.name = name;
+        this.size = size;
+    }
+
+    /**
+     * a method for retrieving the name of this type, e.g. "FullHouse".
+     *
+     * @return the name of this type
+     */
+    public String getName(){
+        return this.name;
+    }
+
+    /**
+     * a method for retrieving the number of cards in a hand of this type.
+     *
+     * @return the number of cards in a hand of this type
+     */
+    public int getSize(){
+        return this.size;
+    }
+
+    /**
+     * a method for checking if this is one of the five-card types.
+     *
+     * @return whether this is a five-card type or not
+     */
+    public boolean isFiveCard(){
+        return this.size == 5;
+    }
+
+    /**
+     * a method for checking if a hand of this type can be compared with a hand of the specified type
+     * under the Big Two rules.
+     *
+     * @param type the other type
+     * @return whether the two types can be compared or not
+     */
+    public boolean isComparableTo(HandType type){
+        return this == type || (this.isFiveCard() && type.isFiveCard());
+    }
+
+    /**
+     * a method for returning the name of this type.
+     *
+     * @return the name of this type
+     */
+    public String toString(){
+        return this.name;
+    }
+}
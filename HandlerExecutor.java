@@ -0,0 +1,128 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is used to run the blocking per-connection tasks of a card game
+ * server or client (message readers, the FULL responder) with a bounded number
+ * of concurrent tasks. The tasks run on virtual threads when the Java runtime
+ * supports them (Java 21 or later); otherwise they run on pooled daemon
+ * threads with a small stack, which are reused once their task has finished.
+ * <p>
+ * A task submitted when the maximum number of tasks are running is rejected
+ * with a RejectedExecutionException instead of creating yet another thread.
+ * 
+ */
+public class HandlerExecutor implements Executor {
+	// stack size of the pooled platform threads
+	private static final long STACK_SIZE = 256 * 1024;
+	// seconds after which an idle pooled thread ends
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private final ExecutorService executor; // the executor running the tasks
+	private final Semaphore permits; // one permit per task that may run
+	private final int maxTasks; // the maximum number of concurrent tasks
+	private final boolean virtual; // whether the tasks run on virtual threads
+
+	/**
+	 * Creates and returns an instance of the HandlerExecutor class.
+	 * 
+	 * @param name
+	 *            the prefix of the names of the threads
+	 * @param maxTasks
+	 *            the maximum number of tasks running at the same time
+	 * @param useVirtualThreads
+	 *            whether to use virtual threads if the runtime supports them
+	 */
+	public HandlerExecutor(String name, int maxTasks, boolean useVirtualThreads) {
+		this.maxTasks = maxTasks;
+		this.permits = new Semaphore(maxTasks);
+		ExecutorService virtualExecutor = useVirtualThreads ? newVirtualThreadExecutor() : null;
+		this.virtual = virtualExecutor != null;
+		if (virtual) {
+			executor = virtualExecutor;
+		} else {
+			ThreadFactory factory = new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable task) {
+					Thread t = new Thread(null, task, name + "-" + count.incrementAndGet(), STACK_SIZE);
+					t.setDaemon(true);
+					return t;
+				}
+			};
+			executor = new ThreadPoolExecutor(0, maxTasks, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new SynchronousQueue<Runnable>(), factory);
+		}
+	}
+
+	/**
+	 * Runs the specified task on a thread of this executor.
+	 * 
+	 * @param task
+	 *            the task to be run
+	 * @throws RejectedExecutionException
+	 *             if the maximum number of tasks are already running
+	 */
+	public void execute(Runnable task) {
+		if (!permits.tryAcquire()) {
+			throw new RejectedExecutionException("More than " + maxTasks + " tasks running");
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns the number of tasks currently running.
+	 * 
+	 * @return the number of tasks currently running
+	 */
+	public int getActiveCount() {
+		return maxTasks - permits.availablePermits();
+	}
+
+	/**
+	 * Returns whether the tasks run on virtual threads.
+	 * 
+	 * @return true if the tasks run on virtual threads, false if they run on
+	 *         pooled platform threads
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Stops accepting tasks. Running tasks are not interrupted.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	// returns an executor starting a virtual thread per task, or null if the
+	// runtime has no virtual threads; looked up reflectively so that this
+	// class still compiles for older runtimes
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ * The LoadTestStats class is used to accumulate the measurements of the simulated clients of a
+ * BigTwoLoadTest: the round-trip times of their moves, kept in a log-linear histogram, and the numbers
+ * of messages, games and resynchronizations. Each event loop of the clients fills its own instance and
+ * the instances are merged by the thread writing the reports.
+ */
+
+public class LoadTestStats {
+    private static final int SUB_BUCKET_BITS = 5; // each power of two is cut into 2^5 buckets (about 3% apart)
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] latencyCounts = new long[NUM_OF_BUCKETS]; // the number of moves per bucket of round-trip time
+    private long maxLatency; // the longest round-trip time in microseconds
+    private long numOfMoves; // the number of moves accepted by the server
+    private long numOfRejectedMoves; // the number of moves sent back by the server
+    private long numOfMessagesSent; // the number of messages sent to the server
+    private long numOfMessagesReceived; // the number of messages received from the server
+    private long numOfGamesStarted; // the number of games started
+    private long numOfGamesFinished; // the number of games played to the end
+    private long numOfResyncs; // the number of snapshots received after a missed or diverging delta
+
+    /**
+     * a method for recording a move accepted by the server.
+     *
+     * @param latencyNanos the number of nanoseconds between sending the move and receiving its delta
+     */
+    public void recordMove(long latencyNanos){
+        long micros = Math.max(latencyNanos / 1000, 0);
+        latencyCounts[bucketOf(micros)]++;
+        maxLatency = Math.max(maxLatency, micros);
+        numOfMoves++;
+    }
+
+    /**
+     * a method for recording a move sent back by the server as illegal.
+     */
+    public void recordRejectedMove(){
+        numOfRejectedMoves++;
+    }
+
+    /**
+     * a method for recording a message sent to the server.
+     */
+    public void recordMessageSent(){
+        numOfMessagesSent++;
+    }
+
+    /**
+     * a method for recording a message received from the server.
+     */
+    public void recordMessageReceived(){
+        numOfMessagesReceived++;
+    }
+
+    /**
+     * a method for recording the start of a game.
+     */
+    public void recordGameStarted(){
+        numOfGamesStarted++;
+    }
+
+    /**
+     * a method for recording the end of a game.
+     */
+    public void recordGameFinished(){
+        numOfGamesFinished++;
+    }
+
+    /**
+     * a method for recording a snapshot applied to get back in step with the server.
+     */
+    public void recordResync(){
+        numOfResyncs++;
+    }
+
+    /**
+     * a method for adding the measurements of another instance to this one.
+     *
+     * @param other the measurements to be added
+     */
+    public void merge(LoadTestStats other){
+        for (int i = 0; i < NUM_OF_BUCKETS; i++){
+            latencyCounts[i] += other.latencyCounts[i];
+        }
+        maxLatency = Math.max(maxLatency, other.maxLatency);
+        numOfMoves += other.numOfMoves;
+        numOfRejectedMoves += other.numOfRejectedMoves;
+        numOfMessagesSent += other.numOfMessagesSent;
+        numOfMessagesReceived += other.numOfMessagesReceived;
+        numOfGamesStarted += other.numOfGamesStarted;
+        numOfGamesFinished += other.numOfGamesFinished;
+        numOfResyncs += other.numOfResyncs;
+    }
+
+    /**
+     * a method for getting a percentile of the round-trip times of the moves. The value returned is the
+     * upper bound of the bucket holding the percentile, so it overstates it by at most about 3%.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the round-trip time in milliseconds below which the specified percentage of moves fall,
+     *         or 0 if no move was made
+     */
+    public double getLatencyPercentile(double percentile){
+        long rank = (long) Math.ceil(percentile / 100 * numOfMoves);
+        long count = 0;
+        for (int i = 0; i < NUM_OF_BUCKETS && numOfMoves > 0; i++){
+            count += latencyCounts[i];
+            if (count >= Math.max(rank, 1)){
+                return Math.min(upperBoundOf(i), maxLatency) / 1000.0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * a method for getting the longest round-trip time of a move.
+     *
+     * @return the longest round-trip time in milliseconds
+     */
+    public double getMaxLatency(){
+        return maxLatency / 1000.0;
+    }
+
+    /**
+     * a method for getting the number of moves accepted by the server.
+     *
+     * @return the number of moves accepted by the server
+     */
+    public long getNumOfMoves(){
+        return numOfMoves;
+    }
+
+    /**
+     * a method for getting the number of moves sent back by the server as illegal.
+     *
+     * @return the number of rejected moves
+     */
+    public long getNumOfRejectedMoves(){
+        return numOfRejectedMoves;
+    }
+
+    /**
+     * a method for getting the number of messages sent to the server.
+     *
+     * @return the number of messages sent
+     */
+    public long getNumOfMessagesSent(){
+        return numOfMessagesSent;
+    }
+
+    /**
+     * a method for getting the number of messages received from the server.
+     *
+     * @return the number of messages received
+     */
+    public long getNumOfMessagesReceived(){
+        return numOfMessagesReceived;
+    }
+
+    /**
+     * a method for getting the number of games started.
+     *
+     * @return the number of games started
+     */
+    public long getNumOfGamesStarted(){
+        return numOfGamesStarted;
+    }
+
+    /**
+     * a method for getting the number of games played to the end.
+     *
+     * @return the number of games finished
+     */
+    public long getNumOfGamesFinished(){
+        return numOfGamesFinished;
+    }
+
+    /**
+     * a method for getting the number of snapshots applied to get back in step with the server.
+     *
+     * @return the number of resynchronizations
+     */
+    public long getNumOfResyncs(){
+        return numOfResyncs;
+    }
+
+    // returns the bucket of the specified number of microseconds: values below 2 * SUB_BUCKETS have a
+    // bucket each, larger ones share SUB_BUCKETS buckets per power of two
+    private static int bucketOf(long micros){
+        if (micros < 2 * SUB_BUCKETS){
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+    }
+
+    // returns the largest number of microseconds falling into the specified bucket
+    private static long upperBoundOf(int bucket){
+        if (bucket < 2 * SUB_BUCKETS){
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return ((long) (bucket % SUB_BUCKETS + SUB_BUCKETS + 1) << shift) - 1;
+    }
+}
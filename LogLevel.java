@@ -0,0 +1,23 @@
+/**
+ * This enum is used to model the levels of the messages logged by a card game
+ * server, from the most to the least verbose.
+ * 
+ */
+public enum LogLevel {
+	/**
+	 * Messages about every message received or broadcast.
+	 */
+	DEBUG,
+	/**
+	 * Messages about players joining, leaving and starting games.
+	 */
+	INFO,
+	/**
+	 * Messages about errors in serving a client.
+	 */
+	WARN,
+	/**
+	 * Messages about errors stopping the server.
+	 */
+	ERROR
+}
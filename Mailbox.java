@@ -0,0 +1,70 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is used to run tasks one at a time, in the order they are
+ * submitted, on threads borrowed from a shared executor. State only touched by
+ * the tasks of one mailbox needs no locking, and many mailboxes can share a
+ * small pool of threads. A mailbox hands its thread back after a batch of
+ * tasks, so that a busy mailbox does not starve the others.
+ * 
+ */
+public class Mailbox implements Executor {
+	// maximum number of tasks run before the thread is handed back
+	private static final int BATCH_SIZE = 64;
+
+	private final Executor executor; // the executor lending the threads
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	// whether a batch is scheduled or running
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+	/**
+	 * Creates and returns an instance of the Mailbox class.
+	 * 
+	 * @param executor
+	 *            the executor running the batches of tasks
+	 */
+	public Mailbox(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Queues the specified task, to be run after all the tasks queued before.
+	 * 
+	 * @param task
+	 *            the task to be run
+	 */
+	public void execute(Runnable task) {
+		tasks.add(task);
+		schedule();
+	}
+
+	// schedules a batch unless one is already scheduled
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			executor.execute(this::runBatch);
+		}
+	}
+
+	// runs up to BATCH_SIZE queued tasks
+	private void runBatch() {
+		try {
+			Runnable task;
+			for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+				try {
+					task.run();
+				} catch (RuntimeException ex) {
+					Thread t = Thread.currentThread();
+					t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+				}
+			}
+		} finally {
+			scheduled.set(false);
+		}
+		// tasks may remain, or have been queued after the queue was found empty
+		if (!tasks.isEmpty()) {
+			schedule();
+		}
+	}
+}
@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The MessageBenchmarks class is a suite of benchmarks (see BenchmarkRunner) for the protocol and the
+ * server: encoding and decoding every type of message with each codec, broadcasting a message from the
+ * mailbox of a room to 4, 40 and 400 connections, and handling a MOVE or a DELTA in a BigTwoClient. The
+ * size of every message with each codec is printed before the benchmarks are run.
+ *
+ * The connections of the rooms are kept in memory: they encode every frame as a transport would, but write
+ * it nowhere. As the frames are encoded on the threads of the room executor, the allocations reported for
+ * a broadcast leave them out. The client has a user interface which shows nothing, so that no display is
+ * needed.
+ */
+
+public class MessageBenchmarks {
+    private static final MessageCodec[] CODECS = {new SerializedMessageCodec(), new BinaryMessageCodec()};
+    private static final int[] FAN_OUTS = {4, 40, 400};
+
+    private final ArrayList<CardGameMessage> messages = new ArrayList<>(); // a message of every type
+    private final ArrayList<String> messageNames = new ArrayList<>(); // the names of the types of the messages
+    private final Deck deck = new BigTwoDeck(); // the deck of the game played by the client
+    private final ArrayList<CardGameMessage> deltas = new ArrayList<>(); // the deltas of that game but the last
+
+    /**
+     * a constructor for preparing the messages of the benchmarks.
+     *
+     * @param seed the seed of the random number generator shuffling the deck
+     */
+    public MessageBenchmarks(long seed){
+        Random random = new Random(seed);
+        deck.shuffle(random);
+
+        // plays a game between computer players, keeping its deltas and a snapshot half way through
+        BigTwoEngine engine = new BigTwoEngine();
+        engine.start(deck);
+        BigTwoStrategy strategy = new GreedyStrategy();
+        GameSnapshot snapshot = null;
+        MoveResult result;
+        int seq = 0;
+        do {
+            int playerIdx = engine.getCurrentPlayerIdx();
+            result = engine.play(playerIdx, strategy.chooseMove(engine, playerIdx, random));
+            long cards = result.getHand() != null ? result.getHand().getCardSet() : CardSet.EMPTY;
+            seq++;
+            if (!result.isGameOver()){
+                deltas.add(new CardGameMessage(CardGameMessage.DELTA, playerIdx, new GameDelta(seq, cards, result.getNextPlayerIdx())));
+            }
+            if (seq == 20){
+                snapshot = GameSnapshot.of(seq, engine);
+            }
+        } while (!result.isGameOver());
+
+        String address = "/127.0.0.1:52396";
+        add("PLAYER_LIST", new CardGameMessage(CardGameMessage.PLAYER_LIST, 2, new String[] {"Alice", "Bob", null, null}));
+        add("JOIN", new CardGameMessage(CardGameMessage.JOIN, 2, "Carol"));
+        add("FULL", new CardGameMessage(CardGameMessage.FULL, -1, null));
+        add("QUIT", new CardGameMessage(CardGameMessage.QUIT, 1, address));
+        add("READY", new CardGameMessage(CardGameMessage.READY, 3, null));
+        add("START", new CardGameMessage(CardGameMessage.START, -1, deck));
+        add("MOVE", new CardGameMessage(CardGameMessage.MOVE, 0, new int[] {0, 1, 2, 3, 4}));
+        add("MSG", new CardGameMessage(CardGameMessage.MSG, 1, "Bob (" + address + "): good game"));
+        add("DELTA", deltas.get(deltas.size() / 2));
+        add("SNAPSHOT", new CardGameMessage(CardGameMessage.SNAPSHOT, 0, snapshot));
+        add("SESSION", new CardGameMessage(CardGameMessage.SESSION, 0, "0123456789abcdefABCDEF"));
+        add("PING", new CardGameMessage(CardGameMessage.PING, -1, null));
+        add("PONG", new CardGameMessage(CardGameMessage.PONG, -1, null));
+    }
+
+    private void add(String name, CardGameMessage message){
+        messageNames.add(name);
+        messages.add(message);
+    }
+
+    /**
+     * a method for printing the number of bytes of every message with each codec, without the frame header.
+     *
+     * @throws IOException if a message cannot be encoded
+     */
+    public void printSizes() throws IOException{
+        System.out.printf("%-12s", "Message");
+        for (MessageCodec codec : CODECS){
+            System.out.printf(" %24s", codec.getClass().getName());
+        }
+        System.out.println();
+        for (int m = 0; m < messages.size(); m++){
+            System.out.printf("%-12s", messageNames.get(m));
+            for (MessageCodec codec : CODECS){
+                System.out.printf(" %24d", codec.encode(messages.get(m)).length);
+            }
+            System.out.println();
+        }
+        System.out.println();
+    }
+
+    /**
+     * a method for adding the benchmarks of this suite to a runner.
+     *
+     * @param runner the runner to which the benchmarks are added
+     * @throws IOException if a message cannot be encoded
+     */
+    public void addTo(BenchmarkRunner runner) throws IOException{
+        for (MessageCodec codec : CODECS){
+            String codecName = codec.getClass().getName();
+            for (int m = 0; m < messages.size(); m++){
+                CardGameMessage message = messages.get(m);
+                byte[] encoded = codec.encode(message);
+                runner.add(codecName + ".encode " + messageNames.get(m), i -> encode(codec, message).length);
+                runner.add(codecName + ".decode " + messageNames.get(m), i -> decode(codec, encoded).getType());
+            }
+        }
+
+        for (int numOfConnections : FAN_OUTS){
+            addFanOut(runner, numOfConnections);
+        }
+
+        HeadlessGUI gui = new HeadlessGUI();
+        BigTwoClient client = new BigTwo(gui, "Alice").getClient();
+        client.parseMessage(new CardGameMessage(CardGameMessage.PLAYER_LIST, 0, new String[] {null, "Bob", "Carol", "Dave"}));
+        byte[] start = frameOf(new CardGameMessage(CardGameMessage.START, -1, deck));
+        byte[] move = frameOf(new CardGameMessage(CardGameMessage.MOVE, 0, new int[] {0}));
+        byte[][] deltaFrames = new byte[deltas.size()][];
+        for (int d = 0; d < deltas.size(); d++){
+            deltaFrames[d] = frameOf(deltas.get(d));
+        }
+
+        // decoding a frame as the client does, then handling its message
+        runner.add("BigTwoClient.parseMessage MOVE", i -> {
+            CardGameMessage message = decodeFrame(move);
+            client.parseMessage(message);
+            return message.getType();
+        });
+        runner.add("BigTwoClient.parseMessage DELTA", i -> {
+            int d = Math.floorMod(i, deltaFrames.length);
+            if (d == 0){
+                // replays the game from its start, the deltas of which only apply in order
+                client.parseMessage(decodeFrame(start));
+            }
+            CardGameMessage message = decodeFrame(deltaFrames[d]);
+            client.parseMessage(message);
+            return message.getType();
+        });
+    }
+
+    // adds the benchmark of a MOVE broadcast by a room to the specified number of connections
+    private void addFanOut(BenchmarkRunner runner, int numOfConnections){
+        AsyncLog log = new AsyncLog(OutputStream.nullOutputStream(), LogLevel.ERROR, AsyncLog.DEFAULT_CAPACITY);
+        CardGameServer server = new CardGameServer("Benchmark Server", numOfConnections, 1, log);
+        GameRoom room = server.createRoom(0);
+        AtomicLong delivered = new AtomicLong();
+        MemoryConnection[] connections = new MemoryConnection[numOfConnections];
+        for (int c = 0; c < numOfConnections; c++){
+            connections[c] = new MemoryConnection(delivered);
+            room.addConnection(connections[c]);
+        }
+        awaitDelivered(delivered, numOfConnections); // the PLAYER_LIST messages
+
+        // the room accepts every move by default, so a MOVE is broadcast as it is
+        CardGameMessage move = new CardGameMessage(CardGameMessage.MOVE, -1, new int[] {0, 1, 2, 3, 4});
+        runner.add("GameRoom broadcast to " + numOfConnections, i -> {
+            long target = delivered.get() + numOfConnections;
+            room.parseMessage(connections[0], move);
+            awaitDelivered(delivered, target);
+            return target;
+        });
+    }
+
+    private static void awaitDelivered(AtomicLong delivered, long target){
+        while (delivered.get() < target){
+            Thread.onSpinWait();
+        }
+    }
+
+    private static byte[] encode(MessageCodec codec, CardGameMessage message){
+        try {
+            return codec.encode(message);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static CardGameMessage decode(MessageCodec codec, byte[] encoded){
+        try {
+            return codec.decode(encoded, 0, encoded.length);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // returns a frame of the specified message, as sent by the server to a client, without its length
+    private static byte[] frameOf(CardGameMessage message) throws IOException{
+        ByteBuffer frame = MessageFrames.encode(CODECS[1], message);
+        byte[] bytes = new byte[frame.remaining() - MessageFrames.HEADER_LENGTH];
+        frame.position(MessageFrames.HEADER_LENGTH);
+        frame.get(bytes);
+        return bytes;
+    }
+
+    private static CardGameMessage decodeFrame(byte[] frame){
+        try {
+            return MessageFrames.decode(frame, 0, frame.length);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * This inner class is used to model a connection to a framed client kept in memory. It encodes every
+     * message sent to it with the binary codec, and counts the messages.
+     */
+    private static class MemoryConnection implements Connection {
+        private final MessageCodec codec = new BinaryMessageCodec();
+        private final AtomicLong delivered; // the number of messages sent to all the connections
+        private long numOfBytes; // the number of bytes of the frames sent to this connection
+
+        public MemoryConnection(AtomicLong delivered){
+            this.delivered = delivered;
+        }
+
+        public void send(CardGameMessage message) throws IOException{
+            numOfBytes += MessageFrames.encode(codec, message).remaining();
+            delivered.incrementAndGet();
+        }
+
+        public void messageHandled(){
+        }
+
+        public void close(){
+        }
+
+        public String getRemoteAddress(){
+            return "memory";
+        }
+
+        public boolean isFramed(){
+            return true;
+        }
+
+        public long getLastReceiveTime(){
+            return System.nanoTime();
+        }
+    }
+
+    /**
+     * This inner class is used to model a user interface of a Big Two client which shows nothing.
+     */
+    private static class HeadlessGUI extends BigTwoGUI {
+        public void setClient(BigTwoClient client){
+        }
+
+        public void setClientIdx(int clientIdx){
+        }
+
+        public void setPlayerNumber(int number){
+        }
+
+        public void setActivePlayer(int activePlayer){
+        }
+
+        public void printMsg(String msg){
+        }
+
+        public void printChatMsg(String msg){
+        }
+
+        public void resetSelected(){
+        }
+
+        public void clearMsgArea(){
+        }
+
+        public void reset(){
+        }
+
+        public void repaint(){
+        }
+
+        public void enable(){
+        }
+
+        public void disable(){
+        }
+
+        public void promptActivePlayer(){
+        }
+    }
+
+    /**
+     * a method for running the benchmarks from the command line. The process exits with status 1 if a
+     * benchmark is worse than its baseline.
+     *
+     * @param args the options of the runner (see BenchmarkRunner.fromCommandLine()), and "seed N" for the
+     *             seed of the deck (default 0)
+     */
+    public static void main(String[] args) throws Exception{
+        long seed = 0;
+        ArrayList<String> options = new ArrayList<>();
+        for (int i = 0; i < args.length; i++){
+            if (args[i].equals("seed") && i + 1 < args.length){
+                seed = Long.parseLong(args[++i]);
+            }
+            else{
+                options.add(args[i]);
+            }
+        }
+
+        BenchmarkRunner runner = BenchmarkRunner.fromCommandLine(options.toArray(new String[0]));
+        MessageBenchmarks benchmarks = new MessageBenchmarks(seed);
+        benchmarks.printSizes();
+        benchmarks.addTo(runner);
+        System.exit(runner.run() ? 0 : 1);
+    }
+}
@@ -0,0 +1,42 @@
+import java.io.IOException;
+
+/**
+ * An interface for encoding card game messages into bytes and decoding them
+ * back. Encoded messages are carried in frames (see MessageFrames), each of
+ * which is tagged with the id of the codec that produced it.
+ * 
+ */
+public interface MessageCodec {
+	/**
+	 * Returns the id of this codec, which tags the frames it produces.
+	 * 
+	 * @return the id of this codec, between 1 and 127
+	 */
+	public int getId();
+
+	/**
+	 * Encodes the specified message.
+	 * 
+	 * @param message
+	 *            the message to be encoded
+	 * @return the encoded message
+	 * @throws IOException
+	 *             if the message cannot be encoded
+	 */
+	public byte[] encode(CardGameMessage message) throws IOException;
+
+	/**
+	 * Decodes a message from the specified bytes.
+	 * 
+	 * @param data
+	 *            the array holding the encoded message
+	 * @param offset
+	 *            the position of the first byte of the encoded message
+	 * @param length
+	 *            the number of bytes of the encoded message
+	 * @return the decoded message
+	 * @throws IOException
+	 *             if the bytes do not hold a valid message
+	 */
+	public CardGameMessage decode(byte[] data, int offset, int length) throws IOException;
+}
@@ -0,0 +1,199 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is used to carry card game messages as length-prefixed frames, so
+ * that a message can be cut out of a byte stream without parsing it. A frame
+ * is laid out as follows:
+ * <p>
+ * [int: n = number of bytes that follow][byte: codec id][n - 1 bytes: payload]
+ * <p>
+ * The first byte of a frame is always 0 because frames are limited to
+ * MAX_FRAME_LENGTH bytes, which tells frames apart from a Java object stream
+ * (starting with 0xACED) sent by an older client.
+ * <p>
+ * A client chooses the codec of the messages it receives by sending its JOIN
+ * (or SESSION) message with that codec: from then on the server encodes every
+ * message to this client with the same codec. Messages sent before use the
+ * SerializedMessageCodec, which every client understands.
+ * 
+ */
+public final class MessageFrames {
+	/**
+	 * The maximum number of bytes following the length of a frame.
+	 */
+	public static final int MAX_FRAME_LENGTH = 1 << 20;
+	/**
+	 * The number of bytes holding the length of a frame.
+	 */
+	public static final int HEADER_LENGTH = 4;
+
+	private static final MessageCodec[] CODECS = new MessageCodec[128];
+
+	static {
+		register(new SerializedMessageCodec());
+		register(new BinaryMessageCodec());
+	}
+
+	private MessageFrames() {
+	}
+
+	/**
+	 * Makes the specified codec available for decoding frames.
+	 * 
+	 * @param codec
+	 *            the codec to be registered
+	 */
+	public static synchronized void register(MessageCodec codec) {
+		CODECS[codec.getId()] = codec;
+	}
+
+	/**
+	 * Returns the codec with the specified id.
+	 * 
+	 * @param id
+	 *            the id of the codec
+	 * @return the codec with the specified id, or null if there is none
+	 */
+	public static MessageCodec getCodec(int id) {
+		return id > 0 && id < CODECS.length ? CODECS[id] : null;
+	}
+
+	/**
+	 * Encodes the specified message into a complete frame.
+	 * 
+	 * @param codec
+	 *            the codec to be used
+	 * @param message
+	 *            the message to be encoded
+	 * @return a buffer holding the frame, ready to be written
+	 * @throws IOException
+	 *             if the message cannot be encoded
+	 */
+	public static ByteBuffer encode(MessageCodec codec, CardGameMessage message) throws IOException {
+		byte[] payload = codec.encode(message);
+		ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + 1 + payload.length);
+		frame.putInt(1 + payload.length);
+		frame.put((byte) codec.getId());
+		frame.put(payload);
+		frame.flip();
+		return frame;
+	}
+
+	/**
+	 * Writes the specified message as a frame to the specified stream.
+	 * 
+	 * @param out
+	 *            the stream to be written to
+	 * @param codec
+	 *            the codec to be used
+	 * @param message
+	 *            the message to be written
+	 * @throws IOException
+	 *             if the message cannot be encoded or written
+	 */
+	public static void write(DataOutputStream out, MessageCodec codec, CardGameMessage message) throws IOException {
+		ByteBuffer frame = encode(codec, message);
+		out.write(frame.array(), 0, frame.limit());
+		out.flush();
+	}
+
+	/**
+	 * Reads a frame from the specified stream and decodes its message.
+	 * 
+	 * @param in
+	 *            the stream to be read from
+	 * @return the message, or null if the stream ended before a new frame
+	 * @throws IOException
+	 *             if the frame is malformed or cannot be read
+	 */
+	public static CardGameMessage read(DataInputStream in) throws IOException {
+		byte[] frame = readFrame(in);
+		return frame == null ? null : decode(frame, 0, frame.length);
+	}
+
+	/**
+	 * Reads a frame from the specified stream, without its length.
+	 * 
+	 * @param in
+	 *            the stream to be read from
+	 * @return the codec id and payload of the frame, or null if the stream
+	 *         ended before a new frame
+	 * @throws IOException
+	 *             if the frame is malformed or cannot be read
+	 */
+	public static byte[] readFrame(DataInputStream in) throws IOException {
+		int length;
+		try {
+			length = in.readInt();
+		} catch (EOFException ex) {
+			return null;
+		}
+		checkLength(length);
+		byte[] frame = new byte[length];
+		in.readFully(frame);
+		return frame;
+	}
+
+	/**
+	 * Returns the codec to be used for replying to the specified message,
+	 * received in a frame produced by the specified codec.
+	 * 
+	 * @param current
+	 *            the codec used so far for replying
+	 * @param codecID
+	 *            the id of the codec of the received frame
+	 * @param message
+	 *            the received message
+	 * @return the codec of the frame if the message is a JOIN or SESSION, the
+	 *         current codec otherwise
+	 */
+	public static MessageCodec negotiate(MessageCodec current, int codecID, CardGameMessage message) {
+		if (message.getType() == CardGameMessage.JOIN
+				|| message.getType() == CardGameMessage.SESSION) {
+			MessageCodec codec = getCodec(codecID);
+			if (codec != null) {
+				return codec;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Decodes the message of a frame whose length has already been read.
+	 * 
+	 * @param frame
+	 *            the array holding the frame
+	 * @param offset
+	 *            the position of the codec id of the frame
+	 * @param length
+	 *            the length of the frame, as read from its header
+	 * @return the decoded message
+	 * @throws IOException
+	 *             if the frame is malformed
+	 */
+	public static CardGameMessage decode(byte[] frame, int offset, int length) throws IOException {
+		MessageCodec codec = getCodec(frame[offset]);
+		if (codec == null) {
+			throw new IOException("Unknown codec: " + frame[offset]);
+		}
+		return codec.decode(frame, offset + 1, length - 1);
+	}
+
+	/**
+	 * Checks the length read from the header of a frame.
+	 * 
+	 * @param length
+	 *            the length read from the header of a frame
+	 * @throws IOException
+	 *             if the length is out of range
+	 */
+	public static void checkLength(int length) throws IOException {
+		if (length < 1 || length > MAX_FRAME_LENGTH) {
+			throw new IOException("Invalid frame length: " + length);
+		}
+	}
+}
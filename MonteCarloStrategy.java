@@ -0,0 +1,229 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The MonteCarloStrategy class implements the BigTwoStrategy interface with a computer player which
+ * searches for its move by simulation. It only uses what its player can see: its own cards, the number of
+ * cards of each other player and the hand on the table. The cards it cannot see are those not yet played,
+ * so it deals them at random to the other players, as many to each as they hold, and plays every legal
+ * move from that deal to the end of the game with random moves. The move winning the most of these
+ * playouts within the time budget is chosen.
+ *
+ * The playouts are spread over the common fork-join pool, each worker dealing and playing on its own, and
+ * work on sets of cards (see CardSet) with the MoveGenerator and the HandClassifier, so that no Hand
+ * objects are created. The strategy keeps no state between moves, so one instance may be used by several
+ * games and threads at once.
+ */
+
+public class MonteCarloStrategy implements BigTwoStrategy {
+    public static final long DEFAULT_TIME_BUDGET = 200; // the default number of milliseconds per move
+    private static final int NUM_OF_PLAYERS = 4;
+    private static final int MAX_TURNS = 1000; // the number of turns after which a playout counts as lost
+
+    private final long timeBudget; // the number of milliseconds per move
+    private final int parallelism; // the number of workers playing out at once
+
+    /**
+     * a constructor for creating a strategy searching for DEFAULT_TIME_BUDGET milliseconds per move on all
+     * the processors.
+     */
+    public MonteCarloStrategy(){
+        this(DEFAULT_TIME_BUDGET, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * a constructor for creating a strategy with the specified time budget and number of workers.
+     *
+     * @param timeBudget the number of milliseconds spent searching for a move; every legal move is played
+     *                   out at least once per worker whatever the budget
+     * @param parallelism the number of workers playing out at once
+     */
+    public MonteCarloStrategy(long timeBudget, int parallelism){
+        if (parallelism < 1){
+            throw new IllegalArgumentException("The parallelism must be positive, got " + parallelism);
+        }
+        this.timeBudget = timeBudget;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * a method for choosing the move of the specified player.
+     *
+     * @param engine the engine holding the current state of the game
+     * @param playerIdx the index of the player whose turn it is
+     * @param random the random number generator from which the workers are seeded, or null for a
+     *               generator seeded at random
+     * @return the set of cards to be played, or CardSet.EMPTY for a pass
+     */
+    public long chooseMove(BigTwoEngine engine, int playerIdx, Random random){
+        MoveList candidates = engine.getLegalMoves(playerIdx);
+        if (candidates.size() <= 1){
+            return candidates.isEmpty() ? CardSet.EMPTY : candidates.get(0);
+        }
+
+        Position position = Position.of(engine, playerIdx);
+        long deadline = System.nanoTime() + timeBudget * 1000000;
+        Random seeds = random != null ? random : new Random();
+        long[] stats;
+        if (parallelism == 1){
+            stats = search(position, candidates, deadline, new SplittableRandom(seeds.nextLong()));
+        }
+        else{
+            List<Callable<long[]>> workers = new ArrayList<>();
+            for (int w = 0; w < parallelism; w++){
+                long seed = seeds.nextLong();
+                workers.add(() -> search(position, candidates, deadline, new SplittableRandom(seed)));
+            }
+            stats = new long[2 * candidates.size()];
+            try {
+                for (Future<long[]> result : ForkJoinPool.commonPool().invokeAll(workers)){
+                    long[] workerStats = result.get();
+                    for (int i = 0; i < stats.length; i++){
+                        stats[i] += workerStats[i];
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+
+        // the best win rate, the first candidate in the order of the generator on a tie
+        int best = 0;
+        for (int c = 1; c < candidates.size(); c++){
+            if (stats[2 * c] * stats[2 * best + 1] > stats[2 * best] * stats[2 * c + 1]){
+                best = c;
+            }
+        }
+        return candidates.get(best);
+    }
+
+    /**
+     * a method for playing out every candidate from random deals of the unseen cards until the deadline,
+     * on the calling thread. Every candidate is played out from the same deals.
+     *
+     * @param position the state of the game as seen by the player
+     * @param candidates the legal moves of the player
+     * @param deadline the time, as returned by System.nanoTime(), after which no new deal is started
+     * @param random the random number generator of the deals and the playouts
+     * @return the number of playouts won by the player and the number of playouts of each candidate, in
+     *         this order
+     */
+    static long[] search(Position position, MoveList candidates, long deadline, SplittableRandom random){
+        int numOfCandidates = candidates.size();
+        long[] stats = new long[2 * numOfCandidates];
+        long[] deal = new long[NUM_OF_PLAYERS];
+        long[] hands = new long[NUM_OF_PLAYERS];
+        int[] unseen = new int[Long.bitCount(position.unseenCards)];
+        MoveList moves = new MoveList();
+        do {
+            position.deal(deal, unseen, random);
+            for (int c = 0; c < numOfCandidates; c++){
+                System.arraycopy(deal, 0, hands, 0, NUM_OF_PLAYERS);
+                if (playOut(position, candidates.get(c), hands, moves, random) == position.playerIdx){
+                    stats[2 * c]++;
+                }
+                stats[2 * c + 1]++;
+            }
+        } while (System.nanoTime() < deadline);
+        return stats;
+    }
+
+    /**
+     * a method for playing the specified move, then random moves until a player has no cards left.
+     *
+     * @param position the state of the game before the move
+     * @param move the move of the player
+     * @param hands the cards of each player, which are played
+     * @param moves the list used for generating the moves
+     * @param random the random number generator choosing the moves
+     * @return the index of the winner, or -1 if the playout has been cut off
+     */
+    static int playOut(Position position, long move, long[] hands, MoveList moves, SplittableRandom random){
+        int playerIdx = position.playerIdx;
+        int lastClassification = position.lastClassification;
+        int lastHandPlayerIdx = position.lastHandPlayerIdx;
+        for (int turn = 0; turn < MAX_TURNS; turn++){
+            if (move != CardSet.EMPTY){
+                hands[playerIdx] &= ~move;
+                if (hands[playerIdx] == CardSet.EMPTY){
+                    return playerIdx;
+                }
+                lastClassification = HandClassifier.classify(move);
+                lastHandPlayerIdx = playerIdx;
+            }
+
+            playerIdx = (playerIdx + 1) % NUM_OF_PLAYERS;
+            MoveGenerator.generate(hands[playerIdx], playerIdx == lastHandPlayerIdx ? HandClassifier.INVALID : lastClassification, moves);
+            move = moves.get(random.nextInt(moves.size()));
+        }
+        return -1;
+    }
+
+    /**
+     * This inner class is used to model the state of a game as seen by the player whose turn it is.
+     */
+    static class Position {
+        final int playerIdx; // the index of the player
+        final long ownCards; // the cards held by the player
+        final long unseenCards; // the cards held by the other players
+        final int[] numOfCards; // the number of cards held by each player
+        final int lastClassification; // the classification of the hand on the table, or INVALID
+        final int lastHandPlayerIdx; // the index of the player of the hand on the table, or -1
+
+        Position(int playerIdx, long ownCards, long unseenCards, int[] numOfCards, int lastClassification, int lastHandPlayerIdx){
+            this.playerIdx = playerIdx;
+            this.ownCards = ownCards;
+            this.unseenCards = unseenCards;
+            this.numOfCards = numOfCards;
+            this.lastClassification = lastClassification;
+            this.lastHandPlayerIdx = lastHandPlayerIdx;
+        }
+
+        // returns the state of the game held by the specified engine as seen by the specified player
+        static Position of(BigTwoEngine engine, int playerIdx){
+            ArrayList<CardGamePlayer> players = engine.getPlayerList();
+            long unseenCards = CardSet.EMPTY;
+            int[] numOfCards = new int[NUM_OF_PLAYERS];
+            for (int i = 0; i < NUM_OF_PLAYERS; i++){
+                numOfCards[i] = players.get(i).getNumOfCards();
+                if (i != playerIdx){
+                    unseenCards |= players.get(i).getCardSet();
+                }
+            }
+            Hand lastHand = engine.getLastHand();
+            return new Position(playerIdx, players.get(playerIdx).getCardSet(), unseenCards, numOfCards,
+                    lastHand == null ? HandClassifier.INVALID : lastHand.getClassification(),
+                    lastHand == null ? -1 : players.indexOf(lastHand.getPlayer()));
+        }
+
+        // deals the unseen cards at random to the other players, as many to each as they hold
+        void deal(long[] hands, int[] unseen, SplittableRandom random){
+            int n = 0;
+            for (long set = unseenCards; set != 0; set &= set - 1){
+                unseen[n++] = Long.numberOfTrailingZeros(set);
+            }
+            for (int i = 0; i < NUM_OF_PLAYERS; i++){
+                if (i == playerIdx){
+                    hands[i] = ownCards;
+                    continue;
+                }
+                // a partial Fisher-Yates shuffle drawing the cards of this player from the remaining ones
+                long hand = CardSet.EMPTY;
+                for (int k = 0; k < numOfCards[i] && n > 0; k++){
+                    int j = random.nextInt(n);
+                    hand |= 1L << unseen[j];
+                    unseen[j] = unseen[--n];
+                }
+                hands[i] = hand;
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * The MoveGenerator class is used to enumerate the legal moves of a Big Two player directly from the
+ * set of cards (see CardSet) the player holds. Candidates are built from the rank and suit histograms
+ * of the cards, so only valid hands are ever produced, and whole categories that cannot beat the hand
+ * on the table are skipped. No Hand objects are created.
+ */
+
+public final class MoveGenerator {
+
+    private MoveGenerator(){
+    }
+
+    /**
+     * a method for enumerating the legal moves of a player.
+     *
+     * @param cardSet the set of cards held by the player
+     * @param lastHand the classification (see HandClassifier) of the hand to be beaten, or
+     *                 HandClassifier.INVALID if the player is leading, i.e. the table is empty or the
+     *                 last hand on the table was played by the same player
+     * @param moves the list to be filled with the legal moves; it is cleared first. Each move is a
+     *              set of cards, and a pass (CardSet.EMPTY) comes first unless the player is leading
+     */
+    public static void generate(long cardSet, int lastHand, MoveList moves){
+        moves.clear();
+        long ordered = HandClassifier.toBigTwoOrder(cardSet);
+        HandType lastType = HandClassifier.type(lastHand);
+
+        if (lastType == null){
+            addSingles(ordered, lastHand, moves);
+            addGroups(ordered, HandType.PAIR, lastHand, moves);
+            addGroups(ordered, HandType.TRIPLE, lastHand, moves);
+            addFiveCardHands(ordered, lastHand, HandType.STRAIGHT, moves);
+            return;
+        }
+
+        moves.add(CardSet.EMPTY);
+        switch (lastType){
+            case SINGLE:
+                addSingles(ordered, lastHand, moves);
+                break;
+            case PAIR:
+            case TRIPLE:
+                addGroups(ordered, lastType, lastHand, moves);
+                break;
+            default:
+                addFiveCardHands(ordered, lastHand, lastType, moves);
+        }
+    }
+
+    // adds the moves whose classification beats lastHand, or every move if lastHand is INVALID
+    private static void add(long ordered, int classification, int lastHand, MoveList moves){
+        if (lastHand == HandClassifier.INVALID || HandClassifier.beats(classification, lastHand)){
+            moves.add(HandClassifier.fromBigTwoOrder(ordered));
+        }
+    }
+
+    private static void addSingles(long ordered, int lastHand, MoveList moves){
+        if (lastHand != HandClassifier.INVALID){
+            // only the cards above the top card of the single on the table
+            ordered &= -(2L << HandClassifier.strengthKey(lastHand));
+        }
+        for (long rest = ordered; rest != 0; rest &= rest - 1){
+            moves.add(HandClassifier.fromBigTwoOrder(Long.lowestOneBit(rest)));
+        }
+    }
+
+    // adds the pairs or triples, i.e. every subset of the given size of the cards of one rank
+    private static void addGroups(long ordered, HandType type, int lastHand, MoveList moves){
+        int size = type.getSize();
+        for (int rank = 0; rank < 13; rank++){
+            long cardsOfRank = (ordered >>> (rank * 4)) & 0xFL;
+            if (Long.bitCount(cardsOfRank) < size){
+                continue;
+            }
+            for (long subset = cardsOfRank; subset != 0; subset = (subset - 1) & cardsOfRank){
+                if (Long.bitCount(subset) == size){
+                    int topCard = rank * 4 + 63 - Long.numberOfLeadingZeros(subset);
+                    add(subset << (rank * 4), HandClassifier.pack(type, topCard), lastHand, moves);
+                }
+            }
+        }
+    }
+
+    // adds the five-card hands of type minType or stronger
+    private static void addFiveCardHands(long ordered, int lastHand, HandType minType, MoveList moves){
+        if (Long.bitCount(ordered) < 5){
+            return;
+        }
+        addStraights(ordered, lastHand, minType.ordinal() > HandType.STRAIGHT.ordinal(), moves);
+        if (minType.ordinal() <= HandType.FLUSH.ordinal()){
+            addFlushes(ordered, lastHand, moves);
+        }
+        if (minType.ordinal() <= HandType.FULL_HOUSE.ordinal()){
+            addFullHouses(ordered, lastHand, moves);
+        }
+        if (minType.ordinal() <= HandType.QUAD.ordinal()){
+            addQuads(ordered, lastHand, moves);
+        }
+    }
+
+    // adds the straights and straight flushes, or only the straight flushes if flushOnly is true
+    private static void addStraights(long ordered, int lastHand, boolean flushOnly, MoveList moves){
+        if (flushOnly){
+            for (int suit = 0; suit < 4; suit++){
+                long cardsOfSuit = CardSet.suit(ordered, suit);
+                if (Long.bitCount(cardsOfSuit) >= 5){
+                    addRuns(cardsOfSuit, CardSet.rankMask(cardsOfSuit), lastHand, moves);
+                }
+            }
+        }
+        else{
+            addRuns(ordered, CardSet.rankMask(ordered), lastHand, moves);
+        }
+    }
+
+    // adds every choice of one card per rank over each window of five consecutive ranks
+    private static void addRuns(long ordered, int rankMask, int lastHand, MoveList moves){
+        for (int low = 0; low + 5 <= 13; low++){
+            if (((rankMask >>> low) & 0x1F) != 0x1F){
+                continue;
+            }
+            long n0 = (ordered >>> (low * 4)) & 0xFL;
+            long n1 = (ordered >>> (low * 4 + 4)) & 0xFL;
+            long n2 = (ordered >>> (low * 4 + 8)) & 0xFL;
+            long n3 = (ordered >>> (low * 4 + 12)) & 0xFL;
+            long n4 = (ordered >>> (low * 4 + 16)) & 0xFL;
+            for (long a = n0; a != 0; a &= a - 1){
+                for (long b = n1; b != 0; b &= b - 1){
+                    for (long c = n2; c != 0; c &= c - 1){
+                        for (long d = n3; d != 0; d &= d - 1){
+                            for (long e = n4; e != 0; e &= e - 1){
+                                long run = (Long.lowestOneBit(a) | Long.lowestOneBit(b) << 4 | Long.lowestOneBit(c) << 8
+                                        | Long.lowestOneBit(d) << 12 | Long.lowestOneBit(e) << 16) << (low * 4);
+                                HandType type = Integer.bitCount(CardSet.suitMask(run)) == 1 ? HandType.STRAIGHT_FLUSH : HandType.STRAIGHT;
+                                add(run, HandClassifier.pack(type, 63 - Long.numberOfLeadingZeros(run)), lastHand, moves);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // adds every five cards of one suit that are not a straight flush
+    private static void addFlushes(long ordered, int lastHand, MoveList moves){
+        for (int suit = 0; suit < 4; suit++){
+            long cards = CardSet.suit(ordered, suit);
+            if (Long.bitCount(cards) < 5){
+                continue;
+            }
+            for (long a = cards; a != 0; a &= a - 1){
+                for (long b = a & (a - 1); b != 0; b &= b - 1){
+                    for (long c = b & (b - 1); c != 0; c &= c - 1){
+                        for (long d = c & (c - 1); d != 0; d &= d - 1){
+                            for (long e = d & (d - 1); e != 0; e &= e - 1){
+                                long flush = Long.lowestOneBit(a) | Long.lowestOneBit(b) | Long.lowestOneBit(c)
+                                        | Long.lowestOneBit(d) | Long.lowestOneBit(e);
+                                int classification = HandClassifier.classify(HandClassifier.fromBigTwoOrder(flush));
+                                if (HandClassifier.type(classification) == HandType.FLUSH){
+                                    add(flush, classification, lastHand, moves);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // adds every triple of one rank combined with every pair of another rank
+    private static void addFullHouses(long ordered, int lastHand, MoveList moves){
+        for (int tripleRank = 0; tripleRank < 13; tripleRank++){
+            long tripleCards = (ordered >>> (tripleRank * 4)) & 0xFL;
+            if (Long.bitCount(tripleCards) < 3){
+                continue;
+            }
+            int classification = HandClassifier.pack(HandType.FULL_HOUSE, tripleRank);
+            if (lastHand != HandClassifier.INVALID && !HandClassifier.beats(classification, lastHand)){
+                continue;
+            }
+            for (long triple = tripleCards; triple != 0; triple = (triple - 1) & tripleCards){
+                if (Long.bitCount(triple) != 3){
+                    continue;
+                }
+                for (int pairRank = 0; pairRank < 13; pairRank++){
+                    long pairCards = (ordered >>> (pairRank * 4)) & 0xFL;
+                    if (pairRank == tripleRank || Long.bitCount(pairCards) < 2){
+                        continue;
+                    }
+                    for (long pair = pairCards; pair != 0; pair = (pair - 1) & pairCards){
+                        if (Long.bitCount(pair) == 2){
+                            moves.add(HandClassifier.fromBigTwoOrder(triple << (tripleRank * 4) | pair << (pairRank * 4)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // adds every four cards of one rank combined with any other card
+    private static void addQuads(long ordered, int lastHand, MoveList moves){
+        for (int rank = 0; rank < 13; rank++){
+            long quad = 0xFL << (rank * 4);
+            if ((ordered & quad) != quad){
+                continue;
+            }
+            int classification = HandClassifier.pack(HandType.QUAD, rank);
+            if (lastHand != HandClassifier.INVALID && !HandClassifier.beats(classification, lastHand)){
+                continue;
+            }
+            for (long rest = ordered & ~quad; rest != 0; rest &= rest - 1){
+                moves.add(HandClassifier.fromBigTwoOrder(quad | Long.lowestOneBit(rest)));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * The MoveList class is used to hold a list of Big Two moves, each move being a set of cards (see
+ * CardSet) and CardSet.EMPTY standing for a pass. The list grows as needed and keeps its storage when
+ * cleared, so one instance can be reused for every turn without allocating.
+ */
+
+public class MoveList {
+    private long[] moves; // the moves in this list
+    private int size; // the number of moves in this list
+
+    /**
+     * a constructor for creating an empty list of moves.
+     */
+    public MoveList(){
+        this.moves = new long[64];
+        this.size = 0;
+    }
+
+    /**
+     * a method for appending a move to this list.
+     *
+     * @param cardSet the set of cards of the move, or CardSet.EMPTY for a pass
+     */
+    public void add(long cardSet){
+        if (size == moves.length){
+            long[] grown = new long[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = cardSet;
+    }
+
+    /**
+     * a method for retrieving the move at the specified position in this list.
+     *
+     * @param i the index of the move
+     * @return the set of cards of the move, or CardSet.EMPTY for a pass
+     */
+    public long get(int i){
+        if (i < 0 || i >= size){
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return moves[i];
+    }
+
+    /**
+     * a method for checking if this list contains the specified move.
+     *
+     * @param cardSet the set of cards of the move, or CardSet.EMPTY for a pass
+     * @return whether this list contains the move or not
+     */
+    public boolean contains(long cardSet){
+        for (int i = 0; i < size; i++){
+            if (moves[i] == cardSet){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * a method for getting the number of moves in this list.
+     *
+     * @return the number of moves in this list
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * a method for checking if this list holds no moves.
+     *
+     * @return whether this list is empty or not
+     */
+    public boolean isEmpty(){
+        return this.size == 0;
+    }
+
+    /**
+     * a method for removing all moves from this list.
+     */
+    public void clear(){
+        this.size = 0;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * The MoveResult class is used to model the outcome of a move checked by a BigTwoEngine. It records
+ * whether the move was illegal, a pass or a played hand, the hand played (if any), the player who
+ * should play next and whether the move ended the game.
+ */
+
+public class MoveResult {
+    /**
+     * The kinds of outcome of a move.
+     */
+    public enum Status {
+        /** the move was rejected and the game state is unchanged */
+        ILLEGAL,
+        /** the player passed */
+        PASS,
+        /** the player played a hand */
+        PLAY
+    }
+
+    private final Status status; // the outcome of the move
+    private final int playerIdx; // the index of the player who made the move
+    private final Hand hand; // the hand played, or null unless the status is PLAY
+    private final int nextPlayerIdx; // the index of the player who plays the next turn
+    private final boolean gameOver; // whether the move ended the game
+
+    /**
+     * a constructor for building the result of a move.
+     *
+     * @param status the outcome of the move
+     * @param playerIdx the index of the player who made the move
+     * @param hand the hand played, or null unless the status is PLAY
+     * @param nextPlayerIdx the index of the player who plays the next turn
+     * @param gameOver whether the move ended the game
+     */
+    public MoveResult(Status status, int playerIdx, Hand hand, int nextPlayerIdx, boolean gameOver){
+        this.status = status;
+        this.playerIdx = playerIdx;
+        this.hand = hand;
+        this.nextPlayerIdx = nextPlayerIdx;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * a method for retrieving the outcome of the move.
+     *
+     * @return the outcome of the move
+     */
+    public Status getStatus(){
+        return this.status;
+    }
+
+    /**
+     * a method for checking if the move was accepted, i.e. it was a pass or a played hand.
+     *
+     * @return whether the move was accepted or not
+     */
+    public boolean isLegal(){
+        return this.status != Status.ILLEGAL;
+    }
+
+    /**
+     * a method for retrieving the index of the player who made the move.
+     *
+     * @return the index of the player who made the move
+     */
+    public int getPlayerIdx(){
+        return this.playerIdx;
+    }
+
+    /**
+     * a method for retrieving the hand played.
+     *
+     * @return the hand played, or null unless the status is PLAY
+     */
+    public Hand getHand(){
+        return this.hand;
+    }
+
+    /**
+     * a method for retrieving the index of the player who plays the next turn.
+     *
+     * @return the index of the player who plays the next turn
+     */
+    public int getNextPlayerIdx(){
+        return this.nextPlayerIdx;
+    }
+
+    /**
+     * a method for checking if the move ended the game.
+     *
+     * @return whether the move ended the game or not
+     */
+    public boolean isGameOver(){
+        return this.gameOver;
+    }
+}
@@ -0,0 +1,423 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is used to serve the clients of a card game server with
+ * non-blocking sockets. Connections are spread over a small number of event
+ * loops, each running a Selector on its own thread, so the number of threads
+ * does not grow with the number of clients. Every connection has its own
+ * bounded queue of outgoing frames, so sending a message never waits for a
+ * slow client; a client letting its queue overflow is disconnected.
+ * <p>
+ * Clients must send length-prefixed frames (see MessageFrames); clients
+ * sending a Java object stream are served by the blocking start() method of
+ * CardGameServer only.
+ * 
+ */
+public class NioServerTransport {
+	// initial capacity of the read buffer of a connection
+	private static final int READ_BUFFER_SIZE = 4096;
+
+	private final CardGameServer server; // the server handling the messages
+	private final EventLoop[] eventLoops; // the event loops serving the clients
+	private ServerSocketChannel serverChannel; // the channel accepting clients
+	private int nextEventLoop = 0; // event loop of the next connection
+	private volatile boolean running = false;
+
+	/**
+	 * Creates and returns an instance of the NioServerTransport class.
+	 * 
+	 * @param server
+	 *            the server handling the messages from the clients
+	 * @param numOfThreads
+	 *            the number of event loops
+	 */
+	public NioServerTransport(CardGameServer server, int numOfThreads) {
+		if (numOfThreads < 1) {
+			throw new IllegalArgumentException("Invalid number of threads: " + numOfThreads);
+		}
+		this.server = server;
+		this.eventLoops = new EventLoop[numOfThreads];
+	}
+
+	/**
+	 * Accepts clients at the specified port until stop() is called. Blocks the
+	 * calling thread, which only accepts connections; the clients are served
+	 * by the event loops.
+	 * 
+	 * @param port
+	 *            the port at which clients are accepted
+	 * @throws IOException
+	 *             if the port cannot be opened
+	 */
+	public void start(int port) throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(new InetSocketAddress(port));
+			running = true;
+			for (int i = 0; i < eventLoops.length; i++) {
+				eventLoops[i] = new EventLoop(i);
+				eventLoops[i].thread.start();
+			}
+			server.println("Starts up the server at localhost:" + serverChannel.socket().getLocalPort()
+					+ " with " + eventLoops.length + " event loop(s)");
+			server.listening();
+
+			while (running) {
+				SocketChannel channel = serverChannel.accept();
+				try {
+					channel.configureBlocking(false);
+					channel.socket().setTcpNoDelay(true);
+				} catch (IOException ex) {
+					// drops this client only and keeps accepting the others
+					server.log(LogLevel.WARN, "Error in accepting the client at " + channel.socket().getRemoteSocketAddress());
+					if (!server.silentMode) ex.printStackTrace();
+					closeQuietly(channel);
+					continue;
+				}
+				EventLoop eventLoop = eventLoops[nextEventLoop];
+				nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+				eventLoop.execute(() -> eventLoop.register(channel));
+			}
+		} finally {
+			stop();
+		}
+	}
+
+	/**
+	 * Stops the event loops and closes all connections.
+	 */
+	public void stop() {
+		running = false;
+		if (serverChannel != null) {
+			closeQuietly(serverChannel);
+		}
+		for (EventLoop eventLoop : eventLoops) {
+			if (eventLoop != null) {
+				eventLoop.selector.wakeup();
+			}
+		}
+	}
+
+	/**
+	 * This inner class is used to serve a group of connections with a
+	 * Selector on a single thread. All the state of its connections is only
+	 * touched on that thread; other threads hand work over with execute().
+	 * 
+	 */
+	private class EventLoop implements Runnable {
+		private final Selector selector;
+		private final Thread thread;
+		private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+
+		public EventLoop(int index) throws IOException {
+			selector = Selector.open();
+			thread = new Thread(this, "nio-event-loop-" + index);
+			thread.setDaemon(true);
+		}
+
+		// runs the specified task on the thread of this event loop
+		public void execute(Runnable task) {
+			tasks.add(task);
+			selector.wakeup();
+		}
+
+		// starts serving a newly accepted channel
+		public void register(SocketChannel channel) {
+			try {
+				NioConnection connection = new NioConnection(channel, this);
+				connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+				server.connectionAccepted(connection);
+			} catch (IOException ex) {
+				server.log(LogLevel.WARN, "Error in registering the client at " + channel.socket().getRemoteSocketAddress());
+				if (!server.silentMode) ex.printStackTrace();
+				closeQuietly(channel);
+			}
+		}
+
+		// implementation of method from the Runnable interface
+		public void run() {
+			while (running) {
+				try {
+					selector.select();
+				} catch (IOException ex) {
+					server.log(LogLevel.WARN, "Error in selecting ready connections");
+					if (!server.silentMode) ex.printStackTrace();
+					break;
+				}
+
+				Runnable task;
+				while ((task = tasks.poll()) != null) {
+					try {
+						task.run();
+					} catch (RuntimeException ex) {
+						server.log(LogLevel.WARN, "Error in running a task of the event loop");
+						if (!server.silentMode) ex.printStackTrace();
+					}
+				}
+
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					NioConnection connection = (NioConnection) key.attachment();
+					try {
+						if (key.isValid() && key.isWritable()) {
+							connection.flush();
+						}
+						if (key.isValid() && key.isReadable()) {
+							connection.read();
+						}
+					} catch (Exception ex) {
+						server.log(LogLevel.WARN, "Error in serving the client at " + connection.getRemoteAddress());
+						if (!server.silentMode) ex.printStackTrace();
+						connection.closeNow();
+					}
+				}
+			}
+
+			// closes the connections of this event loop
+			for (SelectionKey key : selector.keys()) {
+				if (key.attachment() instanceof NioConnection) {
+					((NioConnection) key.attachment()).closeNow();
+				}
+			}
+			closeQuietly(selector);
+		}
+	} // EventLoop
+
+	/**
+	 * This inner class is used to model a non-blocking connection to a client.
+	 * 
+	 */
+	private class NioConnection implements Connection {
+		private final SocketChannel channel;
+		private final EventLoop eventLoop;
+		private final String remoteAddress;
+		private SelectionKey key;
+		// the codec of the frames sent to the client, chosen by its JOIN
+		private volatile MessageCodec codec = new SerializedMessageCodec();
+		// bytes received but not yet parsed into frames
+		private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		// frames waiting to be written, touched by the event loop only
+		private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<ByteBuffer>();
+		// number of messages sent but not yet written
+		private final AtomicInteger queuedMessages = new AtomicInteger();
+		// number of messages received but not yet handled by the server
+		private final AtomicInteger unhandledMessages = new AtomicInteger();
+		// whether reading is paused until messages have been handled
+		private boolean readingPaused = false;
+		private boolean added = false; // whether the first message has been received
+		// the time at which the last message was received (see System.nanoTime())
+		private volatile long lastReceiveTime = System.nanoTime();
+		private boolean closing = false; // whether to close once the queue is empty
+		private boolean closed = false;
+
+		public NioConnection(SocketChannel channel, EventLoop eventLoop) {
+			this.channel = channel;
+			this.eventLoop = eventLoop;
+			this.remoteAddress = String.valueOf(channel.socket().getRemoteSocketAddress());
+		}
+
+		/**
+		 * Queues the specified message for sending to the client. Returns
+		 * without waiting for the message to be written.
+		 * 
+		 * @param message
+		 *            the message to be sent
+		 * @throws IOException
+		 *             if the message cannot be encoded, or if the queue is
+		 *             full, in which case the connection is closed
+		 */
+		public void send(CardGameMessage message) throws IOException {
+			if (queuedMessages.incrementAndGet() > MAX_QUEUED_MESSAGES) {
+				queuedMessages.decrementAndGet();
+				eventLoop.execute(this::closeNow);
+				throw new IOException("More than " + MAX_QUEUED_MESSAGES
+						+ " messages queued, disconnects the client");
+			}
+			ByteBuffer frame;
+			try {
+				frame = MessageFrames.encode(codec, message);
+			} catch (IOException ex) {
+				queuedMessages.decrementAndGet();
+				throw ex;
+			}
+			eventLoop.execute(() -> {
+				if (!closed && !closing) {
+					writeQueue.add(frame);
+					flush();
+				} else {
+					queuedMessages.decrementAndGet();
+				}
+			});
+		}
+
+		/**
+		 * Closes the connection once the queued messages have been written.
+		 */
+		public void close() {
+			eventLoop.execute(() -> {
+				closing = true;
+				flush();
+			});
+		}
+
+		/**
+		 * Resumes reading once enough received messages have been handled.
+		 */
+		public void messageHandled() {
+			if (unhandledMessages.decrementAndGet() == MAX_UNHANDLED_MESSAGES - 1) {
+				eventLoop.execute(this::resumeReading);
+			}
+		}
+
+		public String getRemoteAddress() {
+			return remoteAddress;
+		}
+
+		// legacy clients are rejected by this transport
+		public boolean isFramed() {
+			return true;
+		}
+
+		public long getLastReceiveTime() {
+			return lastReceiveTime;
+		}
+
+		// handles the frames already buffered and reads from the socket again
+		private void resumeReading() {
+			if (closed || !readingPaused) {
+				return;
+			}
+			readingPaused = false;
+			try {
+				readBuffer.flip();
+				handleFrames();
+				readBuffer.compact();
+				if (!readingPaused) {
+					key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+				}
+			} catch (Exception ex) {
+				server.log(LogLevel.WARN, "Error in serving the client at " + remoteAddress);
+				if (!server.silentMode) ex.printStackTrace();
+				closeNow();
+			}
+		}
+
+		// writes as many queued frames as the socket accepts
+		private void flush() {
+			if (closed) {
+				return;
+			}
+			try {
+				while (!writeQueue.isEmpty()) {
+					ByteBuffer frame = writeQueue.peek();
+					channel.write(frame);
+					if (frame.hasRemaining()) {
+						// the socket buffer is full, waits until it is writable
+						key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+						return;
+					}
+					writeQueue.poll();
+					queuedMessages.decrementAndGet();
+				}
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+				if (closing) {
+					closeNow();
+				}
+			} catch (IOException ex) {
+				server.log(LogLevel.WARN, "Error in sending messages to the client at " + remoteAddress);
+				if (!server.silentMode) ex.printStackTrace();
+				closeNow();
+			}
+		}
+
+		// reads the available bytes and handles every complete frame
+		private void read() throws IOException {
+			if (channel.read(readBuffer) < 0) {
+				closeNow();
+				return;
+			}
+			readBuffer.flip();
+			if (!added && readBuffer.remaining() >= 2
+					&& (readBuffer.get(0) & 0xFF) == 0xAC && (readBuffer.get(1) & 0xFF) == 0xED) {
+				throw new IOException("Object stream clients are not supported in non-blocking mode");
+			}
+			handleFrames();
+			readBuffer.compact();
+		}
+
+		// handles every complete frame in the flipped read buffer, pausing
+		// reading when too many messages have not been handled yet
+		private void handleFrames() throws IOException {
+			while (!closed && readBuffer.remaining() >= MessageFrames.HEADER_LENGTH) {
+				if (unhandledMessages.get() >= MAX_UNHANDLED_MESSAGES) {
+					readingPaused = true;
+					key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+					break;
+				}
+				int length = readBuffer.getInt(readBuffer.position());
+				MessageFrames.checkLength(length);
+				int frameEnd = readBuffer.position() + MessageFrames.HEADER_LENGTH + length;
+				if (frameEnd > readBuffer.limit()) {
+					if (MessageFrames.HEADER_LENGTH + length > readBuffer.capacity()) {
+						// grows the buffer to hold the whole frame
+						ByteBuffer grown = ByteBuffer.allocate(MessageFrames.HEADER_LENGTH + length);
+						grown.put(readBuffer);
+						grown.flip();
+						readBuffer = grown;
+					}
+					break;
+				}
+				int frameStart = readBuffer.arrayOffset() + readBuffer.position() + MessageFrames.HEADER_LENGTH;
+				CardGameMessage message = MessageFrames.decode(readBuffer.array(), frameStart, length);
+				codec = MessageFrames.negotiate(codec, readBuffer.array()[frameStart], message);
+				readBuffer.position(frameEnd);
+				lastReceiveTime = System.nanoTime();
+				unhandledMessages.incrementAndGet();
+				if (added) {
+					server.parseMessage(this, message);
+				} else {
+					// the first message tells a new player from one resuming a
+					// session
+					added = true;
+					server.addConnection(this, message);
+				}
+			}
+		}
+
+		// closes the channel without waiting for the queued messages
+		private void closeNow() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			writeQueue.clear();
+			if (key != null) {
+				key.cancel();
+			}
+			closeQuietly(channel);
+			// also forgets a connection which has not sent its first message
+			server.removeConnection(this);
+		}
+	} // NioConnection
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException ex) {
+			// nothing more can be done
+		}
+	}
+}
@@ -17,12 +17,12 @@ public class Pair extends Hand{
     }
 
     /**
-     * a method for checking if this is a valid hand.
+     * a method for retrieving the type of this hand.
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public String getType(){
-        return "Pair";
+    public HandType getHandType(){
+        return HandType.PAIR;
     }
 
     /**
@@ -35,36 +35,7 @@ public class Pair extends Hand{
             return false;
         }
 
-        int firstRank = this.getCard(0).getRank();
-        int secondRank = this.getCard(1).getRank();
-
-        if(firstRank == secondRank){
-            return true;
-        }
-        else {
-            return false;
-        }
-    }
-
-    /**
-     * a method for checking if this hand beats a specified hand.
-     *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
-     */
-    public boolean beats(Hand hand){
-        if(hand == null){
-            return false;
-        }
-        if(!this.getType().equals(hand.getType())){
-            return false;
-        }
-
-        if(this.isValid() && hand.isValid() && this.getTopCard().compareTo(hand.getTopCard()) > 0){
-            return true;
-        }
-        else{
-            return false;
-        }
+        long cardSet = this.getCardSet();
+        return CardSet.size(cardSet) == 2 && Integer.bitCount(CardSet.rankMask(cardSet)) == 1;
     }
 }
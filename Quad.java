@@ -17,12 +17,12 @@ public class Quad extends Hand{
     }
 
     /**
-     * a method for checking if this is a valid hand.
+     * a method for retrieving the type of this hand.
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public String getType(){
-        return "Quad";
+    public HandType getHandType(){
+        return HandType.QUAD;
     }
 
     /**
@@ -35,87 +35,14 @@ public class Quad extends Hand{
             return false;
         }
 
-        this.sort();
-
-        int firstRank;
-        if(this.getCard(0).getRank() == this.getCard(1).getRank()){
-            firstRank = this.getCard(0).getRank();
-            for (int i = 0; i < 4; i++){
-                if(this.getCard(i).getRank() != firstRank){
-                    return false;
-                }
-            }
-        }
-        else{
-            firstRank = this.getCard(1).getRank();
-            for (int i = 1; i < 5; i++){
-                if(this.getCard(i).getRank() != firstRank){
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    /**
-     * a method for checking if this hand beats a specified hand.
-     *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
-     */
-    public boolean beats(Hand hand) {
-        if(hand == null){
-            return false;
-        }
-        if (hand.size() < 5) {
-            return false;
-        }
-        if (hand.getType().equals("Straight") || hand.getType().equals("Flush") || hand.getType().equals("FullHouse")){
-            return true;
-        }
-        if(!hand.getType().equals(this.getType())){
+        long cardSet = this.getCardSet();
+        int rankMask = CardSet.rankMask(cardSet);
+        if (CardSet.size(cardSet) != 5 || Integer.bitCount(rankMask) != 2){
             return false;
         }
 
-        int[] thisCounts = new int[13];
-        int thisHighestRank = 0;
-        for (int i = 0; i < this.size(); i++){
-            int index = this.getCard(i).getRank();
-            thisCounts[index]++;
-        }
-
-        for (int i = 0; i < 13; i++){
-            if(thisCounts[i] == 4){
-                thisHighestRank = i;
-            }
-        }
-
-        if(thisHighestRank < 2){
-            thisHighestRank += 13;
-        }
-
-        int[] handCounts = new int[13];
-        for (int i = 0; i < hand.size(); i++){
-            int index = hand.getCard(i).getRank();
-            handCounts[index]++;
-        }
-
-        int handHighestRank = 0;
-        for (int i = 0; i < 13; i++){
-            if(handCounts[i] == 4){
-                handHighestRank = i;
-            }
-        }
-
-        if(handHighestRank < 2){
-            handHighestRank += 13;
-        }
-
-        if(thisHighestRank > handHighestRank){
-            return true;
-        }
-        else{
-            return false;
-        }
+        // two ranks over five cards split either 4 + 1 or 3 + 2
+        int count = CardSet.rankCount(cardSet, Integer.numberOfTrailingZeros(rankMask));
+        return count == 1 || count == 4;
     }
 }
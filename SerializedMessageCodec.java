@@ -0,0 +1,70 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * This class is used to encode card game messages with Java serialization.
+ * Every message is written to its own object stream, so no state is kept
+ * between messages.
+ * 
+ */
+public class SerializedMessageCodec implements MessageCodec {
+	/**
+	 * The id of this codec.
+	 */
+	public static final int ID = 1;
+
+	/**
+	 * Returns the id of this codec.
+	 * 
+	 * @return the id of this codec
+	 */
+	public int getId() {
+		return ID;
+	}
+
+	/**
+	 * Encodes the specified message with Java serialization.
+	 * 
+	 * @param message
+	 *            the message to be encoded
+	 * @return the serialized message
+	 * @throws IOException
+	 *             if the message cannot be serialized
+	 */
+	public byte[] encode(CardGameMessage message) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		ObjectOutputStream oostream = new ObjectOutputStream(bytes);
+		oostream.writeObject(message);
+		oostream.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes a message serialized by encode().
+	 * 
+	 * @param data
+	 *            the array holding the serialized message
+	 * @param offset
+	 *            the position of the first byte of the serialized message
+	 * @param length
+	 *            the number of bytes of the serialized message
+	 * @return the deserialized message
+	 * @throws IOException
+	 *             if the bytes do not hold a serialized CardGameMessage
+	 */
+	public CardGameMessage decode(byte[] data, int offset, int length) throws IOException {
+		ObjectInputStream oistream = new ObjectInputStream(new ByteArrayInputStream(data, offset, length));
+		try {
+			Object object = oistream.readObject();
+			if (!(object instanceof CardGameMessage)) {
+				throw new IOException("Not a CardGameMessage: " + object);
+			}
+			return (CardGameMessage) object;
+		} catch (ClassNotFoundException ex) {
+			throw new IOException(ex);
+		}
+	}
+}
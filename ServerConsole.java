@@ -0,0 +1,153 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JFrame;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+
+/**
+ * This class is used to show the log of a card game server in a window. The
+ * messages are appended on the event dispatch thread, and only the last
+ * MAX_LINES lines are kept.
+ * 
+ * @author Kenneth Wong
+ *
+ */
+public class ServerConsole implements ServerLog {
+	/**
+	 * The maximum number of lines kept in the console.
+	 */
+	public static final int MAX_LINES = 5000;
+
+	// the main frame of the server
+	private JFrame frame = null;
+	// text area for displaying server states
+	private JTextArea textArea = null;
+	// the least severe level of the messages shown
+	private final LogLevel threshold;
+
+	/**
+	 * Creates and shows a console showing messages of all levels.
+	 * 
+	 * @param serverName
+	 *            the name of the card game server, used as the title
+	 */
+	public ServerConsole(String serverName) {
+		this(serverName, LogLevel.DEBUG);
+	}
+
+	/**
+	 * Creates and shows a console showing the messages of the specified level
+	 * and above.
+	 * 
+	 * @param serverName
+	 *            the name of the card game server, used as the title
+	 * @param threshold
+	 *            the least severe level of the messages shown
+	 */
+	public ServerConsole(String serverName, LogLevel threshold) {
+		this.threshold = threshold;
+		buildGUI(serverName);
+	}
+
+	/**
+	 * Builds the GUI for the server
+	 */
+	private void buildGUI(String serverName) {
+		// build a GUI
+		frame = new JFrame(serverName);
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		textArea = new JTextArea(20, 40);
+		textArea.setEditable(false);
+		textArea.setLineWrap(true);
+		textArea.setWrapStyleWord(true);
+		JScrollPane scroller = new JScrollPane(textArea);
+		scroller.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
+		scroller.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+		frame.add(scroller);
+
+		// build the menu bar
+		JMenuItem clearMenuItem = new JMenuItem("Clear console");
+		clearMenuItem.addActionListener(new ClearMenuItemListener());
+		JMenuItem quitMenuItem = new JMenuItem("Quit");
+		quitMenuItem.addActionListener(new QuitMenuItemListener());
+		JMenu menu = new JMenu("Option");
+		menu.add(clearMenuItem);
+		menu.add(quitMenuItem);
+		JMenuBar menuBar = new JMenuBar();
+		menuBar.add(menu);
+		frame.setJMenuBar(menuBar);
+
+		frame.pack();
+		frame.setVisible(true);
+	} // buildGUI
+
+	public boolean isLoggable(LogLevel level) {
+		return level.compareTo(threshold) >= 0;
+	}
+
+	/**
+	 * Prints the specified message to the text area, dropping the oldest lines
+	 * beyond MAX_LINES.
+	 * 
+	 * @param level
+	 *            the level of the message
+	 * @param msg
+	 *            the message to be printed
+	 */
+	public void log(LogLevel level, String msg) {
+		if (!isLoggable(level)) {
+			return;
+		}
+		SwingUtilities.invokeLater(() -> {
+			textArea.append(msg + "\n");
+			int excess = textArea.getLineCount() - MAX_LINES;
+			if (excess > 0) {
+				try {
+					textArea.replaceRange("", 0, textArea.getLineEndOffset(excess - 1));
+				} catch (BadLocationException ex) {
+					textArea.setText("");
+				}
+			}
+			textArea.setCaretPosition(textArea.getDocument().getLength());
+		});
+	}
+
+	/**
+	 * Closes the window of the console.
+	 */
+	public void close() {
+		SwingUtilities.invokeLater(frame::dispose);
+	}
+
+	/**
+	 * This inner class is used for handling the Clear menu
+	 * 
+	 * @author Kenneth Wong
+	 *
+	 */
+	private class ClearMenuItemListener implements ActionListener {
+		public void actionPerformed(ActionEvent e) {
+			textArea.setText("");
+		}
+	} // ClearMenuItemListener
+
+	/**
+	 * This inner class is used for handling the Quit menu
+	 * 
+	 * @author Kenneth Wong
+	 *
+	 */
+	private class QuitMenuItemListener implements ActionListener {
+		public void actionPerformed(ActionEvent e) {
+			frame.dispose();
+			System.exit(0);
+		}
+	} // QuitMenuItemListener
+}
@@ -0,0 +1,31 @@
+/**
+ * An interface for the log of a card game server, shown in a console or
+ * written to a file.
+ * 
+ */
+public interface ServerLog {
+	/**
+	 * Returns whether messages of the specified level are logged. Callers may
+	 * use this to avoid building messages which would be discarded.
+	 * 
+	 * @param level
+	 *            the level of a message
+	 * @return true if messages of the level are logged, false otherwise
+	 */
+	public boolean isLoggable(LogLevel level);
+
+	/**
+	 * Logs the specified message if its level is logged.
+	 * 
+	 * @param level
+	 *            the level of the message
+	 * @param msg
+	 *            the message to be logged
+	 */
+	public void log(LogLevel level, String msg);
+
+	/**
+	 * Logs the messages still pending and releases the resources of the log.
+	 */
+	public void close();
+}
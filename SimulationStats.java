@@ -0,0 +1,170 @@
+/**
+ * The SimulationStats class is used to accumulate the statistics of a batch of Big Two games played by
+ * a BigTwoSimulation: the number of wins of each seat, the game lengths and the number of hands played
+ * of each type. Each worker thread fills its own instance and the instances are merged at the end.
+ */
+
+public class SimulationStats {
+    private final long[] wins; // the number of games won by each seat
+    private final long[] handTypeCounts; // the number of hands played of each type, indexed by ordinal
+    private long numOfGames; // the number of games played
+    private long numOfAbortedGames; // the number of games stopped after too many turns
+    private long totalTurns; // the number of turns (plays and passes) over all games
+    private int minTurns = Integer.MAX_VALUE; // the length of the shortest game
+    private int maxTurns; // the length of the longest game
+
+    /**
+     * a constructor for creating empty statistics for the specified number of seats.
+     *
+     * @param numOfPlayers the number of seats in a game
+     */
+    public SimulationStats(int numOfPlayers){
+        this.wins = new long[numOfPlayers];
+        this.handTypeCounts = new long[HandType.values().length];
+    }
+
+    /**
+     * a method for recording a hand played during a game.
+     *
+     * @param type the type of the hand
+     */
+    public void recordHand(HandType type){
+        handTypeCounts[type.ordinal()]++;
+    }
+
+    /**
+     * a method for recording the end of a game.
+     *
+     * @param winnerIdx the index of the winning seat, or -1 if the game was aborted
+     * @param turns the number of turns played
+     */
+    public void recordGame(int winnerIdx, int turns){
+        numOfGames++;
+        if (winnerIdx < 0){
+            numOfAbortedGames++;
+        }
+        else{
+            wins[winnerIdx]++;
+        }
+        totalTurns += turns;
+        minTurns = Math.min(minTurns, turns);
+        maxTurns = Math.max(maxTurns, turns);
+    }
+
+    /**
+     * a method for adding the statistics of another instance to this one.
+     *
+     * @param other the statistics to be added
+     */
+    public void merge(SimulationStats other){
+        for (int i = 0; i < wins.length; i++){
+            wins[i] += other.wins[i];
+        }
+        for (int i = 0; i < handTypeCounts.length; i++){
+            handTypeCounts[i] += other.handTypeCounts[i];
+        }
+        numOfGames += other.numOfGames;
+        numOfAbortedGames += other.numOfAbortedGames;
+        totalTurns += other.totalTurns;
+        minTurns = Math.min(minTurns, other.minTurns);
+        maxTurns = Math.max(maxTurns, other.maxTurns);
+    }
+
+    /**
+     * a method for getting the number of games played.
+     *
+     * @return the number of games played
+     */
+    public long getNumOfGames(){
+        return numOfGames;
+    }
+
+    /**
+     * a method for getting the number of games stopped after too many turns.
+     *
+     * @return the number of aborted games
+     */
+    public long getNumOfAbortedGames(){
+        return numOfAbortedGames;
+    }
+
+    /**
+     * a method for getting the number of games won by a seat.
+     *
+     * @param playerIdx the index of the seat
+     * @return the number of games won by the seat
+     */
+    public long getWins(int playerIdx){
+        return wins[playerIdx];
+    }
+
+    /**
+     * a method for getting the fraction of games won by a seat.
+     *
+     * @param playerIdx the index of the seat
+     * @return the win rate of the seat, between 0 and 1
+     */
+    public double getWinRate(int playerIdx){
+        return numOfGames == 0 ? 0 : (double) wins[playerIdx] / numOfGames;
+    }
+
+    /**
+     * a method for getting the average number of turns of a game.
+     *
+     * @return the average game length in turns
+     */
+    public double getAverageTurns(){
+        return numOfGames == 0 ? 0 : (double) totalTurns / numOfGames;
+    }
+
+    /**
+     * a method for getting the length of the shortest game.
+     *
+     * @return the length of the shortest game in turns, or 0 if no game was played
+     */
+    public int getMinTurns(){
+        return numOfGames == 0 ? 0 : minTurns;
+    }
+
+    /**
+     * a method for getting the length of the longest game.
+     *
+     * @return the length of the longest game in turns
+     */
+    public int getMaxTurns(){
+        return maxTurns;
+    }
+
+    /**
+     * a method for getting the number of hands played of a type.
+     *
+     * @param type the type of hand
+     * @return the number of hands of that type played over all games
+     */
+    public long getHandTypeCount(HandType type){
+        return handTypeCounts[type.ordinal()];
+    }
+
+    /**
+     * a method for returning a report of the statistics.
+     *
+     * @return a multi-line report of the statistics
+     */
+    public String toString(){
+        StringBuilder report = new StringBuilder();
+        report.append("Games: ").append(numOfGames).append(" (aborted: ").append(numOfAbortedGames).append(")\n");
+        for (int i = 0; i < wins.length; i++){
+            report.append(String.format("Seat %d wins: %d (%.2f%%)%n", i, wins[i], 100 * getWinRate(i)));
+        }
+        report.append(String.format("Turns per game: avg %.2f, min %d, max %d%n", getAverageTurns(), getMinTurns(), maxTurns));
+        long totalHands = 0;
+        for (long count : handTypeCounts){
+            totalHands += count;
+        }
+        for (HandType type : HandType.values()){
+            long count = handTypeCounts[type.ordinal()];
+            report.append(String.format("%s: %d (%.2f%%)%n", type, count, totalHands == 0 ? 0.0 : 100.0 * count / totalHands));
+        }
+        return report.toString();
+    }
+}
@@ -17,34 +17,12 @@ public class Single extends Hand{
     }
 
     /**
-     * a method for checking if this hand beats a specified hand.
+     * a method for retrieving the type of this hand.
      *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
+     * @return the type of this hand
      */
-    public boolean beats(Hand hand){
-        if (hand == null){
-            return false;
-        }
-        if (!hand.getType().equals(this.getType())){
-            return false;
-        }
-
-        if (hand.isValid() && this.getTopCard().compareTo(hand.getTopCard()) > 0){
-            return true;
-        }
-        else{
-            return false;
-        }
-    }
-
-    /**
-     * a method for checking if this is a valid hand.
-     *
-     * @return the type of the subclass
-     */
-    public String getType(){
-        return "Single";
+    public HandType getHandType(){
+        return HandType.SINGLE;
     }
 
     /**
@@ -0,0 +1,238 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is used to model a blocking connection to a client over a socket.
+ * The wire format is detected from the first bytes sent by the client: a Java
+ * object stream (as sent by older clients) or length-prefixed frames (see
+ * MessageFrames). Replies are sent in the same format.
+ * <p>
+ * Messages are queued by send() and written by a writer task, which is only
+ * scheduled on the writer executor while the queue is not empty.
+ * 
+ */
+public class SocketConnection implements Connection {
+	private final Socket socket; // socket connection to the client
+	private final String remoteAddress; // address of the client
+	// streams used with an object stream client
+	private ObjectInputStream oistream;
+	private ObjectOutputStream oostream;
+	// streams used with a framed client
+	private DataInputStream in;
+	private DataOutputStream out;
+	// the codec used for messages sent to a framed client, chosen by its JOIN
+	// or SESSION
+	private volatile MessageCodec codec = new SerializedMessageCodec();
+	// messages waiting to be written
+	private final ArrayBlockingQueue<CardGameMessage> sendQueue = new ArrayBlockingQueue<CardGameMessage>(
+			MAX_QUEUED_MESSAGES);
+	// executor running the writer task
+	private final Executor writerExecutor;
+	// whether the writer task is scheduled or running
+	private final AtomicBoolean writerScheduled = new AtomicBoolean(false);
+	private volatile boolean closed = false;
+	// the time at which the last message was received (see System.nanoTime())
+	private volatile long lastReceiveTime = System.nanoTime();
+	// one permit per message which may be received before being handled
+	private final Semaphore receivePermits = new Semaphore(MAX_UNHANDLED_MESSAGES);
+
+	/**
+	 * Creates and returns an instance of the SocketConnection class. Blocks
+	 * until the client has sent enough bytes to detect its wire format.
+	 * 
+	 * @param socket
+	 *            the socket connection to the client
+	 * @param writerExecutor
+	 *            the executor running the task writing the queued messages
+	 * @throws IOException
+	 *             if the client closes the connection or cannot be read from
+	 */
+	public SocketConnection(Socket socket, Executor writerExecutor) throws IOException {
+		this.socket = socket;
+		this.writerExecutor = writerExecutor;
+		this.remoteAddress = String.valueOf(socket.getRemoteSocketAddress());
+
+		// peeks at the first two bytes sent by the client
+		BufferedInputStream bistream = new BufferedInputStream(socket.getInputStream());
+		bistream.mark(2);
+		int b0 = bistream.read();
+		int b1 = bistream.read();
+		if (b1 < 0) {
+			throw new EOFException("Connection closed by " + remoteAddress);
+		}
+		bistream.reset();
+
+		if (b0 == 0xAC && b1 == 0xED) {
+			// an object stream client
+			oostream = new ObjectOutputStream(socket.getOutputStream());
+			oostream.flush();
+			oistream = new ObjectInputStream(bistream);
+		} else {
+			in = new DataInputStream(bistream);
+			out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		}
+	}
+
+	/**
+	 * Returns whether the client sends length-prefixed frames.
+	 * 
+	 * @return true if the client sends frames, false if it sends a Java object
+	 *         stream
+	 */
+	public boolean isFramed() {
+		return in != null;
+	}
+
+	/**
+	 * Waits for the next message from the client. Also waits while too many
+	 * messages received before have not been handled.
+	 * 
+	 * @return the next message, or null if the client has closed the
+	 *         connection
+	 * @throws Exception
+	 *             if the message cannot be read
+	 */
+	public CardGameMessage receive() throws Exception {
+		receivePermits.acquire();
+		if (isFramed()) {
+			byte[] frame = MessageFrames.readFrame(in);
+			if (frame == null) {
+				return null;
+			}
+			CardGameMessage message = MessageFrames.decode(frame, 0, frame.length);
+			codec = MessageFrames.negotiate(codec, frame[0], message);
+			lastReceiveTime = System.nanoTime();
+			return message;
+		}
+		try {
+			CardGameMessage message = (CardGameMessage) oistream.readObject();
+			lastReceiveTime = System.nanoTime();
+			return message;
+		} catch (EOFException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Queues the specified message for sending to the client. Returns without
+	 * waiting for the message to be written.
+	 * 
+	 * @param message
+	 *            the message to be sent
+	 * @throws IOException
+	 *             if the connection is closed, or if the queue is full, in
+	 *             which case the connection is closed
+	 */
+	public void send(CardGameMessage message) throws IOException {
+		if (closed) {
+			throw new IOException("Connection closed");
+		}
+		if (!sendQueue.offer(message)) {
+			close();
+			throw new IOException("More than " + MAX_QUEUED_MESSAGES
+					+ " messages queued, disconnects the client");
+		}
+		scheduleWriter();
+	}
+
+	// schedules the writer task unless it is already scheduled
+	private void scheduleWriter() {
+		if (writerScheduled.compareAndSet(false, true)) {
+			try {
+				writerExecutor.execute(this::writeQueuedMessages);
+			} catch (RejectedExecutionException ex) {
+				writerScheduled.set(false);
+				close();
+			}
+		}
+	}
+
+	// writes the queued messages, flushing the socket once they are all written
+	private void writeQueuedMessages() {
+		try {
+			CardGameMessage message;
+			while (!closed && (message = sendQueue.poll()) != null) {
+				write(message);
+			}
+			if (isFramed()) {
+				out.flush();
+			} else {
+				oostream.flush();
+			}
+		} catch (IOException ex) {
+			close();
+		} finally {
+			writerScheduled.set(false);
+		}
+		// a message may have been queued after the queue was found empty
+		if (!closed && !sendQueue.isEmpty()) {
+			scheduleWriter();
+		}
+	}
+
+	// writes the specified message without flushing the socket
+	private void write(CardGameMessage message) throws IOException {
+		if (isFramed()) {
+			ByteBuffer frame = MessageFrames.encode(codec, message);
+			out.write(frame.array(), 0, frame.limit());
+		} else {
+			// resets the stream after every message, otherwise its handle table
+			// keeps every message ever sent reachable
+			oostream.writeObject(message);
+			oostream.reset();
+		}
+	}
+
+	/**
+	 * Returns the time at which the last message was received from the
+	 * client.
+	 * 
+	 * @return the time in nanoseconds, as returned by System.nanoTime()
+	 */
+	public long getLastReceiveTime() {
+		return lastReceiveTime;
+	}
+
+	/**
+	 * Allows another message to be received.
+	 */
+	public void messageHandled() {
+		receivePermits.release();
+	}
+
+	/**
+	 * Closes the socket connection to the client. Queued messages are
+	 * discarded.
+	 */
+	public void close() {
+		closed = true;
+		sendQueue.clear();
+		try {
+			socket.close();
+		} catch (IOException ex) {
+			// the socket is unusable either way
+		}
+	}
+
+	/**
+	 * Returns a string representation of the address of the client.
+	 * 
+	 * @return the IP address and TCP port of the client
+	 */
+	public String getRemoteAddress() {
+		return remoteAddress;
+	}
+}
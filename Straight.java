@@ -1,5 +1,3 @@
-import java.util.*;
-
 /**
  * The Flush class is a subclass of the Hand class and is used to model a hand of straight.
  *
@@ -18,12 +16,12 @@ public class Straight extends Hand{
     }
 
     /**
-     * a method for checking if this is a valid hand.
+     * a method for retrieving the type of this hand.
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public String getType(){
-        return "Straight";
+    public HandType getHandType(){
+        return HandType.STRAIGHT;
     }
 
     /**
@@ -36,53 +34,7 @@ public class Straight extends Hand{
             return false;
         }
 
-        ArrayList<Integer> ranks = new ArrayList<>();
-        for (int i = 0; i < this.size(); i++){
-            Card card = this.getCard(i);
-            int rank = card.getRank();
-
-            if(rank < 2){
-                rank += 13;
-            }
-            ranks.add(rank);
-        }
-
-        Collections.sort(ranks);
-
-        int firstRank = ranks.get(0);
-        for (int i = 1; i < ranks.size(); i++){
-            int properRank = firstRank + i;
-            int actualRank = ranks.get(i);
-            if(properRank != actualRank){
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * a method for checking if this hand beats a specified hand.
-     *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
-     */
-    public boolean beats(Hand hand){
-        if(hand == null){
-            return false;
-        }
-        if(hand.size() < 5){
-            return false;
-        }
-        if(!hand.getType().equals(this.getType())){
-            return false;
-        }
-
-        if(this.isValid() && hand.isValid() && this.getTopCard().compareTo(hand.getTopCard()) > 0){
-            return true;
-        }
-        else{
-            return false;
-        }
+        return isStraight(this.getCardSet());
     }
 
 }
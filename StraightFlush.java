@@ -1,5 +1,3 @@
-import java.util.*;
-
 /**
  * The Flush class is a subclass of the Hand class and is used to model a hand of straight flush.
  *
@@ -18,12 +16,12 @@ public class StraightFlush extends Hand{
     }
 
     /**
-     * a method for checking if this is a valid hand.
+     * a method for retrieving the type of this hand.
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public String getType(){
-        return "StraightFlush";
+    public HandType getHandType(){
+        return HandType.STRAIGHT_FLUSH;
     }
 
     /**
@@ -36,60 +34,7 @@ public class StraightFlush extends Hand{
             return false;
         }
 
-        int firstSuit = this.getCard(0).getSuit();
-        for (int i = 1; i < this.size(); i++){
-            if(this.getCard(i).getSuit() != firstSuit){
-                return false;
-            }
-        }
-
-        ArrayList<Integer> ranks = new ArrayList<>();
-        for (int i = 0; i < this.size(); i++){
-            int rank = this.getCard(i).getRank();
-
-            if(rank < 2){
-                rank += 13;
-            }
-
-            ranks.add(rank);
-        }
-
-        Collections.sort(ranks);
-
-        int firstRank = ranks.get(0);
-        for (int i = 0; i < this.size(); i++){
-            int properRank = firstRank + i;
-            int actualRank = ranks.get(i);
-            if(actualRank != properRank){
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * a method for checking if this hand beats a specified hand.
-     *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
-     */
-    public boolean beats(Hand hand){
-        if(hand == null){
-            return false;
-        }
-        if(hand.size() < 5){
-            return false;
-        }
-        if(!hand.getType().equals(this.getType())){
-            return true;
-        }
-
-        if(this.getTopCard().compareTo(hand.getTopCard()) > 0){
-            return true;
-        }
-        else{
-            return false;
-        }
+        long cardSet = this.getCardSet();
+        return isFlush(cardSet) && isStraight(cardSet);
     }
 }
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * The StrategyMatch class is used to compare two computer players (see BigTwoStrategy) at an equal CPU
+ * budget. One seat is played by the strategy under test and the other three by the opponent strategy,
+ * and every search runs on a single thread for the same number of milliseconds per move. The games are
+ * played by a BigTwoSimulation, so a strategy keeping a search tree between moves follows the game.
+ *
+ * The win rate of the tested seat is printed with its 95% confidence interval, against the 25% of a
+ * player as strong as its opponents. The process exits with status 0 only if the tested strategy is
+ * significantly stronger, so that a strategy is shown to beat another one before it replaces it, e.g. for
+ * the computer players of a BigTwoRoom.
+ */
+
+public class StrategyMatch {
+    private static final double PARITY = 0.25; // the win rate of a seat as strong as the other three
+
+    // returns a factory of the strategy with the specified name searching for the specified time per move
+    private static Supplier<BigTwoStrategy> factoryOf(String name, long budget){
+        switch (name){
+            case "tree": return () -> new TreeSearchStrategy(budget, TreeSearchStrategy.DEFAULT_MAX_NUM_OF_NODES);
+            case "mc": return () -> new MonteCarloStrategy(budget, 1);
+            case "greedy": return GreedyStrategy::new;
+            default: throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * a method for running a match from the command line.
+     *
+     * @param args any of these options: "player NAME" for the strategy under test (default tree);
+     *             "opponent NAME" for the strategy of the other seats (default mc), where a NAME is tree,
+     *             mc or greedy; "budget MS" for the milliseconds per move (default 10); "games N" for the
+     *             number of games (default 400); "threads N" for the number of games played at once, each
+     *             on one thread (default 1, games are split into tasks of 1000); "seed N" for the seed of
+     *             the deals (default 0)
+     */
+    public static void main(String[] args) throws Exception{
+        String player = "tree";
+        String opponent = "mc";
+        long budget = 10;
+        int numOfGames = 400;
+        int numOfThreads = 1;
+        long seed = 0;
+        for (int i = 0; i + 1 < args.length; i += 2){
+            switch (args[i]){
+                case "player": player = args[i + 1]; break;
+                case "opponent": opponent = args[i + 1]; break;
+                case "budget": budget = Long.parseLong(args[i + 1]); break;
+                case "games": numOfGames = Integer.parseInt(args[i + 1]); break;
+                case "threads": numOfThreads = Integer.parseInt(args[i + 1]); break;
+                case "seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ArrayList<Supplier<? extends BigTwoStrategy>> strategyFactories = new ArrayList<>();
+        strategyFactories.add(factoryOf(player, budget));
+        for (int i = 1; i < 4; i++){
+            strategyFactories.add(factoryOf(opponent, budget));
+        }
+
+        System.out.printf("%s against 3 x %s, %d ms per move, %d games, seed %d%n", player, opponent, budget, numOfGames, seed);
+        long startTime = System.nanoTime();
+        SimulationStats stats = new BigTwoSimulation(strategyFactories).run(numOfGames, numOfThreads, seed);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        double winRate = stats.getWinRate(0);
+        double margin = 1.96 * Math.sqrt(winRate * (1 - winRate) / Math.max(stats.getNumOfGames(), 1));
+        String verdict = winRate - margin > PARITY ? "stronger" : winRate + margin < PARITY ? "weaker" : "no significant difference";
+        System.out.printf("%s wins %d of %d games: %.1f%% +/- %.1f%% (parity %.0f%%), %s, in %.0f s%n", player,
+                stats.getWins(0), stats.getNumOfGames(), 100 * winRate, 100 * margin, 100 * PARITY, verdict, seconds);
+        System.exit(winRate - margin > PARITY ? 0 : 1);
+    }
+}
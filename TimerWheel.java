@@ -0,0 +1,172 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This class is used to run many delayed tasks of a card game server
+ * (heartbeats, idle timeouts, turn timers, held seats) on a single thread. The
+ * tasks are kept in a hashed timer wheel: time is cut into ticks, and a task
+ * is put in the slot of the tick at which it is due, so scheduling and
+ * cancelling a task take constant time however many tasks are pending. A task
+ * runs at most one tick late.
+ * <p>
+ * The tasks run on the thread of the wheel, so they must be short; a task
+ * changing the state of a room should only queue work in its mailbox.
+ *
+ */
+public class TimerWheel {
+	/**
+	 * The default number of milliseconds of a tick.
+	 */
+	public static final long DEFAULT_TICK_DURATION = 100;
+	/**
+	 * The default number of slots of a wheel.
+	 */
+	public static final int DEFAULT_WHEEL_SIZE = 512;
+
+	private final long tickNanos; // the duration of a tick in nanoseconds
+	private final Timeout[] wheel; // the first timeout of each slot
+	private final int mask; // the mask giving the slot of a tick
+	private final long startTime; // the time at which tick 0 started
+	// timeouts scheduled but not yet put in the wheel
+	private final ConcurrentLinkedQueue<Timeout> newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+	private final Thread worker; // the thread running the tasks
+	private volatile boolean running = true;
+	private long tick = 0; // the current tick, only used by the worker
+
+	/**
+	 * Creates and returns an instance of the TimerWheel class, and starts its
+	 * thread.
+	 *
+	 * @param name
+	 *            the name of the thread of the wheel
+	 * @param tickDuration
+	 *            the number of milliseconds of a tick
+	 * @param wheelSize
+	 *            the number of slots of the wheel, rounded up to a power of 2
+	 */
+	public TimerWheel(String name, long tickDuration, int wheelSize) {
+		this.tickNanos = tickDuration * 1000000;
+		int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+		this.wheel = new Timeout[size];
+		this.mask = size - 1;
+		this.startTime = System.nanoTime();
+		worker = new Thread(this::run, name);
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Runs the specified task after the specified delay.
+	 *
+	 * @param task
+	 *            the task to be run
+	 * @param delay
+	 *            the number of milliseconds to wait before running the task
+	 * @return the timeout of the task, for cancelling it
+	 */
+	public Timeout schedule(Runnable task, long delay) {
+		long elapsed = System.nanoTime() - startTime + Math.max(delay, 0) * 1000000;
+		Timeout timeout = new Timeout(task, (elapsed + tickNanos - 1) / tickNanos);
+		newTimeouts.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Stops the thread of the wheel. Pending tasks are not run.
+	 */
+	public void stop() {
+		running = false;
+		worker.interrupt();
+	}
+
+	// waits for each tick and runs the tasks due at it
+	private void run() {
+		while (running) {
+			long sleepNanos = startTime + (tick + 1) * tickNanos - System.nanoTime();
+			if (sleepNanos > 0) {
+				try {
+					Thread.sleep(sleepNanos / 1000000, (int) (sleepNanos % 1000000));
+				} catch (InterruptedException ex) {
+					continue;
+				}
+			}
+			tick++;
+			transferNewTimeouts();
+			expireTimeouts((int) (tick & mask));
+		}
+	}
+
+	// puts the newly scheduled timeouts in the slots of their ticks
+	private void transferNewTimeouts() {
+		Timeout timeout;
+		while ((timeout = newTimeouts.poll()) != null) {
+			if (timeout.cancelled) {
+				continue;
+			}
+			// a timeout already due runs at the current tick
+			long dueTick = Math.max(timeout.deadline, tick);
+			timeout.remainingRounds = (dueTick - tick) / wheel.length;
+			int slot = (int) (dueTick & mask);
+			timeout.next = wheel[slot];
+			wheel[slot] = timeout;
+		}
+	}
+
+	// runs the due tasks of the specified slot, dropping the cancelled ones
+	private void expireTimeouts(int slot) {
+		Timeout previous = null;
+		Timeout timeout = wheel[slot];
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			if (timeout.cancelled || timeout.remainingRounds <= 0) {
+				// unlinks the timeout
+				if (previous == null) {
+					wheel[slot] = next;
+				} else {
+					previous.next = next;
+				}
+				timeout.next = null;
+				if (!timeout.cancelled) {
+					timeout.expire();
+				}
+			} else {
+				timeout.remainingRounds--;
+				previous = timeout;
+			}
+			timeout = next;
+		}
+	}
+
+	/**
+	 * This inner class is used to model a task scheduled on a timer wheel.
+	 *
+	 */
+	public static final class Timeout {
+		private final Runnable task; // the task to be run
+		private final long deadline; // the tick at which the task is due
+		private long remainingRounds; // turns of the wheel before it is due
+		private Timeout next; // the next timeout in the same slot
+		private volatile boolean cancelled = false;
+
+		private Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancels the task, unless it has already run.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		// runs the task, reporting an exception without stopping the wheel
+		private void expire() {
+			try {
+				task.run();
+			} catch (RuntimeException ex) {
+				Thread t = Thread.currentThread();
+				t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+			}
+		}
+	}
+}
@@ -0,0 +1,457 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The TreeSearchStrategy class implements the BigTwoStrategy interface with a computer player searching a
+ * game tree by information-set Monte Carlo tree search. The tree is built over the information set of its
+ * player: every iteration deals the cards the player cannot see at random to the other players (see
+ * MonteCarloStrategy), walks down the tree through the moves legal in that deal with the UCT rule, adds
+ * one new move, and plays the game out. The players of a playout mostly make the move of a GreedyStrategy
+ * and now and then a random legal move, which plays out far closer to a real game than random moves do
+ * at little more cost, while still trying every line of play. As a move is only available in some of the
+ * deals, its exploration term counts the iterations in which it was available rather than the visits of
+ * its parent. The move visited most often is chosen.
+ *
+ * The tree is kept from one move to the next. The strategy listens to the engine of the game (see
+ * BigTwoListener), e.g. the engine of a BigTwoRoom playing the MOVE messages of its clients, or that of a
+ * BigTwoClient playing the deltas it is sent, and each move made in the game takes the root of the tree
+ * down to the matching child, so that the search of the next move starts from the work done so far. The
+ * moves are queued by the listener and applied by the next search, so the thread driving the engine is
+ * not held up, and the tree is started afresh if it does not match the game when the search starts.
+ *
+ * The nodes of the tree are kept in arrays, with their moves as sets of cards (see CardSet), and the
+ * arrays grow as the tree does up to a maximum number of nodes, after which the search goes on without
+ * adding nodes. The nodes left behind by a move are dropped by compacting the arrays. A search runs on the
+ * calling thread, so that many computer players can search at once on one core each.
+ */
+
+public class TreeSearchStrategy implements BigTwoStrategy, BigTwoListener {
+    public static final long DEFAULT_TIME_BUDGET = 200; // the default number of milliseconds per move
+    public static final int DEFAULT_MAX_NUM_OF_NODES = 1 << 20; // the default maximum number of nodes, taking 32 MB
+    private static final int NUM_OF_PLAYERS = 4;
+    private static final int INITIAL_CAPACITY = 1 << 10; // the initial number of nodes of the arrays
+    private static final double EXPLORATION = 0.7; // the weight of the exploration term of the UCT rule
+    private static final double RANDOM_MOVE_RATE = 0.1; // the probability of a random move in a playout
+    private static final int MAX_TURNS = 1000; // the number of turns after which a playout is given up
+    private static final MoveResult NEW_GAME = new MoveResult(MoveResult.Status.ILLEGAL, -1, null, -1, false); // queued when a game starts
+
+    private final long timeBudget; // the number of milliseconds per move
+    private final int maxNumOfNodes; // the maximum number of nodes of the tree
+    private final ConcurrentLinkedQueue<MoveResult> movesMade = new ConcurrentLinkedQueue<>(); // the moves not yet applied to the tree
+
+    // the nodes of the tree: the move leading to the node, its classification, the first child and the next
+    // sibling (-1 if none), the number of visits, the number of visits won by the player making the move,
+    // and the number of iterations in which the move was legal
+    private long[] moves;
+    private int[] classifications;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] visits;
+    private int[] wins;
+    private int[] availabilities;
+    private int numOfNodes; // the number of nodes in the arrays
+    private int root = -1; // the root of the tree, or -1 if there is no tree
+
+    // the state of the game at the root of the tree, as seen by the player of the tree
+    private int treePlayerIdx = -1; // the player for whom the tree is searched, or -1 if there is no tree
+    private long ownCards; // the cards held by the player of the tree
+    private final int[] numOfCards = new int[NUM_OF_PLAYERS]; // the number of cards held by each player
+    private int lastClassification; // the classification of the hand on the table, or INVALID
+    private int lastHandPlayerIdx; // the index of the player of the hand on the table, or -1
+    private int currentPlayerIdx; // the index of the player to move
+
+    // reused by every iteration
+    private final long[] hands = new long[NUM_OF_PLAYERS];
+    private final int[] unseen = new int[52];
+    private final MoveList legalMoves = new MoveList();
+    private int[] path = new int[64];
+
+    /**
+     * a constructor for creating a strategy searching for DEFAULT_TIME_BUDGET milliseconds per move with a
+     * tree of up to DEFAULT_MAX_NUM_OF_NODES nodes.
+     */
+    public TreeSearchStrategy(){
+        this(DEFAULT_TIME_BUDGET, DEFAULT_MAX_NUM_OF_NODES);
+    }
+
+    /**
+     * a constructor for creating a strategy with the specified time budget and maximum size of the tree.
+     *
+     * @param timeBudget the number of milliseconds spent searching for a move; at least one iteration is
+     *                   run whatever the budget
+     * @param maxNumOfNodes the maximum number of nodes of the tree, each taking 32 bytes, and at least 2
+     *                      so that the root has a child; the default of about a million nodes is
+     *                      far more than a search of a few seconds builds, and the arrays only grow as
+     *                      the tree does
+     */
+    public TreeSearchStrategy(long timeBudget, int maxNumOfNodes){
+        if (maxNumOfNodes < 2){
+            throw new IllegalArgumentException("The maximum number of nodes must be at least 2, got " + maxNumOfNodes);
+        }
+        this.timeBudget = timeBudget;
+        this.maxNumOfNodes = maxNumOfNodes;
+        allocate(Math.min(INITIAL_CAPACITY, maxNumOfNodes));
+    }
+
+    /**
+     * a method for choosing the move of the specified player.
+     *
+     * @param engine the engine holding the current state of the game
+     * @param playerIdx the index of the player whose turn it is
+     * @param random the random number generator from which the search is seeded, or null for a
+     *               generator seeded at random
+     * @return the set of cards to be played, or CardSet.EMPTY for a pass
+     */
+    public synchronized long chooseMove(BigTwoEngine engine, int playerIdx, Random random){
+        engine.getLegalMoves(playerIdx, legalMoves);
+        if (legalMoves.size() <= 1){
+            return legalMoves.isEmpty() ? CardSet.EMPTY : legalMoves.get(0);
+        }
+
+        MonteCarloStrategy.Position position = MonteCarloStrategy.Position.of(engine, playerIdx);
+        applyMovesMade();
+        if (matches(position)){
+            compact();
+        }
+        else{
+            startTree(position);
+        }
+
+        SplittableRandom searchRandom = new SplittableRandom(random != null ? random.nextLong() : System.nanoTime());
+        long deadline = System.nanoTime() + timeBudget * 1000000;
+        do {
+            iterate(position, searchRandom);
+        } while (System.nanoTime() < deadline);
+
+        // the most visited move, as its win rate is the best estimated
+        int best = firstChildren[root];
+        if (best < 0){
+            // no node could be added
+            engine.getLegalMoves(playerIdx, legalMoves);
+            return legalMoves.get(searchRandom.nextInt(legalMoves.size()));
+        }
+        for (int c = nextSiblings[best]; c >= 0; c = nextSiblings[c]){
+            if (visits[c] > visits[best]){
+                best = c;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * a method for getting the number of nodes of the tree.
+     *
+     * @return the number of nodes of the tree, including those dropped by the last move until the next
+     *         search
+     */
+    public synchronized int getNumOfNodes(){
+        return numOfNodes;
+    }
+
+    /**
+     * a method called after the cards have been dealt for a new game, which drops the tree.
+     *
+     * @param engine the engine that started the game
+     */
+    public void gameStarted(BigTwoEngine engine){
+        movesMade.clear();
+        movesMade.add(NEW_GAME);
+    }
+
+    /**
+     * a method called after a move has been checked, which queues a legal move for the tree.
+     *
+     * @param engine the engine that checked the move
+     * @param result the result of the move
+     */
+    public void moveMade(BigTwoEngine engine, MoveResult result){
+        if (result.isLegal()){
+            movesMade.add(result);
+        }
+    }
+
+    /**
+     * a method called after a move ended the game.
+     *
+     * @param engine the engine whose game ended
+     * @param winnerIdx the index of the player who has no cards left
+     */
+    public void gameEnded(BigTwoEngine engine, int winnerIdx){
+    }
+
+    // takes the root of the tree down through the moves made since the last search
+    private void applyMovesMade(){
+        MoveResult result;
+        while ((result = movesMade.poll()) != null){
+            if (result == NEW_GAME){
+                // lets the memory of a large tree go
+                allocate(Math.min(INITIAL_CAPACITY, maxNumOfNodes));
+                root = -1;
+                treePlayerIdx = -1;
+            }
+            else if (treePlayerIdx >= 0){
+                advance(result.getPlayerIdx(), result.getHand() == null ? CardSet.EMPTY : result.getHand().getCardSet());
+            }
+        }
+    }
+
+    // takes the root of the tree down through the specified move, and the state of the game with it
+    private void advance(int playerIdx, long move){
+        if (playerIdx != currentPlayerIdx){
+            treePlayerIdx = -1;
+            return;
+        }
+        int child = root < 0 ? -1 : childOf(root, move);
+        root = child;
+        if (move != CardSet.EMPTY){
+            numOfCards[playerIdx] -= CardSet.size(move);
+            lastClassification = HandClassifier.classify(move);
+            lastHandPlayerIdx = playerIdx;
+            if (playerIdx == treePlayerIdx){
+                ownCards &= ~move;
+            }
+        }
+        currentPlayerIdx = (playerIdx + 1) % NUM_OF_PLAYERS;
+    }
+
+    // returns whether the root of the tree is the specified state of the game
+    private boolean matches(MonteCarloStrategy.Position position){
+        return root >= 0 && treePlayerIdx == position.playerIdx && currentPlayerIdx == position.playerIdx
+                && ownCards == position.ownCards && lastClassification == position.lastClassification
+                && lastHandPlayerIdx == position.lastHandPlayerIdx && Arrays.equals(numOfCards, position.numOfCards);
+    }
+
+    // starts a new tree at the specified state of the game
+    private void startTree(MonteCarloStrategy.Position position){
+        treePlayerIdx = position.playerIdx;
+        ownCards = position.ownCards;
+        System.arraycopy(position.numOfCards, 0, numOfCards, 0, NUM_OF_PLAYERS);
+        lastClassification = position.lastClassification;
+        lastHandPlayerIdx = position.lastHandPlayerIdx;
+        currentPlayerIdx = position.playerIdx;
+        numOfNodes = 0;
+        root = newNode(CardSet.EMPTY, HandClassifier.INVALID);
+    }
+
+    /**
+     * a method for running one iteration of the search: dealing the unseen cards, selecting a path down
+     * the tree, adding a node, playing the game out and updating the nodes of the path.
+     *
+     * @param position the state of the game at the root, as seen by the player of the tree
+     * @param random the random number generator of the iteration
+     */
+    private void iterate(MonteCarloStrategy.Position position, SplittableRandom random){
+        position.deal(hands, unseen, random);
+        int node = root;
+        int playerIdx = currentPlayerIdx;
+        int lastClassification = this.lastClassification;
+        int lastHandPlayerIdx = this.lastHandPlayerIdx;
+        int depth = 0;
+        path[depth++] = node;
+        int winnerIdx;
+        while (true){
+            boolean leading = lastHandPlayerIdx < 0 || playerIdx == lastHandPlayerIdx;
+            long hand = hands[playerIdx];
+            MoveGenerator.generate(hand, leading ? HandClassifier.INVALID : lastClassification, legalMoves);
+
+            // the UCT rule over the children legal in this deal, each of which has been visited
+            int numOfLegalChildren = 0;
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int c = firstChildren[node]; c >= 0; c = nextSiblings[c]){
+                long move = moves[c];
+                boolean legal = move == CardSet.EMPTY ? !leading
+                        : (move & ~hand) == 0 && (leading || HandClassifier.beats(classifications[c], lastClassification));
+                if (!legal){
+                    continue;
+                }
+                numOfLegalChildren++;
+                availabilities[c]++;
+                double score = (double) wins[c] / visits[c] + EXPLORATION * Math.sqrt(Math.log(availabilities[c]) / visits[c]);
+                if (score > bestScore){
+                    best = c;
+                    bestScore = score;
+                }
+            }
+
+            // adds a move not tried yet and plays the game out from it
+            int untried = numOfLegalChildren < legalMoves.size() && numOfNodes < maxNumOfNodes ? untriedMove(node, random) : -1;
+            if (untried >= 0 || best < 0){
+                long move = legalMoves.get(untried >= 0 ? untried : random.nextInt(legalMoves.size()));
+                if (untried >= 0){
+                    int child = newNode(move, move == CardSet.EMPTY ? HandClassifier.INVALID : HandClassifier.classify(move));
+                    nextSiblings[child] = firstChildren[node];
+                    firstChildren[node] = child;
+                    path = depth < path.length ? path : Arrays.copyOf(path, path.length * 2);
+                    path[depth++] = child;
+                }
+                winnerIdx = playOut(playerIdx, move, hands, lastClassification, lastHandPlayerIdx, legalMoves, random);
+                break;
+            }
+
+            // goes down to the selected child
+            node = best;
+            path = depth < path.length ? path : Arrays.copyOf(path, path.length * 2);
+            path[depth++] = node;
+            long move = moves[node];
+            if (move != CardSet.EMPTY){
+                hands[playerIdx] &= ~move;
+                if (hands[playerIdx] == CardSet.EMPTY){
+                    winnerIdx = playerIdx;
+                    break;
+                }
+                lastClassification = classifications[node];
+                lastHandPlayerIdx = playerIdx;
+            }
+            playerIdx = (playerIdx + 1) % NUM_OF_PLAYERS;
+        }
+
+        // the move into the k-th node of the path is made by the k-th player from the root
+        for (int k = 1; k < depth; k++){
+            int n = path[k];
+            visits[n]++;
+            if ((currentPlayerIdx + k - 1) % NUM_OF_PLAYERS == winnerIdx){
+                wins[n]++;
+            }
+        }
+    }
+
+    /**
+     * a method for playing a game out after the specified move, each player making the move of a
+     * GreedyStrategy or, at the rate of RANDOM_MOVE_RATE, a random legal move.
+     *
+     * @param playerIdx the index of the player making the move
+     * @param move the move made, or CardSet.EMPTY for a pass
+     * @param hands the cards held by each player before the move, which are played from
+     * @param lastClassification the classification of the hand on the table before the move, or INVALID
+     * @param lastHandPlayerIdx the index of the player of the hand on the table before the move, or -1
+     * @param moves the list reused for the legal moves
+     * @param random the random number generator of the playout
+     * @return the index of the winner, or -1 if the game was given up after MAX_TURNS turns
+     */
+    static int playOut(int playerIdx, long move, long[] hands, int lastClassification, int lastHandPlayerIdx,
+            MoveList moves, SplittableRandom random){
+        for (int turn = 0; turn < MAX_TURNS; turn++){
+            if (move != CardSet.EMPTY){
+                hands[playerIdx] &= ~move;
+                if (hands[playerIdx] == CardSet.EMPTY){
+                    return playerIdx;
+                }
+                lastClassification = HandClassifier.classify(move);
+                lastHandPlayerIdx = playerIdx;
+            }
+
+            playerIdx = (playerIdx + 1) % NUM_OF_PLAYERS;
+            boolean leading = lastHandPlayerIdx < 0 || playerIdx == lastHandPlayerIdx;
+            MoveGenerator.generate(hands[playerIdx], leading ? HandClassifier.INVALID : lastClassification, moves);
+            move = random.nextDouble() < RANDOM_MOVE_RATE ? moves.get(random.nextInt(moves.size()))
+                    : GreedyStrategy.choose(hands[playerIdx], leading, moves);
+        }
+        return -1;
+    }
+
+    // returns the index in legalMoves of a move without a child of the specified node, starting at a
+    // random move, or -1 if there is none
+    private int untriedMove(int node, SplittableRandom random){
+        int size = legalMoves.size();
+        int start = random.nextInt(size);
+        for (int i = 0; i < size; i++){
+            int m = (start + i) % size;
+            if (childOf(node, legalMoves.get(m)) < 0){
+                return m;
+            }
+        }
+        return -1;
+    }
+
+    // returns the child of the specified node reached by the specified move, or -1 if there is none
+    private int childOf(int node, long move){
+        for (int c = firstChildren[node]; c >= 0; c = nextSiblings[c]){
+            if (moves[c] == move){
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    // adds a node without children or visits, growing the arrays if needed, and returns it
+    private int newNode(long move, int classification){
+        if (numOfNodes == moves.length){
+            allocate(Math.min(moves.length * 2, maxNumOfNodes));
+        }
+        int node = numOfNodes++;
+        moves[node] = move;
+        classifications[node] = classification;
+        firstChildren[node] = -1;
+        nextSiblings[node] = -1;
+        visits[node] = 0;
+        wins[node] = 0;
+        availabilities[node] = 1;
+        return node;
+    }
+
+    // resizes the arrays of the nodes to the specified capacity, keeping the nodes which fit
+    private void allocate(int capacity){
+        if (moves != null && moves.length == capacity){
+            return;
+        }
+        numOfNodes = Math.min(numOfNodes, capacity);
+        moves = moves == null ? new long[capacity] : Arrays.copyOf(moves, capacity);
+        classifications = classifications == null ? new int[capacity] : Arrays.copyOf(classifications, capacity);
+        firstChildren = firstChildren == null ? new int[capacity] : Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = nextSiblings == null ? new int[capacity] : Arrays.copyOf(nextSiblings, capacity);
+        visits = visits == null ? new int[capacity] : Arrays.copyOf(visits, capacity);
+        wins = wins == null ? new int[capacity] : Arrays.copyOf(wins, capacity);
+        availabilities = availabilities == null ? new int[capacity] : Arrays.copyOf(availabilities, capacity);
+    }
+
+    /**
+     * a method for dropping the nodes which are not below the root, by sliding the others down the
+     * arrays. A node is always added after its parent, so a single pass in the order of the arrays finds
+     * all the nodes below the root, and sliding keeps that order. The root ends up first.
+     */
+    private void compact(){
+        if (root == 0 && nextSiblings[0] < 0){
+            return;
+        }
+        // marks the nodes below the root; the nodes before the root cannot be below it
+        nextSiblings[root] = -1;
+        int[] newIndices = new int[numOfNodes - root];
+        Arrays.fill(newIndices, -1);
+        newIndices[0] = 0;
+        for (int n = root; n < numOfNodes; n++){
+            if (newIndices[n - root] < 0){
+                continue;
+            }
+            for (int c = firstChildren[n]; c >= 0; c = nextSiblings[c]){
+                newIndices[c - root] = 0;
+            }
+        }
+
+        // numbers the marked nodes in the order of the arrays, then slides them down, each to an index
+        // not above its own
+        int next = 0;
+        for (int n = 0; n < newIndices.length; n++){
+            if (newIndices[n] >= 0){
+                newIndices[n] = next++;
+            }
+        }
+        for (int n = root; n < numOfNodes; n++){
+            int to = newIndices[n - root];
+            if (to < 0){
+                continue;
+            }
+            moves[to] = moves[n];
+            classifications[to] = classifications[n];
+            firstChildren[to] = firstChildren[n] < 0 ? -1 : newIndices[firstChildren[n] - root];
+            nextSiblings[to] = nextSiblings[n] < 0 ? -1 : newIndices[nextSiblings[n] - root];
+            visits[to] = visits[n];
+            wins[to] = wins[n];
+            availabilities[to] = availabilities[n];
+        }
+        numOfNodes = next;
+        root = 0;
+    }
+}
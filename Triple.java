@@ -17,12 +17,12 @@ public class Triple extends Hand{
     }
 
     /**
-     * a method for checking if this is a valid hand.
+     * a method for retrieving the type of this hand.
      *
-     * @return the type of the subclass
+     * @return the type of this hand
      */
-    public String getType(){
-        return "Triple";
+    public HandType getHandType(){
+        return HandType.TRIPLE;
     }
 
     /**
@@ -35,35 +35,7 @@ public class Triple extends Hand{
             return false;
         }
 
-        int firstRank = this.getCard(0).getRank();
-        for (int i = 1; i < this.size(); i++){
-            int rank = this.getCard(i).getRank();
-            if(firstRank != rank){
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * a method for checking if this hand beats a specified hand.
-     *
-     * @param hand the hand the player is going to play
-     * @return whether this hand beats a specified hand or not
-     */
-    public boolean beats(Hand hand){
-        if(hand == null){
-            return false;
-        }
-        if(!hand.getType().equals(this.getType())){
-            return false;
-        }
-
-        if(this.isValid() && hand.isValid() && this.getTopCard().compareTo(hand.getTopCard()) > 0){
-            return true;
-        }
-        else{
-            return false;
-        }
+        long cardSet = this.getCardSet();
+        return CardSet.size(cardSet) == 3 && Integer.bitCount(CardSet.rankMask(cardSet)) == 1;
     }
 }
@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The SuiteBenchmark class runs the benchmarks of the suites of the game (HandBenchmarks and
+ * MessageBenchmarks) with JMH instead of the BenchmarkRunner, so that every benchmark runs in a fresh JVM
+ * and its allocations are reported by the GC profiler. The suites register their operations with a
+ * BenchmarkRunner as usual, and each operation is looked up by its name, which is a parameter of the
+ * benchmark. JMH cannot generate code for classes of the unnamed package, where the game is, so the
+ * suites are only reached by reflection, and only while setting up.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuiteBenchmark {
+    private static final String[] SUITES = {"HandBenchmarks", "MessageBenchmarks"}; // the classes of the suites
+    private static final long SEED = 0; // the seed of the inputs of the suites, as in their main()
+
+    @Param({"BigTwoCard.compareTo"})
+    public String name; // the name of the benchmark in its suite
+
+    private IntToLongFunction operation; // the operation of the benchmark
+    private int invocation; // the number of the next invocation, from which the operation picks its input
+
+    /**
+     * a method for looking up the operation of the benchmark.
+     *
+     * @throws ReflectiveOperationException if the suites cannot be set up
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException{
+        Object runner = newRunner(".*");
+        operation = (IntToLongFunction) runner.getClass().getMethod("getOperation", String.class).invoke(runner, name);
+        if (operation == null){
+            throw new IllegalArgumentException("Unknown benchmark: " + name);
+        }
+    }
+
+    /**
+     * a method for running the operation once.
+     *
+     * @return the value of the operation, consumed by JMH so that the work cannot be dropped
+     */
+    @Benchmark
+    public long run(){
+        return operation.applyAsLong(invocation++);
+    }
+
+    // a method for creating a BenchmarkRunner holding the benchmarks of every suite, which are selected by
+    // the specified pattern
+    private static Object newRunner(String filter) throws ReflectiveOperationException{
+        Class<?> runnerClass = Class.forName("BenchmarkRunner");
+        Object runner = runnerClass.getMethod("fromCommandLine", String[].class).invoke(null, (Object) new String[] {"filter", filter});
+        for (String suite : SUITES){
+            Class<?> suiteClass = Class.forName(suite);
+            Object benchmarks = suiteClass.getConstructor(long.class).newInstance(SEED);
+            suiteClass.getMethod("addTo", runnerClass).invoke(benchmarks, runner);
+        }
+        return runner;
+    }
+
+    /**
+     * a method for running the benchmarks from the command line with the GC profiler.
+     *
+     * @param args "filter REGEX" first for running only the benchmarks whose name contains a match, as
+     *             with the BenchmarkRunner, followed by any options of JMH; the benchmarks can also be
+     *             chosen by name with "-p name=NAME,..."
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception{
+        String filter = ".*";
+        if (args.length >= 2 && args[0].equals("filter")){
+            filter = args[1];
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(SuiteBenchmark.class.getName())
+                .addProfiler(GCProfiler.class);
+        if (!commandLine.getParameter("name").hasValue()){
+            Object runner = newRunner(filter);
+            List<String> names = (List<String>) runner.getClass().getMethod("getNames").invoke(runner);
+            options.param("name", names.toArray(new String[0]));
+        }
+        new Runner(options.build()).run();
+    }
+}